@@ -0,0 +1,133 @@
+package com.wonkglorg.utilitylib.command.benchmark;
+
+import com.wonkglorg.utilitylib.command.Arguments;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typed argument parsing on valid and invalid input and partial matching on large candidate lists
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ArgumentsBenchmark{
+	
+	@Param({"100", "10000"})
+	public int candidates;
+	
+	private final BenchmarkArguments valid = new BenchmarkArguments(new String[]{"12345", "3,1415", "true", "9876543210"});
+	private final BenchmarkArguments invalid = new BenchmarkArguments(new String[]{"abc", "x.y", "maybe", "long"});
+	private List<String> names;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		names = new ArrayList<>(candidates);
+		for(int i = 0; i < candidates; i++){
+			StringBuilder name = new StringBuilder();
+			int length = 3 + random.nextInt(13);
+			for(int j = 0; j < length; j++){
+				name.append((char) ('a' + random.nextInt(26)));
+			}
+			names.add(name.toString());
+		}
+	}
+	
+	@Benchmark
+	public int integerValid() {
+		return valid.integer(0);
+	}
+	
+	@Benchmark
+	public int integerInvalid() {
+		return invalid.integer(0);
+	}
+	
+	@Benchmark
+	public double doubleValid() {
+		return valid.decimal(1);
+	}
+	
+	@Benchmark
+	public double doubleInvalid() {
+		return invalid.decimal(1);
+	}
+	
+	@Benchmark
+	public boolean booleanValid() {
+		return valid.bool(2);
+	}
+	
+	@Benchmark
+	public boolean booleanInvalid() {
+		return invalid.bool(2);
+	}
+	
+	@Benchmark
+	public long longValid() {
+		return valid.longValue(3);
+	}
+	
+	@Benchmark
+	public long longInvalid() {
+		return invalid.longValue(3);
+	}
+	
+	@Benchmark
+	public List<String> matchEmptyPrefix() {
+		return valid.matchArg("", names);
+	}
+	
+	@Benchmark
+	public List<String> matchSingleCharacter() {
+		return valid.matchArg("k", names);
+	}
+	
+	@Benchmark
+	public List<String> matchLongPrefix() {
+		return valid.matchArg("kqz", names);
+	}
+	
+	/**
+	 * Exposes the protected accessors of {@link Arguments}
+	 */
+	private static final class BenchmarkArguments extends Arguments{
+		private BenchmarkArguments(String[] args) {
+			super(0);
+			setArgs(args);
+		}
+		
+		int integer(int index) {
+			return argAsInteger(index, -1);
+		}
+		
+		double decimal(int index) {
+			return argAsDouble(index, -1);
+		}
+		
+		boolean bool(int index) {
+			return argAsBoolean(index, false);
+		}
+		
+		long longValue(int index) {
+			return argAsLong(index, -1);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.wonkglorg.utilitylib.command.benchmark;
+
+import com.wonkglorg.utilitylib.command.cooldown.Cooldown;
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cooldown operations on a single thread and under contention from several threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CooldownManagerBenchmark{
+	private static final int PLAYERS = 1024;
+	private static final String KEY = "kit";
+	private static final Duration DURATION = Duration.ofMinutes(5);
+	
+	private final UUID[] players = new UUID[PLAYERS];
+	private final UUID[] refresh = new UUID[100];
+	private final long[] remaining = new long[100];
+	private CooldownManager manager;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		manager = new CooldownManager();
+		for(int i = 0; i < PLAYERS; i++){
+			players[i] = new UUID(random.nextLong(), random.nextLong());
+			if(i % 2 == 0){
+				manager.addCooldown(KEY, players[i], DURATION);
+			}
+		}
+		System.arraycopy(players, 0, refresh, 0, refresh.length);
+	}
+	
+	@State(Scope.Thread)
+	public static class Cursor{
+		private static final AtomicInteger THREADS = new AtomicInteger();
+		private int index;
+		
+		@Setup
+		public void setup() {
+			//spread the threads over the players
+			index = THREADS.getAndIncrement() * (PLAYERS / 4);
+		}
+		
+		int next() {
+			return index = (index + 1) & (PLAYERS - 1);
+		}
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public Cooldown getUncontended(Cursor cursor) {
+		return manager.getCooldown(KEY, players[cursor.next()]);
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public boolean checkThenAddUncontended(Cursor cursor) {
+		UUID player = players[cursor.next()];
+		boolean has = manager.hasCooldown(KEY, player);
+		manager.addCooldown(KEY, player, DURATION);
+		return has;
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public long tryAcquireUncontended(Cursor cursor) {
+		return manager.tryAcquire(KEY, players[cursor.next()], DURATION);
+	}
+	
+	/**
+	 * Refreshing the cooldowns of 100 players one call at a time, like a gui did before the batch api
+	 */
+	@Benchmark
+	@Threads(1)
+	public long[] refreshOneByOne() {
+		for(int i = 0; i < refresh.length; i++){
+			remaining[i] = Math.max(0, manager.getCooldown(KEY, refresh[i]).getRemainingTime());
+		}
+		return remaining;
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public long[] refreshBatch() {
+		return manager.getRemainingTimes(KEY, refresh, remaining);
+	}
+	
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(3)
+	public Cooldown contendedGet(Cursor cursor) {
+		return manager.getCooldown(KEY, players[cursor.next()]);
+	}
+	
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(1)
+	public void contendedAdd(Cursor cursor) {
+		manager.addCooldown(KEY, players[cursor.next()], DURATION);
+	}
+}
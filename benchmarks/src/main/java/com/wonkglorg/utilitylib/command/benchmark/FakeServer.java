@@ -0,0 +1,92 @@
+package com.wonkglorg.utilitylib.command.benchmark;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Minimal stand in for the bukkit server so code calling {@link Bukkit} can run outside a server, only knows a single world
+ */
+final class FakeServer{
+	static final String WORLD_NAME = "world";
+	private static World world;
+	
+	private FakeServer() {
+		//Utility class
+	}
+	
+	/**
+	 * Installs the fake server if no server is set yet
+	 *
+	 * @return the only world of the fake server
+	 */
+	static synchronized World install() {
+		if(world != null){
+			return world;
+		}
+		world = proxy(World.class, (proxy, method, args) -> switch(method.getName()){
+			case "getName" -> WORLD_NAME;
+			case "hashCode" -> System.identityHashCode(proxy);
+			case "equals" -> proxy == args[0];
+			default -> defaultValue(method.getReturnType());
+		});
+		Logger logger = Logger.getLogger("FakeServer");
+		Server server = proxy(Server.class, (proxy, method, args) -> switch(method.getName()){
+			case "getWorld" -> args[0] instanceof String name && name.equals(WORLD_NAME) ? world : null;
+			case "getLogger" -> logger;
+			case "getName", "getVersion", "getBukkitVersion" -> "FakeServer";
+			case "isPrimaryThread" -> true;
+			case "hashCode" -> System.identityHashCode(proxy);
+			case "equals" -> proxy == args[0];
+			default -> defaultValue(method.getReturnType());
+		});
+		try{
+			//set directly, Bukkit.setServer prints build information that does not exist outside a server
+			Field field = Bukkit.class.getDeclaredField("server");
+			field.setAccessible(true);
+			if(field.get(null) == null){
+				field.set(null, server);
+			}
+		} catch(ReflectiveOperationException e){
+			throw new IllegalStateException("Could not install fake server", e);
+		}
+		return world;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(FakeServer.class.getClassLoader(), new Class<?>[]{type}, handler);
+	}
+	
+	private static Object defaultValue(Class<?> type) {
+		if(!type.isPrimitive() || type == void.class){
+			return null;
+		}
+		if(type == boolean.class){
+			return false;
+		}
+		if(type == char.class){
+			return (char) 0;
+		}
+		if(type == long.class){
+			return 0L;
+		}
+		if(type == float.class){
+			return 0F;
+		}
+		if(type == double.class){
+			return 0D;
+		}
+		if(type == byte.class){
+			return (byte) 0;
+		}
+		if(type == short.class){
+			return (short) 0;
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,65 @@
+package com.wonkglorg.utilitylib.command.benchmark;
+
+import com.wonkglorg.utilitylib.command.LocationUtils;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Location to string round trips, runs against a {@link FakeServer}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LocationUtilsBenchmark{
+	private Location location;
+	private String locationString;
+	private String locationEyeString;
+	
+	@Setup
+	public void setup() {
+		World world = FakeServer.install();
+		location = new Location(world, 1024.5, 64, -2048.25, 90, 45);
+		locationString = LocationUtils.changeLocationToString(location);
+		locationEyeString = LocationUtils.changeLocationToStringEye(location);
+	}
+	
+	@Benchmark
+	public String toStringBlock() {
+		return LocationUtils.changeLocationToString(location);
+	}
+	
+	@Benchmark
+	public String toStringEye() {
+		return LocationUtils.changeLocationToStringEye(location);
+	}
+	
+	@Benchmark
+	public Location fromString() {
+		return LocationUtils.changeStringLocationToLocation(locationString);
+	}
+	
+	@Benchmark
+	public Location fromStringEye() {
+		return LocationUtils.changeStringLocationToLocation(locationEyeString);
+	}
+	
+	@Benchmark
+	public Location roundTrip() {
+		return LocationUtils.changeStringLocationToLocation(LocationUtils.changeLocationToStringEye(location));
+	}
+}
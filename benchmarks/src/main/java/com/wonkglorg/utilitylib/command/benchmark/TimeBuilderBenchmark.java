@@ -0,0 +1,66 @@
+package com.wonkglorg.utilitylib.command.benchmark;
+
+import com.wonkglorg.utilitylib.command.cooldown.time.TimeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting and parsing of human-readable durations
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TimeBuilderBenchmark{
+	private static final int SIZE = 1024;
+	
+	private final long[] millis = new long[SIZE];
+	private final String[] strings = new String[SIZE];
+	private int cursor;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		for(int i = 0; i < SIZE; i++){
+			millis[i] = (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(400));
+			strings[i] = TimeBuilder.toTimeString().inputMillie(millis[i]).build();
+		}
+	}
+	
+	@Benchmark
+	public String formatShort() {
+		return TimeBuilder.toTimeString().inputMillie(millis[next()]).build();
+	}
+	
+	@Benchmark
+	public String formatFullName() {
+		return TimeBuilder.toTimeString().inputMillie(millis[next()]).useFullName(true).build();
+	}
+	
+	@Benchmark
+	public long parse() {
+		return TimeBuilder.fromTimeString(strings[next()]).toMilliseconds();
+	}
+	
+	@Benchmark
+	public long parseSimple() {
+		return TimeBuilder.fromTimeString("2h 30m").toMilliseconds();
+	}
+	
+	private int next() {
+		return cursor = (cursor + 1) & (SIZE - 1);
+	}
+}
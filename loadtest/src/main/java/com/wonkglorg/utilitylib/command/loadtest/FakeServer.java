@@ -0,0 +1,104 @@
+package com.wonkglorg.utilitylib.command.loadtest;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Minimal stand in for the bukkit server and its players so commands can be driven outside a server
+ */
+final class FakeServer{
+	private static boolean installed;
+	
+	private FakeServer() {
+		//Utility class
+	}
+	
+	/**
+	 * Installs the fake server if no server is set yet
+	 */
+	static synchronized void install() {
+		if(installed){
+			return;
+		}
+		Logger logger = Logger.getLogger("FakeServer");
+		Server server = proxy(Server.class, (proxy, method, args) -> switch(method.getName()){
+			case "getLogger" -> logger;
+			case "getName", "getVersion", "getBukkitVersion" -> "FakeServer";
+			case "isPrimaryThread" -> true;
+			case "hashCode" -> System.identityHashCode(proxy);
+			case "equals" -> proxy == args[0];
+			default -> defaultValue(method.getReturnType());
+		});
+		try{
+			//set directly, Bukkit.setServer prints build information that does not exist outside a server
+			Field field = Bukkit.class.getDeclaredField("server");
+			field.setAccessible(true);
+			if(field.get(null) == null){
+				field.set(null, server);
+			}
+		} catch(ReflectiveOperationException e){
+			throw new IllegalStateException("Could not install fake server", e);
+		}
+		installed = true;
+	}
+	
+	/**
+	 * Creates a player that has every permission and ignores all messages
+	 *
+	 * @param index the index of the player, decides its name and uuid
+	 * @return the player
+	 */
+	static Player player(int index) {
+		String name = "Player" + index;
+		UUID uuid = new UUID(0, index);
+		return proxy(Player.class, (proxy, method, args) -> switch(method.getName()){
+			case "getName" -> name;
+			case "getUniqueId" -> uuid;
+			case "hasPermission", "isOnline", "isOp" -> true;
+			case "toString" -> name;
+			case "hashCode" -> uuid.hashCode();
+			case "equals" -> proxy == args[0];
+			default -> defaultValue(method.getReturnType());
+		});
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(FakeServer.class.getClassLoader(), new Class<?>[]{type}, handler);
+	}
+	
+	private static Object defaultValue(Class<?> type) {
+		if(!type.isPrimitive() || type == void.class){
+			return null;
+		}
+		if(type == boolean.class){
+			return false;
+		}
+		if(type == char.class){
+			return (char) 0;
+		}
+		if(type == long.class){
+			return 0L;
+		}
+		if(type == float.class){
+			return 0F;
+		}
+		if(type == double.class){
+			return 0D;
+		}
+		if(type == byte.class){
+			return (byte) 0;
+		}
+		if(type == short.class){
+			return (short) 0;
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,34 @@
+package com.wonkglorg.utilitylib.command.loadtest;
+
+/**
+ * A single recorded or generated command invocation
+ *
+ * @param completion true for a tab completion, false for an execution
+ * @param player the index of the player sending it
+ * @param label the label the command was used with
+ * @param args the arguments, for completions the last one is the one being typed
+ */
+record Invocation(boolean completion, int player, String label, String[] args){
+	
+	/**
+	 * Parses a line of a trace file: {@code exec|complete <player> <label> [args...]}, for completions a trailing space means an empty
+	 * argument is being typed
+	 */
+	static Invocation parse(String line) {
+		String[] head = line.split(" ", 4);
+		if(head.length < 3){
+			throw new IllegalArgumentException("Invalid trace line: " + line);
+		}
+		boolean completion = switch(head[0]){
+			case "exec" -> false;
+			case "complete" -> true;
+			default -> throw new IllegalArgumentException("Unknown invocation type " + head[0] + " in line: " + line);
+		};
+		String[] args = head.length == 4 ? head[3].split(" ", completion ? -1 : 0) : completion ? new String[]{""} : new String[0];
+		return new Invocation(completion, Integer.parseInt(head[1]), head[2], args);
+	}
+	
+	String format() {
+		return (completion ? "complete " : "exec ") + player + " " + label + (args.length == 0 ? "" : " " + String.join(" ", args));
+	}
+}
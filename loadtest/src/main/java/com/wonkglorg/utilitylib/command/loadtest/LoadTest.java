@@ -0,0 +1,74 @@
+package com.wonkglorg.utilitylib.command.loadtest;
+
+import com.wonkglorg.utilitylib.command.completion.CompletionCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Command line entry point of the load test.
+ * <p>
+ * Options:
+ * <ul>
+ *     <li>{@code --trace <file>} replay a recorded trace instead of a synthetic workload</li>
+ *     <li>{@code --synthetic <count>} size of the synthetic workload (default 100000)</li>
+ *     <li>{@code --players <count>} players of the synthetic workload (default 50)</li>
+ *     <li>{@code --seed <seed>} seed of the synthetic workload (default 42)</li>
+ *     <li>{@code --save <file>} write the workload as trace file</li>
+ *     <li>{@code --warmup <rounds>} replays before measuring (default 3)</li>
+ *     <li>{@code --rounds <rounds>} measured replays (default 5)</li>
+ *     <li>{@code --cache <ttlMillis>} enable the completion cache of the sample command</li>
+ * </ul>
+ */
+public final class LoadTest{
+	
+	private LoadTest() {
+		//Entry point
+	}
+	
+	public static void main(String[] args) throws IOException {
+		Path trace = null;
+		Path save = null;
+		int size = 100_000;
+		int players = 50;
+		long seed = 42;
+		int warmup = 3;
+		int rounds = 5;
+		long cacheTtl = 0;
+		for(int i = 0; i < args.length; i++){
+			String value = i + 1 < args.length ? args[i + 1] : null;
+			switch(args[i]){
+				case "--trace" -> trace = Path.of(require(args[i], value));
+				case "--save" -> save = Path.of(require(args[i], value));
+				case "--synthetic" -> size = Integer.parseInt(require(args[i], value));
+				case "--players" -> players = Integer.parseInt(require(args[i], value));
+				case "--seed" -> seed = Long.parseLong(require(args[i], value));
+				case "--warmup" -> warmup = Integer.parseInt(require(args[i], value));
+				case "--rounds" -> rounds = Integer.parseInt(require(args[i], value));
+				case "--cache" -> cacheTtl = Long.parseLong(require(args[i], value));
+				default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+			i++;
+		}
+		
+		Workload workload = trace != null ? Workload.load(trace) : Workload.synthetic(seed, size, players);
+		if(save != null){
+			workload.save(save);
+		}
+		//commands look up the server while they are constructed, so it has to be installed first
+		FakeServer.install();
+		SampleCommand command = new SampleCommand();
+		if(cacheTtl > 0){
+			command.setCompletionCache(new CompletionCache(cacheTtl));
+		}
+		LoadTestHarness.Report report = new LoadTestHarness(command, command.getName()).run(workload, warmup, rounds);
+		System.out.print(report.format());
+	}
+	
+	private static String require(String option, String value) {
+		if(value == null){
+			throw new IllegalArgumentException("Missing value for " + option);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,129 @@
+package com.wonkglorg.utilitylib.command.loadtest;
+
+import com.wonkglorg.utilitylib.command.metrics.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Replays a {@link Workload} against a command on the current thread (like the main thread of a server) and measures throughput,
+ * latency percentiles and allocation rate
+ */
+final class LoadTestHarness{
+	private final TabExecutor target;
+	private final org.bukkit.command.Command bukkitCommand;
+	
+	/**
+	 * @param target the command to drive
+	 * @param name the name of the command
+	 */
+	LoadTestHarness(TabExecutor target, String name) {
+		FakeServer.install();
+		this.target = target;
+		this.bukkitCommand = new org.bukkit.command.Command(name){
+			@Override
+			public boolean execute(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+				return target.onCommand(sender, this, label, args);
+			}
+		};
+	}
+	
+	/**
+	 * Replays the workload
+	 *
+	 * @param workload the workload to replay
+	 * @param warmupRounds how often the workload is replayed before measuring
+	 * @param rounds how often the workload is replayed while measuring
+	 * @return the measured results
+	 */
+	Report run(Workload workload, int warmupRounds, int rounds) {
+		Player[] players = new Player[workload.players()];
+		for(int i = 0; i < players.length; i++){
+			players[i] = FakeServer.player(i);
+		}
+		List<Invocation> invocations = workload.invocations();
+		for(int i = 0; i < warmupRounds; i++){
+			replay(invocations, players, null, null);
+		}
+		
+		LatencyHistogram executions = new LatencyHistogram();
+		LatencyHistogram completions = new LatencyHistogram();
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+		long start = System.nanoTime();
+		long failures = 0;
+		for(int i = 0; i < rounds; i++){
+			failures += replay(invocations, players, executions, completions);
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+		return new Report((long) invocations.size() * rounds, failures, elapsed, allocated, executions, completions);
+	}
+	
+	/**
+	 * @return the amount of executions that returned false or threw an exception
+	 */
+	private long replay(List<Invocation> invocations, Player[] players, LatencyHistogram executions, LatencyHistogram completions) {
+		long failures = 0;
+		for(Invocation invocation : invocations){
+			Player player = players[invocation.player()];
+			long start = System.nanoTime();
+			try{
+				if(invocation.completion()){
+					target.onTabComplete(player, bukkitCommand, invocation.label(), invocation.args());
+				} else if(!target.onCommand(player, bukkitCommand, invocation.label(), invocation.args())){
+					failures++;
+				}
+			} catch(RuntimeException e){
+				failures++;
+			}
+			long duration = System.nanoTime() - start;
+			if(executions != null){
+				(invocation.completion() ? completions : executions).record(duration);
+			}
+		}
+		return failures;
+	}
+	
+	/**
+	 * Results of a measured run
+	 *
+	 * @param invocations the amount of replayed invocations
+	 * @param failures the amount of executions that returned false or threw an exception
+	 * @param elapsedNanos the total time of the run
+	 * @param allocatedBytes bytes allocated by the replaying thread
+	 * @param executions latencies of executions
+	 * @param completions latencies of tab completions
+	 */
+	record Report(long invocations, long failures, long elapsedNanos, long allocatedBytes, LatencyHistogram executions, LatencyHistogram completions){
+		
+		double throughput() {
+			return invocations / (elapsedNanos / 1e9);
+		}
+		
+		String format() {
+			StringBuilder builder = new StringBuilder();
+			builder.append("invocations:  ").append(invocations).append(" (").append(failures).append(" failed)\n");
+			builder.append("throughput:   %.0f ops/s%n".formatted(throughput()));
+			builder.append("allocation:   %.1f MB/s, %.0f B/op%n".formatted(allocatedBytes / (elapsedNanos / 1e9) / (1024 * 1024),
+					(double) allocatedBytes / Math.max(1, invocations)));
+			append(builder, "executions: ", executions);
+			append(builder, "completions:", completions);
+			return builder.toString();
+		}
+		
+		private static void append(StringBuilder builder, String name, LatencyHistogram histogram) {
+			builder.append("%s  %d, p50 %.1fus, p90 %.1fus, p99 %.1fus, p99.9 %.1fus, max %.1fus%n".formatted(name,
+					histogram.getCount(),
+					histogram.getValueAtPercentile(50) / 1e3,
+					histogram.getValueAtPercentile(90) / 1e3,
+					histogram.getValueAtPercentile(99) / 1e3,
+					histogram.getValueAtPercentile(99.9) / 1e3,
+					histogram.getMax() / 1e3));
+		}
+	}
+}
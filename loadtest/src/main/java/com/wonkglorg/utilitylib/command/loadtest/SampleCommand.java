@@ -0,0 +1,104 @@
+package com.wonkglorg.utilitylib.command.loadtest;
+
+import com.wonkglorg.utilitylib.command.Command;
+import com.wonkglorg.utilitylib.command.Subcommand;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Command used when no other command is given, a typical shop style command with a subcommand and a large completion list
+ */
+final class SampleCommand extends Command{
+	static final List<String> ITEMS = generateItems();
+	private final GiveSubcommand give = new GiveSubcommand();
+	
+	SampleCommand() {
+		super("sample");
+		give.mount(this, "give");
+	}
+	
+	@Override
+	public boolean allowConsole() {
+		return true;
+	}
+	
+	@Override
+	public boolean execute(@NotNull CommandSender sender,
+						   @NotNull org.bukkit.command.Command command,
+						   @NotNull String label,
+						   @NotNull String[] args) {
+		if(compareString(argAsString(0), "give")){
+			return give.onCommand(sender, command, label, args);
+		}
+		if(compareString(argAsString(0), "list")){
+			int page = argAsInteger(1, 0);
+			for(int i = page * 10; i < Math.min(ITEMS.size(), page * 10 + 10); i++){
+				sender.sendMessage(ITEMS.get(i));
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public List<String> tabComplete(@NotNull Player player, @NotNull org.bukkit.command.Command command, @NotNull String alias, String[] args) {
+		if(args.length <= 1){
+			return matchArg(argAsString(0, ""), List.of("give", "list"));
+		}
+		if(compareString(argAsString(0), "give")){
+			return give.onTabComplete(player, command, alias, args);
+		}
+		return List.of();
+	}
+	
+	private static List<String> generateItems() {
+		Random random = new Random(7);
+		List<String> items = new ArrayList<>(2000);
+		for(int i = 0; i < 2000; i++){
+			StringBuilder item = new StringBuilder();
+			int length = 4 + random.nextInt(12);
+			for(int j = 0; j < length; j++){
+				item.append((char) ('a' + random.nextInt(26)));
+			}
+			items.add(item.toString());
+		}
+		return List.copyOf(items);
+	}
+	
+	private static final class GiveSubcommand extends Subcommand{
+		private GiveSubcommand() {
+			super(1);
+		}
+		
+		@Override
+		protected boolean execute(@NotNull CommandSender sender,
+								  @NotNull org.bukkit.command.Command command,
+								  @NotNull String label,
+								  @NotNull String[] args) {
+			String item = argAsString(1);
+			int amount = argAsInteger(2, 1);
+			if(item == null || amount <= 0){
+				return false;
+			}
+			sender.sendMessage("Gave " + amount + " " + item + " to " + argAsString(0));
+			return true;
+		}
+		
+		@Override
+		protected List<String> tabComplete(@NotNull Player player,
+										   @NotNull org.bukkit.command.Command command,
+										   @NotNull String label,
+										   @NotNull String[] args) {
+			return switch(argCount()){
+				case 1 -> List.of(player.getName());
+				case 2 -> matchArg(argAsString(1, ""), ITEMS);
+				default -> List.of();
+			};
+		}
+	}
+}
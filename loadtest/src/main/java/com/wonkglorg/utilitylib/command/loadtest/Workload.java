@@ -0,0 +1,92 @@
+package com.wonkglorg.utilitylib.command.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An ordered list of invocations that is replayed by the {@link LoadTestHarness}
+ */
+final class Workload{
+	private final List<Invocation> invocations;
+	private final int players;
+	
+	private Workload(List<Invocation> invocations) {
+		this.invocations = List.copyOf(invocations);
+		this.players = invocations.stream().mapToInt(Invocation::player).max().orElse(0) + 1;
+	}
+	
+	/**
+	 * Loads a recorded trace, one invocation per line, empty lines and lines starting with # are ignored
+	 *
+	 * @param file the trace file
+	 * @return the workload
+	 * @throws IOException if the file could not be read
+	 */
+	static Workload load(Path file) throws IOException {
+		List<Invocation> invocations = new ArrayList<>();
+		for(String line : Files.readAllLines(file)){
+			if(!line.isBlank() && !line.startsWith("#")){
+				invocations.add(Invocation.parse(line));
+			}
+		}
+		return new Workload(invocations);
+	}
+	
+	/**
+	 * Generates a workload for the {@link SampleCommand}, completions simulate a player typing an argument one character at a time
+	 *
+	 * @param seed the seed, the same seed always generates the same workload
+	 * @param size the amount of invocations
+	 * @param players the amount of players
+	 * @return the workload
+	 */
+	static Workload synthetic(long seed, int size, int players) {
+		Random random = new Random(seed);
+		List<Invocation> invocations = new ArrayList<>(size);
+		while(invocations.size() < size){
+			int player = random.nextInt(players);
+			String item = SampleCommand.ITEMS.get(random.nextInt(SampleCommand.ITEMS.size()));
+			switch(random.nextInt(4)){
+				case 0 -> {
+					//typing an item name
+					for(int i = 0; i <= item.length() && invocations.size() < size; i++){
+						invocations.add(new Invocation(true, player, "sample", new String[]{"give", "Player" + player, item.substring(0, i)}));
+					}
+				}
+				case 1 -> invocations.add(new Invocation(true, player, "sample", new String[]{random.nextBoolean() ? "g" : ""}));
+				case 2 -> invocations.add(new Invocation(false,
+						player,
+						"sample",
+						new String[]{"give", "Player" + player, item, String.valueOf(1 + random.nextInt(64))}));
+				default -> invocations.add(new Invocation(false, player, "sample", new String[]{"list", String.valueOf(random.nextInt(10))}));
+			}
+		}
+		return new Workload(invocations);
+	}
+	
+	/**
+	 * Writes this workload in the trace format read by {@link #load(Path)}
+	 *
+	 * @param file the file to write to
+	 * @throws IOException if the file could not be written
+	 */
+	void save(Path file) throws IOException {
+		List<String> lines = new ArrayList<>(invocations.size());
+		for(Invocation invocation : invocations){
+			lines.add(invocation.format());
+		}
+		Files.write(file, lines);
+	}
+	
+	List<Invocation> invocations() {
+		return invocations;
+	}
+	
+	int players() {
+		return players;
+	}
+}
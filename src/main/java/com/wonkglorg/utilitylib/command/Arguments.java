@@ -1,17 +1,27 @@
 package com.wonkglorg.utilitylib.command;
 
+import com.wonkglorg.utilitylib.command.parse.CommandTokenizer;
+import com.wonkglorg.utilitylib.command.parse.OptionSchema;
+import com.wonkglorg.utilitylib.command.parse.TokenView;
+import com.wonkglorg.utilitylib.command.profile.ProfileResolver;
+import com.wonkglorg.utilitylib.command.selector.EntitySelector;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.util.StringUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Utility class that handles argument parsing
@@ -21,13 +31,23 @@ import java.util.List;
 public abstract class Arguments{
 	
 	/**
-	 * The given arguments
+	 * The arguments set through {@link #setArgs(String[])}, invocations of commands read the arguments bound to their thread instead
 	 */
 	protected String[] args = new String[20];
+	/**
+	 * Arguments of the invocation running on the current thread, so executions and completions running at the same time (async
+	 * completions, executions moved off the main thread) each read their own arguments without locking
+	 */
+	private final ThreadLocal<Invocation> invocation = new ThreadLocal<>();
 	/**
 	 * How many parent arguments there were before this command (decides the offset to parse the arguments by)
 	 */
 	protected final int index;
+	/**
+	 * Reusable token view over the arguments, only filled when one of the token accessors is used
+	 */
+	private final TokenView tokenView = new TokenView();
+	private boolean tokenized;
 	
 	/**
 	 * Instantiates a new Arguments.
@@ -46,7 +66,7 @@ public abstract class Arguments{
 	 */
 	protected String argAsString(int index) {
 		try{
-			return this.args[index + this.index];
+			return args()[index + this.index];
 		} catch(Exception e){
 			return null;
 		}
@@ -75,7 +95,7 @@ public abstract class Arguments{
 	 */
 	protected String argAsString(int index, @NotNull String defaultValue) {
 		try{
-			return this.args[index + this.index];
+			return args()[index + this.index];
 		} catch(Exception e){
 			return defaultValue;
 		}
@@ -250,6 +270,20 @@ public abstract class Arguments{
 		}
 	}
 	
+	/**
+	 * Resolves the argument at the specified index as a {@link OfflinePlayer} without blocking the calling thread, unlike
+	 * {@link #argAsOfflinePlayer(int)} this never does a profile lookup on the main thread. The future may complete on the resolvers
+	 * executor so switch back to the main thread before touching the world.
+	 *
+	 * @param index {@link OfflinePlayer} the index
+	 * @param resolver the resolver to use
+	 * @return a future completing with the {@link OfflinePlayer} or null if no argument or profile exists
+	 */
+	protected CompletableFuture<OfflinePlayer> argAsOfflinePlayerAsync(int index, @NotNull ProfileResolver resolver) {
+		String name = argAsString(index);
+		return name == null ? CompletableFuture.completedFuture(null) : resolver.resolveOfflinePlayer(name);
+	}
+	
 	/**
 	 * Returns the argument at the specified index as a {@link Location} or null if the argument is not a valid {@link Location}
 	 *
@@ -300,6 +334,75 @@ public abstract class Arguments{
 		}
 	}
 	
+	/**
+	 * Returns the argument at the specified index as a compiled {@link EntitySelector} or null if the argument is not a valid selector
+	 *
+	 * @param index {@link EntitySelector} the index
+	 * @return {@link EntitySelector} representation of the argument at a specified index
+	 */
+	protected EntitySelector argAsSelector(int index) {
+		String arg = argAsString(index);
+		if(!EntitySelector.isSelector(arg)){
+			return null;
+		}
+		try{
+			return EntitySelector.compile(arg);
+		} catch(IllegalArgumentException e){
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the entities the argument at the specified index selects, the argument can be a selector ({@code @e[type=zombie,limit=5]}), a
+	 * player name or an entity uuid. Returns null if the argument is missing, an invalid selector or a selector the sender may not
+	 * {@link EntitySelector#canUse(CommandSender) use} and an empty list if nothing matched.
+	 *
+	 * @param index the index
+	 * @param sender the sender the selector is resolved for, its position is the origin of the selector
+	 * @return the selected entities
+	 */
+	protected List<Entity> argAsEntities(int index, @NotNull CommandSender sender) {
+		String arg = argAsString(index);
+		if(arg == null){
+			return null;
+		}
+		if(EntitySelector.isSelector(arg)){
+			EntitySelector selector = argAsSelector(index);
+			return selector == null || !EntitySelector.canUse(sender) ? null : selector.select(sender);
+		}
+		Entity entity = Bukkit.getPlayer(arg);
+		if(entity == null && arg.length() == 36){
+			try{
+				entity = Bukkit.getEntity(UUID.fromString(arg));
+			} catch(IllegalArgumentException ignored){
+				//not a uuid
+			}
+		}
+		return entity == null ? List.of() : List.of(entity);
+	}
+	
+	/**
+	 * Returns the players the argument at the specified index selects, the argument can be a selector ({@code @a[distance=..20]}) or a
+	 * player name. Returns null if the argument is missing, an invalid selector or a selector the sender may not
+	 * {@link EntitySelector#canUse(CommandSender) use} and an empty list if nothing matched.
+	 *
+	 * @param index the index
+	 * @param sender the sender the selector is resolved for, its position is the origin of the selector
+	 * @return the selected players
+	 */
+	protected List<Player> argAsPlayers(int index, @NotNull CommandSender sender) {
+		String arg = argAsString(index);
+		if(arg == null){
+			return null;
+		}
+		if(EntitySelector.isSelector(arg)){
+			EntitySelector selector = argAsSelector(index);
+			return selector == null || !EntitySelector.canUse(sender) ? null : selector.selectPlayers(sender);
+		}
+		Player player = Bukkit.getPlayer(arg);
+		return player == null ? List.of() : List.of(player);
+	}
+	
 	/**
 	 * Returns the argument at the specified index as a {@link World} or null if the argument is not a valid {@link World}
 	 *
@@ -330,11 +433,139 @@ public abstract class Arguments{
 	}
 	
 	public String[] getArgs() {
-		return args;
+		return args();
+	}
+	
+	private String[] args() {
+		Invocation current = invocation.get();
+		return current != null ? current.args : args;
+	}
+	
+	/**
+	 * Binds the arguments of an invocation to the current thread, every accessor called on this thread reads them until
+	 * {@link #unbindArgs(Invocation)}
+	 *
+	 * @param args the arguments of the invocation
+	 * @return the invocation bound before, invocations of the same command can nest
+	 */
+	Invocation bindArgs(String[] args) {
+		Invocation previous = invocation.get();
+		invocation.set(new Invocation(args));
+		return previous;
+	}
+	
+	/**
+	 * Restores the invocation bound before {@link #bindArgs(String[])} was called
+	 *
+	 * @param previous the invocation returned by bindArgs
+	 */
+	void unbindArgs(Invocation previous) {
+		if(previous == null){
+			invocation.remove();
+		} else {
+			invocation.set(previous);
+		}
 	}
 	
 	public void setArgs(String[] args) {
 		this.args = args;
+		this.tokenized = false;
+	}
+	
+	/**
+	 * The options this command accepts, override to return a schema stored in a static field so it is only compiled once
+	 *
+	 * @return the option schema or null if this command has no options
+	 */
+	protected @Nullable OptionSchema optionSchema() {
+		return null;
+	}
+	
+	/**
+	 * Returns the arguments from the current index as tokens, quoted arguments spanning multiple bukkit arguments are merged into one token and
+	 * options of the {@link #optionSchema()} are removed from the positional tokens. The arguments are tokenized once on first use.
+	 *
+	 * @return the token view over the arguments
+	 */
+	protected TokenView tokens() {
+		Invocation current = invocation.get();
+		if(current != null){
+			if(current.tokens == null){
+				current.tokens = CommandTokenizer.tokenize(current.args, index, optionSchema(), new TokenView());
+			}
+			return current.tokens;
+		}
+		if(!tokenized){
+			CommandTokenizer.tokenize(args, index, optionSchema(), tokenView);
+			tokenized = true;
+		}
+		return tokenView;
+	}
+	
+	/**
+	 * Returns the positional token at the specified index as a string or null if no token exists at that index
+	 *
+	 * @param index starts at 0 for the first token
+	 * @return String representation of the token with quotes and escapes removed
+	 */
+	protected String tokenAsString(int index) {
+		return tokens().get(index);
+	}
+	
+	/**
+	 * Returns the positional token at the specified index as an Integer or the default value if the token is not a valid integer
+	 *
+	 * @param index starts at 0 for the first token
+	 * @param defaultValue default {@link Integer} to return
+	 * @return Integer representation of the token at the specified index
+	 */
+	protected int tokenAsInteger(int index, int defaultValue) {
+		return tokens().getInt(index, defaultValue);
+	}
+	
+	/**
+	 * Returns the positional token at the specified index as a Double or the default value if the token is not a valid double
+	 *
+	 * @param index starts at 0 for the first token
+	 * @param defaultValue default {@link Double} to return
+	 * @return Double representation of the token at the specified index
+	 */
+	protected double tokenAsDouble(int index, double defaultValue) {
+		return tokens().getDouble(index, defaultValue);
+	}
+	
+	/**
+	 * @param option the option of the {@link #optionSchema()} to check
+	 * @return true if the option was given
+	 */
+	protected boolean hasFlag(@NotNull OptionSchema.Option option) {
+		return tokens().has(option);
+	}
+	
+	/**
+	 * @param option the option of the {@link #optionSchema()} to get
+	 * @return the value of the option or null if it was not given
+	 */
+	protected String optionAsString(@NotNull OptionSchema.Option option) {
+		return tokens().value(option);
+	}
+	
+	/**
+	 * @param option the option of the {@link #optionSchema()} to get
+	 * @param defaultValue default {@link Integer} to return
+	 * @return the value of the option as Integer or the default value if it is missing or not a valid integer
+	 */
+	protected int optionAsInteger(@NotNull OptionSchema.Option option, int defaultValue) {
+		return tokens().intValue(option, defaultValue);
+	}
+	
+	/**
+	 * @param option the option of the {@link #optionSchema()} to get
+	 * @param defaultValue default {@link Double} to return
+	 * @return the value of the option as Double or the default value if it is missing or not a valid double
+	 */
+	protected double optionAsDouble(@NotNull OptionSchema.Option option, double defaultValue) {
+		return tokens().doubleValue(option, defaultValue);
 	}
 	
 	public int getArgumentIndex() {
@@ -345,7 +576,7 @@ public abstract class Arguments{
 	 * @return the remaining argument count from the current index
 	 */
 	public int argCount() {
-		return args.length - index;
+		return args().length - index;
 	}
 	
 	/**
@@ -361,4 +592,16 @@ public abstract class Arguments{
 		Collections.sort(matches);
 		return matches;
 	}
+	
+	/**
+	 * Arguments of a single invocation and their tokens, created on first use
+	 */
+	static final class Invocation{
+		private final String[] args;
+		private TokenView tokens;
+		
+		private Invocation(String[] args) {
+			this.args = args;
+		}
+	}
 }
@@ -1,6 +1,19 @@
 package com.wonkglorg.utilitylib.command;
 
+import com.wonkglorg.utilitylib.command.brigadier.SyntaxNode;
+import com.wonkglorg.utilitylib.command.completion.CompletionCache;
 import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import com.wonkglorg.utilitylib.command.cooldown.time.TimeBuilder;
+import com.wonkglorg.utilitylib.command.lazy.LazySubcommand;
+import com.wonkglorg.utilitylib.command.lazy.SubcommandIndex;
+import com.wonkglorg.utilitylib.command.metrics.CommandMetrics;
+import com.wonkglorg.utilitylib.command.metrics.PathMetrics;
+import com.wonkglorg.utilitylib.command.permission.PermissionCache;
+import com.wonkglorg.utilitylib.command.pipeline.CommandGate;
+import com.wonkglorg.utilitylib.command.pipeline.Interceptor;
+import com.wonkglorg.utilitylib.command.quota.CpuQuota;
+import com.wonkglorg.utilitylib.command.trace.InvocationTrace;
+import com.wonkglorg.utilitylib.command.watchdog.CommandWatchdog;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
@@ -10,8 +23,13 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,6 +45,35 @@ public abstract class Command extends Arguments implements TabExecutor{
 	private final String name;
 	private final Logger LOOGER = Bukkit.getLogger();
 	protected final CooldownManager cooldownManager = new CooldownManager();
+	/**
+	 * Cache for tab completions or null if every completion should be computed
+	 */
+	private CompletionCache completionCache;
+	/**
+	 * Watchdog reporting slow executions of this command or null if it is not watched
+	 */
+	private CommandWatchdog watchdog;
+	/**
+	 * Trace every invocation of this command is recorded in or null if it is not traced
+	 */
+	private InvocationTrace trace;
+	private int traceId;
+	/**
+	 * Latency and invocation metrics of this command
+	 */
+	private final PathMetrics metrics;
+	/**
+	 * Budget of cpu time players can spend on this command or null if executions are not measured
+	 */
+	private CpuQuota cpuQuota;
+	/**
+	 * Checks compiled from the annotations of this command or null if it declares none
+	 */
+	private CommandGate gate;
+	/**
+	 * Lower case name -> subcommand, constructed on its first invocation or completion
+	 */
+	private final Map<String, LazySubcommand> subcommands = new ConcurrentHashMap<>();
 	
 	/**
 	 * Instantiates a new Command.
@@ -35,10 +82,27 @@ public abstract class Command extends Arguments implements TabExecutor{
 	 * @param name   the name
 	 */
 	public Command(@NotNull JavaPlugin plugin, @NotNull String name) {
+		this(plugin, name, true);
+	}
+	
+	/**
+	 * Instantiates a new Command.
+	 *
+	 * @param plugin the plugin
+	 * @param name the name
+	 * @param registerPluginCommand false if the command is not declared in the plugin.yml and registered by other means (for example
+	 * {@link com.wonkglorg.utilitylib.command.brigadier.BrigadierExporter})
+	 */
+	public Command(@NotNull JavaPlugin plugin, @NotNull String name, boolean registerPluginCommand) {
 		super(0);
 		this.plugin = plugin;
-		PluginCommand pluginCommand = plugin.getCommand(name);
 		this.name = name;
+		this.metrics = CommandMetrics.global().path("/" + name);
+		this.gate = CommandGate.compile(getClass(), cooldownManager, name, 0);
+		if(!registerPluginCommand){
+			return;
+		}
+		PluginCommand pluginCommand = plugin.getCommand(name);
 		
 		if(pluginCommand != null){
 			pluginCommand.setExecutor(this);
@@ -48,11 +112,32 @@ public abstract class Command extends Arguments implements TabExecutor{
 		}
 	}
 	
+	/**
+	 * Instantiates a new Command that is not bound to any plugin, used to drive commands outside a server (load tests, replays). Features
+	 * needing the plugin (plugin.yml lookup, async execution) are unavailable.
+	 *
+	 * @param name the name
+	 */
+	protected Command(@NotNull String name) {
+		super(0);
+		this.name = name;
+		this.metrics = CommandMetrics.global().path("/" + name);
+		this.gate = CommandGate.compile(getClass(), cooldownManager, name, 0);
+	}
+	
 	/**
 	 * whether the command is type able from console
 	 */
 	public abstract boolean allowConsole();
 	
+	/**
+	 * Whether the command may be moved to an async thread once the {@link CommandWatchdog} flagged it as repeatedly too slow. Only return
+	 * true if {@link #execute} does not access the world or any other main thread only state.
+	 */
+	public boolean allowAsync() {
+		return false;
+	}
+	
 	/**
 	 * Executes when the player finished writing the command and presses enter
 	 *
@@ -79,20 +164,101 @@ public abstract class Command extends Arguments implements TabExecutor{
 											 @NotNull String alias,
 											 String[] args);
 	
+	/**
+	 * The structure of this command used to export it as brigadier tree so the client can parse and suggest it on its own
+	 *
+	 * @return the syntax of this command or null if it has none
+	 */
+	public @Nullable SyntaxNode syntax() {
+		return null;
+	}
+	
 	@Override
 	public boolean onCommand(@NotNull CommandSender sender,
 							 @NotNull org.bukkit.command.Command command,
 							 @NotNull String label,
 							 @NotNull String[] args) {
-		if(sender instanceof Player player){
-			super.args = args;
-			return execute(player, command, label, args);
+		if(!(sender instanceof Player) && !allowConsole()){
+			metrics.reject();
+			trace(sender, args, 0, InvocationTrace.REJECTED);
+			return true;
+		}
+		//checked before the gate, the gate starts cooldowns and consumes confirmations which a throttled invocation must not do
+		CpuQuota cpuQuota = this.cpuQuota;
+		if(cpuQuota != null && sender instanceof Player player){
+			long wait = cpuQuota.tryEnter(player.getUniqueId());
+			if(wait > 0){
+				metrics.reject();
+				trace(sender, args, 0, InvocationTrace.REJECTED);
+				sender.sendMessage(cpuQuota.getMessage().replace("%s", TimeBuilder.toTimeString().inputMillie(wait).build()));
+				return true;
+			}
 		}
-		if(allowConsole()){
-			super.args = args;
-			return execute(sender, command, label, args);
+		CommandGate gate = this.gate;
+		if(gate != null && !gate.test(sender, label, args)){
+			metrics.reject();
+			trace(sender, args, 0, InvocationTrace.REJECTED);
+			return true;
+		}
+		CommandWatchdog watchdog = this.watchdog;
+		if(watchdog == null || !Bukkit.isPrimaryThread()){
+			return dispatch(sender, command, label, args);
+		}
+		if(allowAsync() && plugin != null && watchdog.isFlagged(metrics.getPath())){
+			//the invocation already passed the gate and quota, only the execution moves off the main thread
+			Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> dispatch(sender, command, label, args));
+			return true;
+		}
+		CommandWatchdog.Execution execution = watchdog.begin(metrics.getPath(), sender.getName(), false);
+		try{
+			return dispatch(sender, command, label, args);
+		} finally{
+			watchdog.end(execution);
+		}
+	}
+	
+	/**
+	 * Executes the command and records its metrics
+	 */
+	private boolean dispatch(@NotNull CommandSender sender,
+							 @NotNull org.bukkit.command.Command command,
+							 @NotNull String label,
+							 @NotNull String[] args) {
+		CpuQuota cpuQuota = this.cpuQuota;
+		long cpuStart = cpuQuota == null ? -1 : CpuQuota.currentThreadCpuTime();
+		long start = System.nanoTime();
+		byte outcome = InvocationTrace.ERROR;
+		Invocation previous = bindArgs(args);
+		try{
+			boolean result = execute(sender, command, label, args);
+			if(!result){
+				metrics.fail();
+			}
+			outcome = result ? InvocationTrace.SUCCESS : InvocationTrace.FAILED;
+			return result;
+		} catch(RuntimeException | Error e){
+			metrics.error();
+			throw e;
+		} finally{
+			unbindArgs(previous);
+			long duration = System.nanoTime() - start;
+			metrics.recordExecution(duration);
+			if(cpuStart >= 0){
+				long cpu = CpuQuota.currentThreadCpuTime() - cpuStart;
+				metrics.recordCpuTime(cpu);
+				if(sender instanceof Player player){
+					cpuQuota.charge(player.getUniqueId(), cpu);
+				}
+			}
+			trace(sender, args, duration, outcome);
+		}
+	}
+	
+	private void trace(CommandSender sender, String[] args, long duration, byte outcome) {
+		InvocationTrace trace = this.trace;
+		if(trace != null){
+			trace.record(traceId, sender instanceof Player player ? player.getUniqueId() : null, InvocationTrace.hashArgs(args), duration, outcome);
 		}
-		return true;
 	}
 	
 	@Override
@@ -101,13 +267,42 @@ public abstract class Command extends Arguments implements TabExecutor{
 												@NotNull String alias,
 												@NotNull String[] args) {
 		if(sender instanceof Player player){
-			super.args = args;
-			return tabComplete(player, command, alias, args);
+			CommandGate gate = this.gate;
+			if(gate != null && !gate.permits(player)){
+				return List.of();
+			}
+			CommandWatchdog watchdog = Bukkit.isPrimaryThread() ? this.watchdog : null;
+			CommandWatchdog.Execution execution = watchdog == null ? null : watchdog.begin(metrics.getPath(), player.getName(), true);
+			long start = System.nanoTime();
+			try{
+				if(completionCache != null){
+					return completionCache.complete(player.getUniqueId(), name, args, () -> complete(player, command, alias, args));
+				}
+				return complete(player, command, alias, args);
+			} finally{
+				metrics.recordCompletion(System.nanoTime() - start);
+				if(execution != null){
+					watchdog.end(execution);
+				}
+			}
 		}
 		return null;
 		
 	}
 	
+	/**
+	 * Completes with the arguments bound to the current thread, so completions off the main thread never see the arguments of another
+	 * invocation
+	 */
+	private List<String> complete(Player player, org.bukkit.command.Command command, String alias, String[] args) {
+		Invocation previous = bindArgs(args);
+		try{
+			return tabComplete(player, command, alias, args);
+		} finally{
+			unbindArgs(previous);
+		}
+	}
+	
 	/**
 	 * Returns the name of the command.
 	 *
@@ -117,6 +312,13 @@ public abstract class Command extends Arguments implements TabExecutor{
 		return name;
 	}
 	
+	/**
+	 * @return the bukkit command this command is registered as or null if it is missing from the plugin.yml
+	 */
+	public @Nullable PluginCommand getPluginCommand() {
+		return plugin == null ? null : plugin.getCommand(name);
+	}
+	
 	@Override
 	public String toString() {
 		return name;
@@ -138,6 +340,180 @@ public abstract class Command extends Arguments implements TabExecutor{
 		return 53 * 2 + this.name.hashCode();
 	}
 	
+	/**
+	 * Enables caching of this commands tab completions, completions are then only computed once per distinct request and narrowed down
+	 * while the player keeps typing the same argument.
+	 *
+	 * @param completionCache the cache to use or null to disable caching
+	 */
+	public void setCompletionCache(@Nullable CompletionCache completionCache) {
+		this.completionCache = completionCache;
+	}
+	
+	/**
+	 * @return the completion cache of this command or null if completions are not cached
+	 */
+	public @Nullable CompletionCache getCompletionCache() {
+		return completionCache;
+	}
+	
+	/**
+	 * Watches the main thread executions and completions of this command for exceeding the watchdogs budget
+	 *
+	 * @param watchdog the watchdog to use or null to disable watching
+	 */
+	public void setWatchdog(@Nullable CommandWatchdog watchdog) {
+		this.watchdog = watchdog;
+	}
+	
+	/**
+	 * @return the watchdog of this command or null if it is not watched
+	 */
+	public @Nullable CommandWatchdog getWatchdog() {
+		return watchdog;
+	}
+	
+	/**
+	 * Measures the cpu time of every execution of this command and charges it to the budget of the executing player, players without
+	 * budget left are throttled until it refilled
+	 *
+	 * @param cpuQuota the quota to charge or null to stop measuring
+	 */
+	public void setCpuQuota(@Nullable CpuQuota cpuQuota) {
+		this.cpuQuota = cpuQuota;
+	}
+	
+	/**
+	 * @return the cpu quota of this command or null if executions are not measured
+	 */
+	public @Nullable CpuQuota getCpuQuota() {
+		return cpuQuota;
+	}
+	
+	/**
+	 * Records every invocation of this command in the given trace, one trace is usually shared by all commands
+	 *
+	 * @param trace the trace to record in or null to disable tracing
+	 */
+	public void setTrace(@Nullable InvocationTrace trace) {
+		this.traceId = trace == null ? 0 : trace.commandId(metrics.getPath());
+		this.trace = trace;
+	}
+	
+	/**
+	 * @return the trace this command records its invocations in or null if it is not traced
+	 */
+	public @Nullable InvocationTrace getTrace() {
+		return trace;
+	}
+	
+	/**
+	 * Registers a subcommand that is only constructed on its first invocation or completion
+	 *
+	 * @param name the name of the subcommand (the first argument)
+	 * @param factory constructs the subcommand
+	 */
+	public void registerSubcommand(@NotNull String name, @NotNull Supplier<? extends Subcommand> factory) {
+		registerSubcommand(new LazySubcommand(name, null, parent -> factory.get()));
+	}
+	
+	/**
+	 * Registers a subcommand that is only constructed on its first invocation or completion
+	 *
+	 * @param subcommand the descriptor of the subcommand
+	 */
+	public void registerSubcommand(@NotNull LazySubcommand subcommand) {
+		subcommands.put(subcommand.getName(), subcommand);
+	}
+	
+	/**
+	 * Registers every subcommand of this command found in the build time generated {@link SubcommandIndex}, neither loading nor
+	 * constructing them
+	 *
+	 * @return the amount of registered subcommands
+	 */
+	public int registerIndexedSubcommands() {
+		List<LazySubcommand> indexed = SubcommandIndex.load(getClass().getClassLoader(), name);
+		for(LazySubcommand subcommand : indexed){
+			registerSubcommand(subcommand);
+		}
+		return indexed.size();
+	}
+	
+	/**
+	 * Gets a registered subcommand, constructing it if this is its first use
+	 *
+	 * @param name the name of the subcommand
+	 * @return the subcommand or null if none is registered with this name
+	 */
+	public @Nullable Subcommand getSubcommand(@Nullable String name) {
+		LazySubcommand subcommand = name == null ? null : subcommands.get(name.toLowerCase(Locale.ROOT));
+		return subcommand == null ? null : subcommand.get(this);
+	}
+	
+	/**
+	 * Executes the registered subcommand matching the first argument
+	 *
+	 * @return false if no subcommand matches or it failed
+	 */
+	protected boolean executeSubcommand(@NotNull CommandSender sender,
+										@NotNull org.bukkit.command.Command command,
+										@NotNull String label,
+										@NotNull String[] args) {
+		Subcommand subcommand = getSubcommand(args.length == 0 ? null : args[0]);
+		return subcommand != null && subcommand.onCommand(sender, command, label, args);
+	}
+	
+	/**
+	 * Completes the names of the registered subcommands the player has the permission for without constructing them, or delegates to the
+	 * subcommand matching the first argument
+	 *
+	 * @return the completions
+	 */
+	protected List<String> completeSubcommand(@NotNull Player player,
+											  @NotNull org.bukkit.command.Command command,
+											  @NotNull String alias,
+											  @NotNull String[] args) {
+		if(args.length <= 1){
+			List<String> names = new ArrayList<>(subcommands.size());
+			for(LazySubcommand subcommand : subcommands.values()){
+				if(subcommand.getPermission() == null || PermissionCache.global().has(player, subcommand.getPermission())){
+					names.add(subcommand.getName());
+				}
+			}
+			return matchArg(args.length == 0 ? "" : args[0], names);
+		}
+		Subcommand subcommand = getSubcommand(args[0]);
+		if(subcommand == null){
+			return List.of();
+		}
+		List<String> completions = subcommand.onTabComplete(player, command, alias, args);
+		return completions == null ? List.of() : completions;
+	}
+	
+	/**
+	 * Adds a custom check that runs before every execution of this command, after the checks declared by its annotations
+	 *
+	 * @param interceptor the check to add
+	 */
+	public void addInterceptor(@NotNull Interceptor interceptor) {
+		this.gate = gate == null ? CommandGate.of(interceptor) : gate.with(interceptor);
+	}
+	
+	/**
+	 * @return the checks run before every execution of this command or null if it has none
+	 */
+	public @Nullable CommandGate getGate() {
+		return gate;
+	}
+	
+	/**
+	 * @return the latency and invocation metrics of this command
+	 */
+	public PathMetrics metrics() {
+		return metrics;
+	}
+	
 	/**
 	 * @return cooldown manager instance for this command
 	 */
@@ -1,5 +1,13 @@
 package com.wonkglorg.utilitylib.command;
 
+import com.wonkglorg.utilitylib.command.annotation.SubCommand;
+import com.wonkglorg.utilitylib.command.completion.CompletionCache;
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import com.wonkglorg.utilitylib.command.metrics.CommandMetrics;
+import com.wonkglorg.utilitylib.command.metrics.PathMetrics;
+import com.wonkglorg.utilitylib.command.pipeline.CommandGate;
+import com.wonkglorg.utilitylib.command.pipeline.Interceptor;
+import com.wonkglorg.utilitylib.command.trace.InvocationTrace;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabExecutor;
@@ -8,15 +16,77 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Locale;
 
 public abstract class Subcommand extends Arguments implements TabExecutor{
+	/**
+	 * Cache for tab completions or null if every completion should be computed
+	 */
+	private CompletionCache completionCache;
+	/**
+	 * Latency and invocation metrics of this subcommand, resolved on first use as the path depends on the parent command
+	 */
+	private PathMetrics metrics;
+	/**
+	 * Trace every invocation of this subcommand is recorded in or null if it is not traced
+	 */
+	private InvocationTrace trace;
+	private int traceId = -1;
+	/**
+	 * Checks compiled from the annotations of this subcommand or null if it declares none
+	 */
+	private CommandGate gate;
+	
+	/**
+	 * Manager the cooldowns are kept in, the one of the parent command once this subcommand is mounted
+	 */
+	private CooldownManager cooldownManager = new CooldownManager();
+	/**
+	 * The command this subcommand is mounted under or null if it was not mounted yet
+	 */
+	private volatile com.wonkglorg.utilitylib.command.Command parent;
+	/**
+	 * The name this subcommand is mounted with or null if it was not mounted yet
+	 */
+	private String name;
 	
 	/**
-	 * Instantiates a new Subcommand.
+	 * Instantiates a new Subcommand, its cooldowns are kept apart until it is {@link #mount(com.wonkglorg.utilitylib.command.Command, String) mounted}
 	 * @param index The index of the argument in the command
 	 */
 	protected Subcommand(int index) {
 		super(index);
+		this.gate = CommandGate.compile(getClass(), cooldownManager, getClass().getName(), index);
+	}
+	
+	/**
+	 * Mounts this subcommand under its command, its cooldowns are then kept in the manager of the command under the key
+	 * {@code "<command> <subcommand>"} so they are part of the commands statistics, tiering, sync and prefix clears.
+	 * Commands mount the subcommands they register themselves.
+	 *
+	 * @param parent the command this subcommand belongs to
+	 * @param name the name of this subcommand in the command
+	 */
+	public void mount(@NotNull com.wonkglorg.utilitylib.command.Command parent, @NotNull String name) {
+		if(this.parent == parent){
+			return;
+		}
+		synchronized(this){
+			if(this.parent == parent){
+				return;
+			}
+			this.name = name;
+			this.cooldownManager = parent.cooldown();
+			CommandGate gate = this.gate;
+			if(gate != null){
+				this.gate = gate.withCooldowns(cooldownManager, parent.getName() + " " + name);
+			}
+			//resolved again for the new path
+			this.metrics = null;
+			this.traceId = -1;
+			//written last so the manager and gate are visible to every thread that sees the parent
+			this.parent = parent;
+		}
 	}
 	
 	@Override
@@ -24,8 +94,42 @@ public abstract class Subcommand extends Arguments implements TabExecutor{
 		if(args.length < index){
 			return false;
 		}
-		setArgs(args);
-		return execute(sender, command, label, args);
+		CommandGate gate = this.gate;
+		if(gate != null && !gate.test(sender, label, args)){
+			metrics(command).reject();
+			record(command, sender, args, 0, InvocationTrace.REJECTED);
+			return true;
+		}
+		PathMetrics metrics = metrics(command);
+		long start = System.nanoTime();
+		byte outcome = InvocationTrace.ERROR;
+		Invocation previous = bindArgs(args);
+		try{
+			boolean result = execute(sender, command, label, args);
+			if(!result){
+				metrics.fail();
+			}
+			outcome = result ? InvocationTrace.SUCCESS : InvocationTrace.FAILED;
+			return result;
+		} catch(RuntimeException | Error e){
+			metrics.error();
+			throw e;
+		} finally{
+			unbindArgs(previous);
+			long duration = System.nanoTime() - start;
+			metrics.recordExecution(duration);
+			record(command, sender, args, duration, outcome);
+		}
+	}
+	
+	private void record(Command command, CommandSender sender, String[] args, long duration, byte outcome) {
+		InvocationTrace trace = this.trace;
+		if(trace != null){
+			if(traceId < 0){
+				traceId = trace.commandId(metrics(command).getPath());
+			}
+			trace.record(traceId, sender instanceof Player player ? player.getUniqueId() : null, InvocationTrace.hashArgs(args), duration, outcome);
+		}
 	}
 	
 	@Override
@@ -33,11 +137,32 @@ public abstract class Subcommand extends Arguments implements TabExecutor{
 												@NotNull Command command,
 												@NotNull String label,
 												@NotNull String[] args) {
-		if(args.length < index){
+		CommandGate gate = this.gate;
+		if(args.length < index || gate != null && !gate.permits(sender)){
 			return List.of();
 		}
-		setArgs(args);
-		return tabComplete((Player) sender, command, label, args);
+		Player player = (Player) sender;
+		long start = System.nanoTime();
+		try{
+			if(completionCache != null){
+				return completionCache.complete(player.getUniqueId(), command.getName(), args, () -> complete(player, command, label, args));
+			}
+			return complete(player, command, label, args);
+		} finally{
+			metrics(command).recordCompletion(System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Completes with the arguments bound to the current thread
+	 */
+	private List<String> complete(Player player, Command command, String label, String[] args) {
+		Invocation previous = bindArgs(args);
+		try{
+			return tabComplete(player, command, label, args);
+		} finally{
+			unbindArgs(previous);
+		}
 	}
 	
 	/**
@@ -60,6 +185,90 @@ public abstract class Subcommand extends Arguments implements TabExecutor{
 	 */
 	protected abstract List<String> tabComplete(@NotNull Player player, @NotNull Command command, @NotNull String label, @NotNull String[] args);
 	
+	/**
+	 * Enables caching of this subcommands tab completions, completions are then only computed once per distinct request and narrowed down
+	 * while the player keeps typing the same argument.
+	 *
+	 * @param completionCache the cache to use or null to disable caching
+	 */
+	public void setCompletionCache(@Nullable CompletionCache completionCache) {
+		this.completionCache = completionCache;
+	}
+	
+	/**
+	 * @return the completion cache of this subcommand or null if completions are not cached
+	 */
+	public @Nullable CompletionCache getCompletionCache() {
+		return completionCache;
+	}
+	
+	/**
+	 * Adds a custom check that runs before every execution of this subcommand, after the checks declared by its annotations
+	 *
+	 * @param interceptor the check to add
+	 */
+	public void addInterceptor(@NotNull Interceptor interceptor) {
+		this.gate = gate == null ? CommandGate.of(interceptor) : gate.with(interceptor);
+	}
+	
+	/**
+	 * @return the manager the cooldowns of this subcommand are kept in
+	 */
+	public CooldownManager cooldown() {
+		return cooldownManager;
+	}
+	
+	/**
+	 * @return the checks run before every execution of this subcommand or null if it has none
+	 */
+	public @Nullable CommandGate getGate() {
+		return gate;
+	}
+	
+	/**
+	 * Records every invocation of this subcommand in the given trace, one trace is usually shared by all commands
+	 *
+	 * @param trace the trace to record in or null to disable tracing
+	 */
+	public void setTrace(@Nullable InvocationTrace trace) {
+		this.traceId = -1;
+		this.trace = trace;
+	}
+	
+	/**
+	 * @return the trace this subcommand records its invocations in or null if it is not traced
+	 */
+	public @Nullable InvocationTrace getTrace() {
+		return trace;
+	}
+	
+	/**
+	 * @return the latency and invocation metrics of this subcommand or null if it was never used
+	 */
+	public @Nullable PathMetrics metrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Gets the metrics of this subcommand, the path is built from the declared names of the command and this subcommand, the name it is
+	 * mounted with or else the name of its {@link SubCommand} annotation or its class
+	 */
+	private PathMetrics metrics(Command command) {
+		PathMetrics metrics = this.metrics;
+		if(metrics == null){
+			com.wonkglorg.utilitylib.command.Command parent = this.parent;
+			String path = parent != null ? "/" + parent.getName() + " " + name : "/" + command.getName() + " " + declaredName();
+			metrics = CommandMetrics.global().path(path);
+			this.metrics = metrics;
+		}
+		return metrics;
+	}
+	
+	private String declaredName() {
+		SubCommand subCommand = getClass().getAnnotation(SubCommand.class);
+		return subCommand != null ? subCommand.name() : getClass().getSimpleName().toLowerCase(Locale.ROOT);
+	}
+	
 	public int getIndex() {
 		return index;
 	}
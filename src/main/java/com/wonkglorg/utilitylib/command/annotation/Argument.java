@@ -0,0 +1,74 @@
+package com.wonkglorg.utilitylib.command.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an argument of a command, required arguments and their type are validated before the command is executed
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(Argument.List.class)
+public @interface Argument{
+	/**
+	 * @return the description of the argument
+	 */
+	String description() default "";
+	
+	/**
+	 * @return the default value of the argument
+	 */
+	String defaultValue() default "";
+	
+	/**
+	 * @return true if this argument is required, false if it is optional, this only works if it is not followed by any arguments
+	 */
+	boolean required() default true;
+	
+	/**
+	 * @return the index this argument is at. must be a positive integer, if -1 is given it will be the first argument that is not already matched by another argument
+	 */
+	int index() default 0;
+	
+	/**
+	 * @return the end range of the argument, -1 is given matches all remaining arguments (greedy)
+	 */
+	int length() default 1;
+	
+	/**
+	 * @return the type the argument has to be parsable as
+	 */
+	Type type() default Type.STRING;
+	
+	/**
+	 * @return the message sent when a required argument is missing or can not be parsed as its type
+	 */
+	String errorMessage() default "Invalid argument! Please check the command usage.";
+	
+	/**
+	 * Types an argument can be validated as
+	 */
+	enum Type{
+		STRING,
+		INTEGER,
+		LONG,
+		DOUBLE,
+		BOOLEAN,
+		/**
+		 * An entity selector such as {@code @e[type=zombie]} or a player name, only selectors are validated
+		 */
+		ENTITY
+	}
+	
+	/**
+	 * Container of repeated {@link Argument} annotations
+	 */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	@interface List{
+		Argument[] value();
+	}
+}
@@ -0,0 +1,26 @@
+package com.wonkglorg.utilitylib.command.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the name and permission of a {@link com.wonkglorg.utilitylib.command.Command}, the permission is checked by the
+ * {@link com.wonkglorg.utilitylib.command.pipeline.CommandGate} before the command is executed
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Command{
+	String name();
+	
+	String[] aliases() default {};
+	
+	String description() default "";
+	
+	String usage() default "Usage : /<command>";
+	
+	String permission() default "";
+	
+	String permissionMessage() default "You do not have permission to use this command!";
+}
@@ -1,7 +1,16 @@
 package com.wonkglorg.utilitylib.command.annotation;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 import java.time.temporal.ChronoUnit;
 
+/**
+ * Requires the same invocation to be sent twice before the command is executed
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
 public @interface Confirmation{
 	String message() default "Are you sure? Type the command again to confirm.";
 	
@@ -9,6 +18,9 @@ public @interface Confirmation{
 	
 	boolean sendCancelMessage() default true;
 	
+	/**
+	 * @return how long the confirmation stays valid, 0 uses the default of 30 seconds
+	 */
 	long expiresAfter() default 0;
 	
 	ChronoUnit timeUnit() default ChronoUnit.SECONDS;
@@ -0,0 +1,34 @@
+package com.wonkglorg.utilitylib.command.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Puts a command on cooldown for the player after every successful check of its gate
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Cooldown{
+	/**
+	 * @return the cooldown time
+	 */
+	long cooldown() default 0;
+	
+	/**
+	 * @return the time unit of the cooldown
+	 */
+	ChronoUnit timeUnit() default ChronoUnit.SECONDS;
+	
+	/**
+	 * @return any permission that will bypass the cooldown
+	 */
+	String[] permissionBypass() default {};
+	
+	/**
+	 * @return the message sent while the cooldown is active, %s is replaced with the remaining time
+	 */
+	String message() default "You have to wait %s before using this command again.";
+}
@@ -1,5 +1,15 @@
 package com.wonkglorg.utilitylib.command.annotation;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the name and permission of a {@link com.wonkglorg.utilitylib.command.Subcommand}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
 public @interface SubCommand{
 	
 	/**
@@ -7,6 +17,11 @@ public @interface SubCommand{
 	 */
 	String name();
 	
+	/**
+	 * @return the name of the command this subcommand belongs to, used by the generated subcommand index to register it lazily
+	 */
+	String parent() default "";
+	
 	/**
 	 * @return the description of the subcommand
 	 */
@@ -0,0 +1,50 @@
+package com.wonkglorg.utilitylib.command.brigadier;
+
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import io.papermc.paper.command.brigadier.argument.ArgumentTypes;
+
+import java.util.function.Supplier;
+
+/**
+ * The types an argument of a {@link SyntaxNode} can have, each maps to a brigadier argument type the client knows how to parse and
+ * suggest on its own.
+ */
+public enum ArgumentKind{
+	/** A single word without spaces */
+	WORD(StringArgumentType::word),
+	/** A single word or a quoted string */
+	STRING(StringArgumentType::string),
+	/** Everything until the end of the input, can only be the last argument */
+	GREEDY_STRING(StringArgumentType::greedyString),
+	INTEGER(IntegerArgumentType::integer),
+	LONG(LongArgumentType::longArg),
+	DOUBLE(DoubleArgumentType::doubleArg),
+	BOOLEAN(BoolArgumentType::bool),
+	/** A single player name or selector */
+	PLAYER(ArgumentTypes::player),
+	/** Any amount of players by name or selector */
+	PLAYERS(ArgumentTypes::players),
+	/** A single entity by name, uuid or selector */
+	ENTITY(ArgumentTypes::entity),
+	/** Any amount of entities by name, uuid or selector */
+	ENTITIES(ArgumentTypes::entities),
+	WORLD(ArgumentTypes::world);
+	
+	private final Supplier<ArgumentType<?>> type;
+	
+	ArgumentKind(Supplier<ArgumentType<?>> type) {
+		this.type = type;
+	}
+	
+	/**
+	 * @return a new brigadier argument type for this kind
+	 */
+	public ArgumentType<?> createType() {
+		return type.get();
+	}
+}
@@ -0,0 +1,184 @@
+package com.wonkglorg.utilitylib.command.brigadier;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+import com.wonkglorg.utilitylib.command.Command;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.Commands;
+import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compiles the {@link Command#syntax()} of a command into a Paper brigadier tree.
+ * <p>
+ * Literals and typed arguments are then parsed, validated and suggested by the client itself, only arguments marked with
+ * {@link SyntaxNode#suggestFromCompleter()} still ask the server for suggestions. Executing any node passes the raw input to
+ * {@link Command#onCommand} so the command is executed exactly like before.
+ * <p>
+ * Commands exported this way should not also be declared in the plugin.yml, create them with
+ * {@link Command#Command(JavaPlugin, String, boolean)} instead.
+ */
+public final class BrigadierExporter{
+	
+	private BrigadierExporter() {
+		//Utility class
+	}
+	
+	/**
+	 * Registers the commands brigadier tree, must be called while the plugin is enabling
+	 *
+	 * @param plugin the plugin to register the command for
+	 * @param command the command to register
+	 * @param description the description shown in help
+	 * @param aliases aliases of the command
+	 * @throws IllegalArgumentException if the command has no syntax
+	 */
+	public static void register(@NotNull JavaPlugin plugin,
+								@NotNull Command command,
+								String description,
+								@NotNull Collection<String> aliases) {
+		SyntaxNode syntax = command.syntax();
+		if(syntax == null){
+			throw new IllegalArgumentException("Command " + command.getName() + " does not define a syntax!");
+		}
+		plugin.getLifecycleManager()
+			  .registerEventHandler(LifecycleEvents.COMMANDS, event -> event.registrar().register(compile(command, syntax), description, aliases));
+	}
+	
+	/**
+	 * Compiles the syntax of a command into a brigadier node
+	 *
+	 * @param command the command to execute and complete with
+	 * @param syntax the syntax to compile
+	 * @return the compiled node
+	 */
+	public static LiteralCommandNode<CommandSourceStack> compile(@NotNull Command command, @NotNull SyntaxNode syntax) {
+		PluginCommand pluginCommand = command.getPluginCommand();
+		org.bukkit.command.Command bukkitCommand = pluginCommand != null ? pluginCommand : new DelegateCommand(command);
+		LiteralArgumentBuilder<CommandSourceStack> root = Commands.literal(command.getName().toLowerCase(Locale.ROOT));
+		apply(root, syntax, command, bukkitCommand);
+		return root.build();
+	}
+	
+	private static void apply(ArgumentBuilder<CommandSourceStack, ?> builder,
+							  SyntaxNode node,
+							  Command command,
+							  org.bukkit.command.Command bukkitCommand) {
+		String permission = node.getPermission();
+		if(permission != null){
+			builder.requires(source -> source.getSender().hasPermission(permission));
+		}
+		if(node.isExecutable()){
+			builder.executes(context -> execute(context, command, bukkitCommand));
+		}
+		for(SyntaxNode child : node.getChildren()){
+			builder.then(build(child, command, bukkitCommand));
+		}
+	}
+	
+	private static ArgumentBuilder<CommandSourceStack, ?> build(SyntaxNode node, Command command, org.bukkit.command.Command bukkitCommand) {
+		ArgumentBuilder<CommandSourceStack, ?> builder;
+		if(node.getKind() == null){
+			builder = Commands.literal(node.getName());
+		} else {
+			RequiredArgumentBuilder<CommandSourceStack, ?> argument = Commands.argument(node.getName(), node.getKind().createType());
+			if(node.isSuggestFromCompleter()){
+				argument.suggests((context, suggestions) -> suggest(context, suggestions, command, bukkitCommand));
+			}
+			builder = argument;
+		}
+		apply(builder, node, command, bukkitCommand);
+		return builder;
+	}
+	
+	private static int execute(CommandContext<CommandSourceStack> context, Command command, org.bukkit.command.Command bukkitCommand) {
+		String[] split = split(context.getInput(), false);
+		String label = split[0];
+		String[] args = Arrays.copyOfRange(split, 1, split.length);
+		CommandSender sender = context.getSource().getSender();
+		if(command.onCommand(sender, bukkitCommand, label, args)){
+			return com.mojang.brigadier.Command.SINGLE_SUCCESS;
+		}
+		String usage = bukkitCommand.getUsage();
+		if(usage != null && !usage.isEmpty()){
+			sender.sendMessage(usage.replace("<command>", label));
+		}
+		return 0;
+	}
+	
+	private static CompletableFuture<Suggestions> suggest(CommandContext<CommandSourceStack> context,
+														  SuggestionsBuilder builder,
+														  Command command,
+														  org.bukkit.command.Command bukkitCommand) {
+		String[] split = split(builder.getInput(), true);
+		String[] args = Arrays.copyOfRange(split, 1, split.length);
+		List<String> completions = command.onTabComplete(context.getSource().getSender(), bukkitCommand, split[0], args);
+		if(completions != null){
+			String remaining = builder.getRemainingLowerCase();
+			for(String completion : completions){
+				if(completion.toLowerCase(Locale.ROOT).startsWith(remaining)){
+					builder.suggest(completion);
+				}
+			}
+		}
+		return builder.buildFuture();
+	}
+	
+	/**
+	 * Splits the input into the label and the arguments, the leading slash and the namespace of a {@code plugin:command} label are removed
+	 * and consecutive spaces do not produce empty arguments
+	 *
+	 * @param typing if true an empty argument is added after a trailing space, it is the argument being typed
+	 */
+	private static String[] split(String input, boolean typing) {
+		String line = input.startsWith("/") ? input.substring(1) : input;
+		List<String> split = new ArrayList<>();
+		int start = 0;
+		for(int i = 0; i <= line.length(); i++){
+			if(i == line.length() || line.charAt(i) == ' '){
+				if(i > start){
+					split.add(line.substring(start, i));
+				}
+				start = i + 1;
+			}
+		}
+		if(split.isEmpty() || typing && line.endsWith(" ")){
+			split.add("");
+		}
+		String label = split.get(0);
+		split.set(0, label.substring(label.indexOf(':') + 1));
+		return split.toArray(new String[0]);
+	}
+	
+	/**
+	 * Bukkit command handed to commands that are not declared in the plugin.yml
+	 */
+	private static final class DelegateCommand extends org.bukkit.command.Command{
+		private final Command command;
+		
+		private DelegateCommand(Command command) {
+			super(command.getName());
+			this.command = command;
+		}
+		
+		@Override
+		public boolean execute(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+			return command.onCommand(sender, this, label, args);
+		}
+	}
+}
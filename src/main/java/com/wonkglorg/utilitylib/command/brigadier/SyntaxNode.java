@@ -0,0 +1,128 @@
+package com.wonkglorg.utilitylib.command.brigadier;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes the structure of a command (literals and typed arguments) so it can be compiled into a brigadier tree by the
+ * {@link BrigadierExporter}. Execution and custom suggestions are still handled by the command itself.
+ * <pre>{@code
+ * SyntaxNode.root()
+ *     .then(SyntaxNode.literal("give")
+ *         .then(SyntaxNode.argument("player", ArgumentKind.PLAYER)
+ *             .then(SyntaxNode.argument("item", ArgumentKind.WORD).suggestFromCompleter().executable())));
+ * }</pre>
+ */
+public final class SyntaxNode{
+	private final String name;
+	private final ArgumentKind kind;
+	private final List<SyntaxNode> children = new ArrayList<>();
+	private boolean executable;
+	private boolean suggestFromCompleter;
+	private String permission;
+	
+	private SyntaxNode(String name, ArgumentKind kind) {
+		this.name = name;
+		this.kind = kind;
+	}
+	
+	/**
+	 * @return the root node, representing the command itself
+	 */
+	public static SyntaxNode root() {
+		return new SyntaxNode(null, null);
+	}
+	
+	/**
+	 * @param name the literal text
+	 * @return a new literal node (for example a subcommand name)
+	 */
+	public static SyntaxNode literal(@NotNull String name) {
+		return new SyntaxNode(name, null);
+	}
+	
+	/**
+	 * @param name the name of the argument shown to the client
+	 * @param kind the type of the argument
+	 * @return a new argument node
+	 */
+	public static SyntaxNode argument(@NotNull String name, @NotNull ArgumentKind kind) {
+		return new SyntaxNode(name, kind);
+	}
+	
+	/**
+	 * Adds child nodes that can follow this node
+	 *
+	 * @param children the children to add
+	 * @return this node
+	 */
+	public SyntaxNode then(@NotNull SyntaxNode... children) {
+		Collections.addAll(this.children, children);
+		return this;
+	}
+	
+	/**
+	 * Marks the command as complete after this node so the client accepts it
+	 *
+	 * @return this node
+	 */
+	public SyntaxNode executable() {
+		this.executable = true;
+		return this;
+	}
+	
+	/**
+	 * Uses the commands tab completer for the suggestions of this argument instead of the clients suggestions for its type
+	 *
+	 * @return this node
+	 */
+	public SyntaxNode suggestFromCompleter() {
+		this.suggestFromCompleter = true;
+		return this;
+	}
+	
+	/**
+	 * Hides this node (and everything after it) from senders without the permission
+	 *
+	 * @param permission the required permission
+	 * @return this node
+	 */
+	public SyntaxNode permission(@NotNull String permission) {
+		this.permission = permission;
+		return this;
+	}
+	
+	/**
+	 * @return the name of this node or null for the root node
+	 */
+	public @Nullable String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return the type of the argument or null if this node is a literal
+	 */
+	public @Nullable ArgumentKind getKind() {
+		return kind;
+	}
+	
+	public List<SyntaxNode> getChildren() {
+		return Collections.unmodifiableList(children);
+	}
+	
+	public boolean isExecutable() {
+		return executable;
+	}
+	
+	public boolean isSuggestFromCompleter() {
+		return suggestFromCompleter;
+	}
+	
+	public @Nullable String getPermission() {
+		return permission;
+	}
+}
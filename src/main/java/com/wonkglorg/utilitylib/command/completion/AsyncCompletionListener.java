@@ -0,0 +1,121 @@
+package com.wonkglorg.utilitylib.command.completion;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import com.wonkglorg.utilitylib.command.Command;
+import org.bukkit.Bukkit;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Completes the registered commands off the main thread through Paper's {@link AsyncTabCompleteEvent}, dropping requests that were
+ * superseded by a newer request of the same player before their completer runs.
+ * <p>
+ * Completers of commands registered here run on Paper's tab complete threads, so they must not access the world or other main thread
+ * only state. Completions of a single command may be computed concurrently for different players.
+ */
+public final class AsyncCompletionListener implements Listener{
+	private final CompletionCoalescer coalescer;
+	/**
+	 * Lower case name or alias -> command
+	 */
+	private final Map<String, Registration> commands = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param coalescer the coalescer tracking the requests of every player
+	 */
+	public AsyncCompletionListener(@NotNull CompletionCoalescer coalescer) {
+		this.coalescer = coalescer;
+	}
+	
+	public AsyncCompletionListener() {
+		this(new CompletionCoalescer());
+	}
+	
+	/**
+	 * Completes the given command asynchronously from now on
+	 *
+	 * @param command the command to register
+	 * @return false if the command has no plugin.yml entry and can therefore not be completed
+	 */
+	public boolean register(@NotNull Command command) {
+		PluginCommand pluginCommand = command.getPluginCommand();
+		if(pluginCommand == null){
+			return false;
+		}
+		Registration registration = new Registration(command, pluginCommand);
+		commands.put(command.getName().toLowerCase(Locale.ROOT), registration);
+		for(String alias : pluginCommand.getAliases()){
+			commands.put(alias.toLowerCase(Locale.ROOT), registration);
+		}
+		return true;
+	}
+	
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+		if(event.isHandled() || !event.isCommand() || !(event.getSender() instanceof Player player)){
+			return;
+		}
+		String buffer = event.getBuffer();
+		int start = buffer.startsWith("/") ? 1 : 0;
+		int space = buffer.indexOf(' ', start);
+		if(space < 0){
+			//still typing the command name
+			return;
+		}
+		//strip the namespace of /plugin:command
+		int colon = buffer.lastIndexOf(':', space);
+		String label = buffer.substring(colon >= start ? colon + 1 : start, space).toLowerCase(Locale.ROOT);
+		Registration registration = commands.get(label);
+		if(registration == null || !registration.pluginCommand.testPermissionSilent(player)){
+			return;
+		}
+		
+		String[] args = buffer.substring(space + 1).split(" ", -1);
+		long sequence = coalescer.next(player.getUniqueId());
+		List<String> completions = coalescer.complete(player.getUniqueId(),
+				sequence,
+				() -> registration.command.onTabComplete(player, registration.pluginCommand, label, args));
+		if(completions == null && coalescer.isLatest(player.getUniqueId(), sequence)){
+			//like bukkit a null result completes the names of the online players
+			completions = playerNames(player, args[args.length - 1]);
+		}
+		event.setCompletions(completions == null ? List.of() : completions);
+		event.setHandled(true);
+	}
+	
+	private static List<String> playerNames(Player sender, String prefix) {
+		List<String> names = new ArrayList<>();
+		for(Player player : Bukkit.getOnlinePlayers()){
+			if(sender.canSee(player) && player.getName().regionMatches(true, 0, prefix, 0, prefix.length())){
+				names.add(player.getName());
+			}
+		}
+		names.sort(String.CASE_INSENSITIVE_ORDER);
+		return names;
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent event) {
+		coalescer.remove(event.getPlayer().getUniqueId());
+	}
+	
+	/**
+	 * @return the coalescer tracking the requests of every player
+	 */
+	public CompletionCoalescer getCoalescer() {
+		return coalescer;
+	}
+	
+	private record Registration(Command command, PluginCommand pluginCommand){}
+}
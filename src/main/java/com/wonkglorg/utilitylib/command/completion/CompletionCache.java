@@ -0,0 +1,189 @@
+package com.wonkglorg.utilitylib.command.completion;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caches tab completion results keyed by (command path, argument position, prefix).
+ * <p>
+ * Additionally, the last result of every player is remembered, when the player then only adds characters to the argument they are typing
+ * the previous result is narrowed down instead of calling the completer again. This assumes completers return every candidate that
+ * starts with the given prefix (as {@link com.wonkglorg.utilitylib.command.Arguments#matchArg(String, List)} does).
+ */
+public final class CompletionCache{
+	/**
+	 * Least amount of entries after which expired entries are removed on insertion
+	 */
+	private static final int CLEANUP_THRESHOLD = 4096;
+	
+	private final long ttlMillis;
+	private final Scope scope;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<UUID, Last> lastResults = new ConcurrentHashMap<>();
+	/**
+	 * Amount of entries at which the next cleanup runs, twice the amount left by the last one so every insertion only pays a constant share
+	 */
+	private final AtomicInteger nextCleanup = new AtomicInteger(CLEANUP_THRESHOLD);
+	
+	/**
+	 * @param ttlMillis how long a result stays valid in milliseconds
+	 * @param scope whether results can be shared between players
+	 */
+	public CompletionCache(long ttlMillis, @NotNull Scope scope) {
+		this.ttlMillis = ttlMillis;
+		this.scope = scope;
+	}
+	
+	/**
+	 * Creates a cache with per player results
+	 *
+	 * @param ttlMillis how long a result stays valid in milliseconds
+	 */
+	public CompletionCache(long ttlMillis) {
+		this(ttlMillis, Scope.PLAYER);
+	}
+	
+	/**
+	 * Gets the completions for the given arguments from the cache or computes them
+	 *
+	 * @param player the player requesting the completions
+	 * @param command the name of the command
+	 * @param args the arguments, the last one is the one currently being typed
+	 * @param completer the completer to call if nothing is cached, its result is not cached if null
+	 * @return the completions
+	 */
+	public @Nullable List<String> complete(@NotNull UUID player,
+										   @NotNull String command,
+										   @NotNull String[] args,
+										   @NotNull Supplier<List<String>> completer) {
+		long now = System.currentTimeMillis();
+		String prefix = args.length == 0 ? "" : args[args.length - 1].toLowerCase(Locale.ROOT);
+		String path = path(player, command, args);
+		String key = path + '\u0000' + prefix;
+		
+		Entry entry = entries.get(key);
+		if(entry != null && now - entry.createdAt < ttlMillis){
+			lastResults.put(player, new Last(path, prefix, entry.results, entry.createdAt));
+			return new ArrayList<>(entry.results);
+		}
+		
+		Last last = lastResults.get(player);
+		if(last != null && now - last.createdAt < ttlMillis && last.path.equals(path) && prefix.startsWith(last.prefix)){
+			List<String> narrowed = new ArrayList<>();
+			for(String result : last.results){
+				if(result.regionMatches(true, 0, prefix, 0, prefix.length())){
+					narrowed.add(result);
+				}
+			}
+			List<String> results = List.copyOf(narrowed);
+			//keep the timestamp of the original computation so narrowing never extends its lifetime
+			put(key, new Entry(results, last.createdAt));
+			lastResults.put(player, new Last(path, prefix, results, last.createdAt));
+			return narrowed;
+		}
+		
+		List<String> computed = completer.get();
+		if(computed == null){
+			lastResults.remove(player);
+			return null;
+		}
+		List<String> results = List.copyOf(computed);
+		put(key, new Entry(results, now));
+		lastResults.put(player, new Last(path, prefix, results, now));
+		return computed;
+	}
+	
+	/**
+	 * Removes all cached results
+	 */
+	public void invalidate() {
+		entries.clear();
+		lastResults.clear();
+	}
+	
+	/**
+	 * Removes all cached results of a command, for example after the data its completer uses changed
+	 *
+	 * @param command the name of the command
+	 */
+	public void invalidate(@NotNull String command) {
+		String name = command.toLowerCase(Locale.ROOT);
+		entries.keySet().removeIf(key -> matchesCommand(key, name));
+		lastResults.values().removeIf(last -> matchesCommand(last.path, name));
+	}
+	
+	/**
+	 * Removes the remembered results of a player, should be called when they leave
+	 *
+	 * @param player the player
+	 */
+	public void invalidate(@NotNull UUID player) {
+		lastResults.remove(player);
+		if(scope == Scope.PLAYER){
+			String prefix = player + "\u0000";
+			entries.keySet().removeIf(key -> key.startsWith(prefix));
+		}
+	}
+	
+	private void put(String key, Entry entry) {
+		int threshold = nextCleanup.get();
+		//only one thread cleans up, the others insert right away
+		if(entries.size() >= threshold && nextCleanup.compareAndSet(threshold, Integer.MAX_VALUE)){
+			long now = System.currentTimeMillis();
+			entries.values().removeIf(value -> now - value.createdAt >= ttlMillis);
+			nextCleanup.set(Math.max(CLEANUP_THRESHOLD, entries.size() * 2));
+		}
+		entries.put(key, entry);
+	}
+	
+	/**
+	 * Builds the path of a request, (player) + command + every argument before the one being typed + its position
+	 */
+	private String path(UUID player, String command, String[] args) {
+		StringBuilder builder = new StringBuilder(32);
+		if(scope == Scope.PLAYER){
+			builder.append(player).append('\u0000');
+		}
+		builder.append(command.toLowerCase(Locale.ROOT));
+		for(int i = 0; i < args.length - 1; i++){
+			builder.append(' ').append(args[i].toLowerCase(Locale.ROOT));
+		}
+		return builder.append('\u0000').append(Math.max(0, args.length - 1)).toString();
+	}
+	
+	private boolean matchesCommand(String path, String command) {
+		int start = scope == Scope.PLAYER ? path.indexOf('\u0000') + 1 : 0;
+		if(!path.startsWith(command, start)){
+			return false;
+		}
+		char next = path.length() > start + command.length() ? path.charAt(start + command.length()) : '\u0000';
+		return next == ' ' || next == '\u0000';
+	}
+	
+	/**
+	 * Whether cached results can be shared between players
+	 */
+	public enum Scope{
+		/**
+		 * Results are cached per player, use this if the completer depends on the player (permissions, owned regions, homes...)
+		 */
+		PLAYER,
+		/**
+		 * Results are shared between all players
+		 */
+		GLOBAL
+	}
+	
+	private record Entry(List<String> results, long createdAt){}
+	
+	private record Last(String path, String prefix, List<String> results, long createdAt){}
+}
@@ -0,0 +1,87 @@
+package com.wonkglorg.utilitylib.command.completion;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Tracks the latest tab completion request of every player so work for requests that were already superseded by a newer one can be
+ * dropped.
+ * <p>
+ * Every incoming request gets a sequence number from {@link #next(UUID)}, before the completer runs the request is checked against the
+ * latest sequence of its player. A burst of requests is therefore coalesced into only computing the newest one. Completers are not
+ * locked, commands bind the arguments of every invocation to its own thread.
+ */
+public final class CompletionCoalescer{
+	private final Map<UUID, AtomicLong> sequences = new ConcurrentHashMap<>();
+	private final LongAdder computed = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	
+	/**
+	 * Registers a new request of a player, superseding all previous ones
+	 *
+	 * @param player the player
+	 * @return the sequence number of the new request
+	 */
+	public long next(@NotNull UUID player) {
+		return sequences.computeIfAbsent(player, uuid -> new AtomicLong()).incrementAndGet();
+	}
+	
+	/**
+	 * @param player the player
+	 * @param sequence the sequence number of the request
+	 * @return true if no newer request of the player has been registered
+	 */
+	public boolean isLatest(@NotNull UUID player, long sequence) {
+		AtomicLong latest = sequences.get(player);
+		return latest == null || latest.get() == sequence;
+	}
+	
+	/**
+	 * Runs the completer for a request unless it has been superseded
+	 *
+	 * @param player the player
+	 * @param sequence the sequence number of the request
+	 * @param completer the completer to run
+	 * @return the result of the completer or null if the request was superseded, {@link #isLatest(UUID, long)} tells a superseded
+	 * request apart from a completer returning null
+	 */
+	public @Nullable List<String> complete(@NotNull UUID player, long sequence, @NotNull Supplier<List<String>> completer) {
+		if(!isLatest(player, sequence)){
+			dropped.increment();
+			return null;
+		}
+		computed.increment();
+		return completer.get();
+	}
+	
+	/**
+	 * Forgets a player, should be called when they leave
+	 *
+	 * @param player the player
+	 */
+	public void remove(@NotNull UUID player) {
+		sequences.remove(player);
+	}
+	
+	/**
+	 * @return the amount of requests that were computed
+	 */
+	public long getComputed() {
+		return computed.sum();
+	}
+	
+	/**
+	 * @return the amount of requests that were dropped because a newer one superseded them
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+}
@@ -86,6 +86,21 @@ public class Cooldown{
 		return duration.toMillis() - (System.currentTimeMillis() - startTimeMillis);
 	}
 	
+	/**
+	 * @param now the current time in milliseconds
+	 * @return the remaining time in milliseconds at the given time, negative if the cooldown already expired
+	 */
+	public long getRemainingTime(long now) {
+		return duration.toMillis() - (now - startTimeMillis);
+	}
+	
+	/**
+	 * @return the time in milliseconds the cooldown started at
+	 */
+	public long getStartTime() {
+		return startTimeMillis;
+	}
+	
 	/**
 	 * @return the {@link Duration} associated with this delay
 	 */
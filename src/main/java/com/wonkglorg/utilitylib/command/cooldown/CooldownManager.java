@@ -1,40 +1,381 @@
 package com.wonkglorg.utilitylib.command.cooldown;
 
+import com.wonkglorg.utilitylib.command.cooldown.shared.CooldownUpdate;
+import com.wonkglorg.utilitylib.command.cooldown.shared.SharedCooldownStore;
+import com.wonkglorg.utilitylib.command.cooldown.subject.SubjectCooldownTable;
+import com.wonkglorg.utilitylib.command.cooldown.subject.SubjectKey;
+import com.wonkglorg.utilitylib.command.cooldown.tier.ColdTier;
 import com.wonkglorg.utilitylib.command.cooldown.time.TimeBuilder;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 
 import javax.annotation.concurrent.ThreadSafe;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @SuppressWarnings("unused")
 @ThreadSafe
-public final class CooldownManager{
+public final class CooldownManager implements CooldownManagerMXBean{
+	private static final Logger LOGGER = Logger.getLogger(CooldownManager.class.getName());
 	/**
-	 * A cooldown map that is split into different cooldowns, ehere each entry is a list of players and an entry of "time of addition + cooldown"
+	 * Estimated heap of a single cooldown: map node, {@link Cooldown} and its {@link Duration} (compressed oops, the uuid is usually shared
+	 * with the player)
 	 */
-	private final Map<String, Map<UUID, Cooldown>> cooldowns = new ConcurrentHashMap<>();
+	private static final long ENTRY_BYTES = 80;
+	/**
+	 * Estimated heap of a key without entries: its map, counters and histogram
+	 */
+	private static final long KEY_BYTES = 512;
+	/**
+	 * Estimated heap of a bucket of the expiry histogram of a key
+	 */
+	private static final long EXPIRY_BUCKET_BYTES = 80;
+	/**
+	 * Heap of a slot of a {@link SubjectCooldownTable}: three longs of the subject and one of the expiry
+	 */
+	private static final long SUBJECT_SLOT_BYTES = 32;
+	/**
+	 * A cooldown map that is split into different cooldowns, ehere each entry is a list of players and an entry of "time of addition + cooldown".
+	 * The maps of every key are concurrent so they can be iterated and updated without holding the lock of the manager.
+	 */
+	private final Map<String, KeyCooldowns> cooldowns = new ConcurrentHashMap<>();
+	/**
+	 * Cooldowns of {@link SubjectKey subjects} that are not players, kept separate in primitive tables and never tiered
+	 */
+	private final Map<String, SubjectCooldownTable> subjectCooldowns = new ConcurrentHashMap<>();
+	/**
+	 * Storage of the cooldowns of offline players or null if all cooldowns are kept in memory
+	 */
+	private volatile ColdTier coldTier;
+	/**
+	 * Players whose cooldowns were paged in from the cold tier (or checked to have none), only used when a cold tier is set
+	 */
+	private final Map<UUID, Boolean> resident = new ConcurrentHashMap<>();
+	/**
+	 * Striped locks serializing paging and parking per player, so loading from the cold tier never blocks a bin of a concurrent map
+	 */
+	private final Object[] pageLocks = new Object[64];
+	/**
+	 * Link to the store shared with other servers or null if cooldowns are local to this server
+	 */
+	private volatile CooldownSync sync;
+	/**
+	 * Name the statistics are registered under in jmx or null if they are not registered
+	 */
+	private ObjectName objectName;
 	
 	public CooldownManager() {
 		//Singleton Constructor
+		for(int i = 0; i < pageLocks.length; i++){
+			pageLocks[i] = new Object();
+		}
 	}
 	
 	/**
 	 * Gets all cooldowns for a specific key
+	 *
+	 * @return a read only view of the cooldowns of the key or null if the key has none
 	 */
-	public synchronized Map<UUID, Cooldown> getCooldowns(String key) {
-		return cooldowns.getOrDefault(key, null);
+	public Map<UUID, Cooldown> getCooldowns(String key) {
+		KeyCooldowns map = cooldowns.get(key);
+		return map == null ? null : Collections.unmodifiableMap(map);
 	}
 	
 	/**
-	 * Clears all cooldowns
+	 * Clears all cooldowns kept in memory, cooldowns of players parked in the cold tier are not affected
 	 */
-	public synchronized void clear() {
+	public void clear() {
 		cooldowns.clear();
+		subjectCooldowns.clear();
+	}
+	
+	/**
+	 * Moves the cooldowns of players into the given cold tier when they quit and pages them back in while they log in, so only the
+	 * cooldowns of online players are kept on the heap. Both happen off the main thread. Cooldowns of offline players are read from and
+	 * written through the cold tier.
+	 *
+	 * @param plugin the plugin to register the listener for
+	 * @param coldTier the storage for the cooldowns of offline players
+	 */
+	public void enableTiering(Plugin plugin, ColdTier coldTier) {
+		for(Player player : Bukkit.getOnlinePlayers()){
+			resident.put(player.getUniqueId(), Boolean.TRUE);
+		}
+		enableTiering(coldTier);
+		Bukkit.getPluginManager().registerEvents(new CooldownTierListener(this, plugin), plugin);
+	}
+	
+	/**
+	 * Keeps the cooldowns of offline players in the given cold tier without registering a listener, {@link #park(UUID)} and
+	 * {@link #unpark(UUID)} have to be called when players quit and log in instead
+	 *
+	 * @param coldTier the storage for the cooldowns of offline players
+	 */
+	public void enableTiering(ColdTier coldTier) {
+		this.coldTier = coldTier;
+	}
+	
+	/**
+	 * @return the storage of the cooldowns of offline players or null if tiering is disabled
+	 */
+	public ColdTier getColdTier() {
+		return coldTier;
+	}
+	
+	/**
+	 * Shares cooldowns with other servers through the given store. Reads stay local, the cooldowns in memory act as near-cache that is
+	 * filled when players log in and kept current by the updates of other servers. Local changes are published in one batch per tick.
+	 *
+	 * @param plugin the plugin to schedule the synchronization and register the listener for
+	 * @param store the store shared by all servers
+	 * @param serverId the unique name of this server in the network
+	 */
+	public void enableSync(Plugin plugin, SharedCooldownStore store, String serverId) {
+		CooldownSync sync = createSync(store, serverId);
+		Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, sync, 1, 1);
+		Bukkit.getPluginManager().registerEvents(new CooldownSyncListener(sync), plugin);
+	}
+	
+	/**
+	 * Shares cooldowns with other servers through the given store without scheduling anything, {@link #flushSync()} has to be called
+	 * periodically instead
+	 *
+	 * @param store the store shared by all servers
+	 * @param serverId the unique name of this server in the network
+	 */
+	public void enableSync(SharedCooldownStore store, String serverId) {
+		createSync(store, serverId);
+	}
+	
+	private synchronized CooldownSync createSync(SharedCooldownStore store, String serverId) {
+		CooldownSync sync = new CooldownSync(this, store, serverId);
+		//registers this server, so it receives every update published from now on
+		sync.run();
+		this.sync = sync;
+		return sync;
+	}
+	
+	/**
+	 * Publishes the queued changes and applies the changes of other servers right away, a no-op without shared store
+	 */
+	public void flushSync() {
+		CooldownSync sync = this.sync;
+		if(sync != null){
+			sync.run();
+		}
+	}
+	
+	/**
+	 * Fetches the shared cooldowns of a player into memory, paging a parked player in first, a no-op without shared store
+	 *
+	 * @param uuid the player
+	 */
+	public void fetchShared(UUID uuid) {
+		CooldownSync sync = this.sync;
+		if(sync != null){
+			sync.fetch(uuid);
+		}
+	}
+	
+	/**
+	 * @return the store cooldowns are shared through or null if they are local to this server
+	 */
+	public SharedCooldownStore getSharedStore() {
+		CooldownSync sync = this.sync;
+		return sync == null ? null : sync.getStore();
+	}
+	
+	private void publish(String key, UUID uuid, Cooldown cooldown) {
+		CooldownSync sync = this.sync;
+		if(sync != null){
+			sync.enqueue(new CooldownUpdate(key, uuid, cooldown.getStartTime(), cooldown.getDuration().toMillis()));
+		}
+	}
+	
+	private void publishRemoval(String key, UUID uuid) {
+		CooldownSync sync = this.sync;
+		if(sync != null){
+			sync.enqueue(CooldownUpdate.removal(key, uuid, System.currentTimeMillis()));
+		}
+	}
+	
+	/**
+	 * Applies an update of another server unless a newer local change exists, without publishing it again
+	 */
+	void apply(CooldownUpdate update) {
+		if(isParked(update.player())){
+			//the player is not on this server, the update is fetched again when they log in
+			return;
+		}
+		apply(cooldowns(update.key()), update);
+		settle(update.player());
+	}
+	
+	private void apply(KeyCooldowns map, CooldownUpdate update) {
+		UUID uuid = update.player();
+		while(true){
+			Cooldown current = map.get(uuid);
+			if(current != null && current.getStartTime() > update.startTime()){
+				return;
+			}
+			if(update.isRemoval()){
+				if(current == null || map.remove(uuid, current)){
+					return;
+				}
+				continue;
+			}
+			Cooldown cooldown = new Cooldown(update.durationMillis(), update.startTime());
+			if(current == null ? map.putIfAbsent(uuid, cooldown) == null : map.replace(uuid, current, cooldown)){
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Moves the active cooldowns of a player into the cold tier and drops the expired ones, called when the player quits
+	 *
+	 * @param uuid the player
+	 */
+	public void park(UUID uuid) {
+		ColdTier coldTier = this.coldTier;
+		if(coldTier == null){
+			return;
+		}
+		synchronized(pageLock(uuid)){
+			page(uuid);
+			//marked parked before the entries are moved, so a concurrent write either has its entry moved or sees the player parked
+			resident.remove(uuid);
+			long now = System.currentTimeMillis();
+			Map<String, Cooldown> active = new HashMap<>();
+			for(Map.Entry<String, KeyCooldowns> entry : cooldowns.entrySet()){
+				Cooldown cooldown = entry.getValue().remove(uuid);
+				if(cooldown != null && cooldown.getRemainingTime(now) > 0){
+					active.put(entry.getKey(), cooldown);
+				}
+			}
+			try{
+				coldTier.store(uuid, active);
+			} catch(IOException e){
+				throw new UncheckedIOException("Could not park cooldowns of " + uuid, e);
+			}
+		}
+	}
+	
+	/**
+	 * Moves the cooldowns of a player from the cold tier back into memory, called when the player logs in. Cooldowns started while the
+	 * player was parked are kept over the stored ones.
+	 *
+	 * @param uuid the player
+	 */
+	public void unpark(UUID uuid) {
+		page(uuid);
+	}
+	
+	/**
+	 * Pages the cooldowns of a player in if that did not happen yet, a no-op without cold tier
+	 */
+	private void page(UUID uuid) {
+		ColdTier coldTier = this.coldTier;
+		if(coldTier == null || resident.containsKey(uuid)){
+			return;
+		}
+		//the striped lock blocks concurrent paging of the same player until the cooldowns are back in memory
+		synchronized(pageLock(uuid)){
+			if(resident.containsKey(uuid)){
+				return;
+			}
+			Map<String, Cooldown> stored;
+			try{
+				stored = coldTier.load(uuid);
+			} catch(IOException e){
+				throw new UncheckedIOException("Could not unpark cooldowns of " + uuid, e);
+			}
+			if(stored != null){
+				for(Map.Entry<String, Cooldown> entry : stored.entrySet()){
+					cooldowns(entry.getKey()).putIfAbsent(uuid, entry.getValue());
+				}
+			}
+			resident.put(uuid, Boolean.TRUE);
+		}
+	}
+	
+	private Object pageLock(UUID uuid) {
+		return pageLocks[(uuid.hashCode() & 0x7fffffff) % pageLocks.length];
+	}
+	
+	/**
+	 * @return true if the player is parked in the cold tier, their cooldowns are then read from it without being paged in
+	 */
+	private boolean isParked(UUID uuid) {
+		return coldTier != null && !resident.containsKey(uuid);
+	}
+	
+	/**
+	 * Runs a change to the cooldowns of a parked player by paging them in and parking them again right after, so changing the cooldowns
+	 * of offline players does not keep them on the heap
+	 */
+	private long writeThrough(UUID uuid, LongSupplier write) {
+		synchronized(pageLock(uuid)){
+			if(!isParked(uuid)){
+				return write.getAsLong();
+			}
+			page(uuid);
+			try{
+				return write.getAsLong();
+			} finally{
+				park(uuid);
+			}
+		}
+	}
+	
+	/**
+	 * Moves entries written to memory while the player was parked concurrently into the cold tier, called after every write that found
+	 * the player resident
+	 */
+	private void settle(UUID uuid) {
+		if(isParked(uuid)){
+			writeThrough(uuid, () -> 0);
+		}
+	}
+	
+	/**
+	 * Reads the cooldown of a player, the cooldowns of parked players are read from the cold tier without paging them in
+	 */
+	private Cooldown cooldown(Map<UUID, Cooldown> map, String key, UUID uuid) {
+		Cooldown cooldown = map == null ? null : map.get(uuid);
+		if(cooldown != null || !isParked(uuid)){
+			return cooldown;
+		}
+		ColdTier coldTier = this.coldTier;
+		Map<String, Cooldown> stored;
+		try{
+			stored = coldTier == null ? null : coldTier.peek(uuid);
+		} catch(IOException e){
+			throw new UncheckedIOException("Could not read cooldowns of " + uuid, e);
+		}
+		return stored == null ? null : stored.get(key);
 	}
 	
 	/**
@@ -42,8 +383,144 @@ public final class CooldownManager{
 	 *
 	 * @param key the key to create a cooldown for
 	 */
-	public synchronized void createCooldown(String key) {
-		cooldowns.putIfAbsent(key, new HashMap<>());
+	public void createCooldown(String key) {
+		cooldowns(key);
+	}
+	
+	private KeyCooldowns cooldowns(String key) {
+		KeyCooldowns map = cooldowns.get(key);
+		return map != null ? map : cooldowns.computeIfAbsent(key, k -> new KeyCooldowns());
+	}
+	
+	/**
+	 * Starts a cooldown for the player if none is active, checking and setting it in one atomic step so no two callers (on any thread)
+	 * can acquire the same cooldown
+	 *
+	 * @param key the key of the cooldown
+	 * @param uuid the player to acquire the cooldown for
+	 * @param durationMillis the duration of the cooldown in milliseconds
+	 * @return 0 if the cooldown was acquired, otherwise the remaining time in milliseconds of the active cooldown
+	 */
+	public long tryAcquire(String key, UUID uuid, long durationMillis) {
+		if(isParked(uuid)){
+			return writeThrough(uuid, () -> tryAcquire(key, uuid, durationMillis));
+		}
+		if(sync == null){
+			long remaining = tryAcquire(cooldowns(key), uuid, durationMillis, System.currentTimeMillis(), null, 0);
+			settle(uuid);
+			return remaining;
+		}
+		Cooldown[] acquired = new Cooldown[1];
+		long remaining = tryAcquire(cooldowns(key), uuid, durationMillis, System.currentTimeMillis(), acquired, 0);
+		settle(uuid);
+		if(remaining == 0){
+			publish(key, uuid, acquired[0]);
+		}
+		return remaining;
+	}
+	
+	/**
+	 * Starts a cooldown for the player if none is active, checking and setting it in one atomic step
+	 *
+	 * @param key the key of the cooldown
+	 * @param uuid the player to acquire the cooldown for
+	 * @param duration the duration of the cooldown
+	 * @return 0 if the cooldown was acquired, otherwise the remaining time in milliseconds of the active cooldown
+	 */
+	public long tryAcquire(String key, UUID uuid, Duration duration) {
+		return tryAcquire(key, uuid, duration.toMillis());
+	}
+	
+	/**
+	 * Starts the cooldowns of a group of keys for the player if none of them is active, either all or none of them are acquired
+	 *
+	 * @param keys the keys of the cooldown group
+	 * @param uuid the player to acquire the cooldowns for
+	 * @param durationMillis the duration of the cooldowns in milliseconds
+	 * @return 0 if all cooldowns were acquired, otherwise the longest remaining time in milliseconds of the active cooldowns
+	 */
+	public long tryAcquire(String[] keys, UUID uuid, long durationMillis) {
+		if(isParked(uuid)){
+			return writeThrough(uuid, () -> tryAcquire(keys, uuid, durationMillis));
+		}
+		long now = System.currentTimeMillis();
+		long remaining = 0;
+		for(String key : keys){
+			remaining = Math.max(remaining, remaining(key, uuid, now));
+		}
+		if(remaining > 0){
+			return remaining;
+		}
+		Cooldown[] previous = new Cooldown[keys.length];
+		Cooldown[] acquired = new Cooldown[keys.length];
+		for(int i = 0; i < keys.length; i++){
+			KeyCooldowns map = cooldowns(keys[i]);
+			previous[i] = map.get(uuid);
+			remaining = tryAcquire(map, uuid, durationMillis, now, acquired, i);
+			if(remaining > 0){
+				//another caller acquired one of the keys in between, undo the ones already acquired
+				for(int j = 0; j < i; j++){
+					Map<UUID, Cooldown> acquiredMap = cooldowns(keys[j]);
+					if(previous[j] == null){
+						acquiredMap.remove(uuid, acquired[j]);
+					} else {
+						acquiredMap.replace(uuid, acquired[j], previous[j]);
+					}
+				}
+				settle(uuid);
+				return remaining;
+			}
+		}
+		settle(uuid);
+		for(int i = 0; i < keys.length; i++){
+			publish(keys[i], uuid, acquired[i]);
+		}
+		return 0;
+	}
+	
+	/**
+	 * Compare and set loop acquiring a cooldown
+	 *
+	 * @param acquired if not null the acquired cooldown is stored in it at the given index
+	 */
+	private static long tryAcquire(KeyCooldowns map, UUID uuid, long durationMillis, long now, Cooldown[] acquired, int index) {
+		Cooldown cooldown = null;
+		while(true){
+			Cooldown current = map.get(uuid);
+			if(current != null){
+				long remaining = current.getRemainingTime(now);
+				if(remaining > 0){
+					map.rejections.increment();
+					return remaining;
+				}
+			}
+			if(cooldown == null){
+				cooldown = new Cooldown(durationMillis, now);
+			}
+			if(current == null ? map.putIfAbsent(uuid, cooldown) == null : map.replace(uuid, current, cooldown)){
+				if(acquired != null){
+					acquired[index] = cooldown;
+				}
+				map.acquires.increment();
+				return 0;
+			}
+		}
+	}
+	
+	/**
+	 * Gets the remaining time of a cooldown without allocating
+	 *
+	 * @param key the key to check
+	 * @param uuid the player to check
+	 * @return the remaining time in milliseconds or 0 if no cooldown is active
+	 */
+	public long getRemainingTime(String key, UUID uuid) {
+		return remaining(key, uuid, System.currentTimeMillis());
+	}
+	
+	private long remaining(String key, UUID uuid, long now) {
+		Cooldown cooldown = cooldown(cooldowns.get(key), key, uuid);
+		return cooldown == null ? 0 : Math.max(0, cooldown.getRemainingTime(now));
 	}
 	
 	/**
@@ -52,9 +529,8 @@ public final class CooldownManager{
 	 * @param uuid the player to add the cooldown for
 	 * @param duration the duration of the cooldown
 	 */
-	public synchronized void addCooldown(String key, UUID uuid, Duration duration) {
-		createCooldown(key);
-		cooldowns.get(key).put(uuid, new Cooldown(duration));
+	public void addCooldown(String key, UUID uuid, Duration duration) {
+		addCooldown(key, uuid, new Cooldown(duration));
 	}
 	
 	/**
@@ -63,9 +539,17 @@ public final class CooldownManager{
 	 * @param uuid the player to add the cooldown for
 	 * @param cooldown the cooldown to add
 	 */
-	public synchronized void addCooldown(String key, UUID uuid, Cooldown cooldown) {
-		createCooldown(key);
-		cooldowns.get(key).put(uuid, cooldown);
+	public void addCooldown(String key, UUID uuid, Cooldown cooldown) {
+		if(isParked(uuid)){
+			writeThrough(uuid, () -> {
+				addCooldown(key, uuid, cooldown);
+				return 0;
+			});
+			return;
+		}
+		cooldowns(key).put(uuid, cooldown);
+		settle(uuid);
+		publish(key, uuid, cooldown);
 	}
 	
 	/**
@@ -75,19 +559,206 @@ public final class CooldownManager{
 	 * @param duration the duration of the cooldown in seconds
 	 *  @param unit the time unit to use (If the resulting units size in milliseconds exceeds the
 	 */
-	public synchronized void addCooldown(String key, UUID uuid, long duration, ChronoUnit unit) {
+	public void addCooldown(String key, UUID uuid, long duration, ChronoUnit unit) {
 		addCooldown(key, uuid, new Cooldown(duration, unit));
 	}
 	
+	/**
+	 * Gets the remaining times of a cooldown for many players at once, looking the key up and reading the clock only once
+	 *
+	 * @param key the key to check
+	 * @param players the players to check
+	 * @param into the array to fill, a new one is created if it is null or shorter than the players
+	 * @return the array holding the remaining time in milliseconds of every player at its index, 0 if no cooldown is active
+	 */
+	public long[] getRemainingTimes(String key, UUID[] players, long[] into) {
+		long[] remaining = into == null || into.length < players.length ? new long[players.length] : into;
+		Map<UUID, Cooldown> map = cooldowns.get(key);
+		if(map == null && coldTier == null){
+			Arrays.fill(remaining, 0, players.length, 0);
+			return remaining;
+		}
+		long now = System.currentTimeMillis();
+		for(int i = 0; i < players.length; i++){
+			Cooldown cooldown = cooldown(map, key, players[i]);
+			remaining[i] = cooldown == null ? 0 : Math.max(0, cooldown.getRemainingTime(now));
+		}
+		return remaining;
+	}
+	
+	/**
+	 * Starts the same cooldown for many players at once, all of them share a single immutable cooldown instance
+	 *
+	 * @param key the key to add the cooldowns to
+	 * @param players the players to add the cooldown for
+	 * @param durationMillis the duration of the cooldown in milliseconds
+	 */
+	public void addCooldowns(String key, UUID[] players, long durationMillis) {
+		Map<UUID, Cooldown> map = cooldowns(key);
+		Cooldown cooldown = new Cooldown(durationMillis);
+		for(UUID player : players){
+			if(isParked(player)){
+				addCooldown(key, player, cooldown);
+				continue;
+			}
+			map.put(player, cooldown);
+			settle(player);
+			publish(key, player, cooldown);
+		}
+	}
+	
+	/**
+	 * Removes the cooldown of many players at once
+	 *
+	 * @param key the key to remove the cooldowns from
+	 * @param players the players to remove the cooldown from
+	 */
+	public void removeCooldowns(String key, UUID[] players) {
+		Map<UUID, Cooldown> map = cooldowns.get(key);
+		for(UUID player : players){
+			if(isParked(player)){
+				removeCooldown(key, player);
+			} else if(map != null){
+				removed(key, player, map.remove(player));
+			}
+		}
+	}
+	
+	/**
+	 * Removes every cooldown of every key starting with the given prefix, for example all cooldowns of a command and its subcommands. The
+	 * removals of player cooldowns are shared with other servers like any other removal.
+	 *
+	 * @param prefix the prefix of the keys to clear
+	 * @return the amount of cleared keys
+	 */
+	public int clearByPrefix(String prefix) {
+		int cleared = 0;
+		Iterator<Map.Entry<String, KeyCooldowns>> iterator = cooldowns.entrySet().iterator();
+		while(iterator.hasNext()){
+			Map.Entry<String, KeyCooldowns> entry = iterator.next();
+			if(entry.getKey().startsWith(prefix)){
+				iterator.remove();
+				cleared++;
+				if(sync != null){
+					for(UUID player : entry.getValue().keySet()){
+						publishRemoval(entry.getKey(), player);
+					}
+				}
+			}
+		}
+		subjectCooldowns.keySet().removeIf(key -> key.startsWith(prefix));
+		return cleared;
+	}
+	
+	private SubjectCooldownTable subjects(String key) {
+		return subjectCooldowns.computeIfAbsent(key, k -> new SubjectCooldownTable());
+	}
+	
+	/**
+	 * Starts a cooldown for a subject if none is active, checking and setting it atomically without allocating
+	 *
+	 * @param key the key of the cooldown
+	 * @param subject the subject, for example an ip address or account id
+	 * @param durationMillis the duration of the cooldown
+	 * @return 0 if the cooldown was acquired, otherwise the remaining time in milliseconds of the active cooldown
+	 */
+	public long tryAcquire(String key, SubjectKey subject, long durationMillis) {
+		return subjects(key).tryAcquire(subject.a(), subject.b(), subject.c(), durationMillis, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Starts a cooldown for a subject if none is active, checking and setting it atomically without allocating
+	 *
+	 * @param key the key of the cooldown
+	 * @param subject the subject, for example an ip address or account id
+	 * @param duration the duration of the cooldown
+	 * @return 0 if the cooldown was acquired, otherwise the remaining time in milliseconds of the active cooldown
+	 */
+	public long tryAcquire(String key, SubjectKey subject, Duration duration) {
+		return tryAcquire(key, subject, duration.toMillis());
+	}
+	
+	/**
+	 * Starts or replaces the cooldown of a subject
+	 *
+	 * @param key the key of the cooldown
+	 * @param subject the subject
+	 * @param durationMillis the duration of the cooldown
+	 */
+	public void addCooldown(String key, SubjectKey subject, long durationMillis) {
+		long now = System.currentTimeMillis();
+		subjects(key).put(subject.a(), subject.b(), subject.c(), now + durationMillis, now);
+	}
+	
+	/**
+	 * Gets the remaining time of the cooldown of a subject without allocating
+	 *
+	 * @param key the key to check
+	 * @param subject the subject to check
+	 * @return the remaining time in milliseconds or 0 if no cooldown is active
+	 */
+	public long getRemainingTime(String key, SubjectKey subject) {
+		SubjectCooldownTable table = subjectCooldowns.get(key);
+		return table == null ? 0 : table.getRemainingTime(subject.a(), subject.b(), subject.c(), System.currentTimeMillis());
+	}
+	
+	/**
+	 * @param key the key to check
+	 * @param subject the subject to check
+	 * @return true if the subject has an active cooldown
+	 */
+	public boolean hasCooldown(String key, SubjectKey subject) {
+		return getRemainingTime(key, subject) > 0;
+	}
+	
+	/**
+	 * Removes the cooldown of a subject
+	 *
+	 * @param key the key to remove the cooldown from
+	 * @param subject the subject to remove the cooldown from
+	 */
+	public void removeCooldown(String key, SubjectKey subject) {
+		SubjectCooldownTable table = subjectCooldowns.get(key);
+		if(table != null){
+			table.remove(subject.a(), subject.b(), subject.c());
+		}
+	}
+	
+	/**
+	 * @param key the key
+	 * @return the table holding the subject cooldowns of the key, for callers that want to query it with raw longs
+	 */
+	public SubjectCooldownTable getSubjectCooldowns(String key) {
+		return subjects(key);
+	}
+	
 	/**
 	 * Removes the cooldown for the specified player
 	 *
 	 * @param key  the key to remove the cooldown from
 	 * @param uuid the player to remove the cooldown from
 	 */
-	public synchronized void removeCooldown(String key, UUID uuid) {
-		createCooldown(key);
-		getCooldowns(key).remove(uuid);
+	public void removeCooldown(String key, UUID uuid) {
+		if(isParked(uuid)){
+			writeThrough(uuid, () -> {
+				removeCooldown(key, uuid);
+				return 0;
+			});
+			return;
+		}
+		removed(key, uuid, cooldowns(key).remove(uuid));
+	}
+	
+	/**
+	 * Publishes the removal of a resident players cooldown, removing it from the cold tier instead if the player was parked concurrently
+	 * and their cooldown may have moved there before it was removed
+	 */
+	private void removed(String key, UUID uuid, Cooldown removed) {
+		if(isParked(uuid)){
+			removeCooldown(key, uuid);
+		} else if(removed != null){
+			publishRemoval(key, uuid);
+		}
 	}
 	
 	/**
@@ -96,7 +767,7 @@ public final class CooldownManager{
 	 * @param key    the key to remove the cooldown from
 	 * @param player the player to remove the cooldown from
 	 */
-	public synchronized void removeCooldown(String key, Player player) {
+	public void removeCooldown(String key, Player player) {
 		removeCooldown(key, player.getUniqueId());
 	}
 	
@@ -107,9 +778,8 @@ public final class CooldownManager{
 	 * @param uuid the player to check
 	 * @return boolean true if the player has a cooldown left false if no entry exists or it expired.
 	 */
-	public synchronized boolean hasCooldown(String key, UUID uuid) {
-		createCooldown(key);
-		return getCooldown(key, uuid).isExpired();
+	public boolean hasCooldown(String key, UUID uuid) {
+		return getRemainingTime(key, uuid) > 0;
 	}
 	
 	/**
@@ -119,7 +789,7 @@ public final class CooldownManager{
 	 * @param player the player to check
 	 * @return boolean true if the player has a cooldown left false if no entry exists or it expired.
 	 */
-	public synchronized boolean hasCooldown(String key, Player player) {
+	public boolean hasCooldown(String key, Player player) {
 		return hasCooldown(key, player.getUniqueId());
 	}
 	
@@ -130,9 +800,9 @@ public final class CooldownManager{
 	 * @param uuid the player to check
 	 * @return the remaining cooldown
 	 */
-	public synchronized Cooldown getCooldown(String key, UUID uuid) {
-		createCooldown(key);
-		return cooldowns.get(key).getOrDefault(uuid, new Cooldown(0));
+	public Cooldown getCooldown(String key, UUID uuid) {
+		Cooldown cooldown = cooldown(cooldowns.get(key), key, uuid);
+		return cooldown == null ? new Cooldown(0) : cooldown;
 	}
 	
 	/**
@@ -142,7 +812,7 @@ public final class CooldownManager{
 	 * @param player the player to check
 	 * @return the remaining cooldown
 	 */
-	public synchronized Cooldown getCooldown(String key, Player player) {
+	public Cooldown getCooldown(String key, Player player) {
 		return getCooldown(key, player.getUniqueId());
 	}
 	
@@ -151,12 +821,191 @@ public final class CooldownManager{
 	 * @param player the player to check
 	 * @return the remaining time in milliseconds from the current timestamp to its expiration if the
 	 */
-	public synchronized String getCooldownAsString(String key, UUID player) {
+	public String getCooldownAsString(String key, UUID player) {
 		return TimeBuilder.toTimeString().inputMillie(getCooldown(key, player).getRemainingTime()).build();
 	}
 	
+	/**
+	 * @return a read only view of every key and its cooldowns
+	 * @deprecated walking every cooldown is expensive, use {@link #getStatistics()} to inspect the manager
+	 */
+	@Deprecated
 	public Map<String, Map<UUID, Cooldown>> getCooldownMap() {
-		return cooldowns;
+		Map<String, Map<UUID, Cooldown>> view = new HashMap<>();
+		for(Map.Entry<String, KeyCooldowns> entry : cooldowns.entrySet()){
+			view.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(view);
+	}
+	
+	/**
+	 * Takes the statistics of every key, they are maintained on every write so this does not walk the cooldowns
+	 *
+	 * @return the statistics of every key, the key with the most entries first
+	 */
+	public List<CooldownStatistics> getStatistics() {
+		long now = System.currentTimeMillis();
+		List<CooldownStatistics> statistics = new ArrayList<>(cooldowns.size());
+		for(Map.Entry<String, KeyCooldowns> entry : cooldowns.entrySet()){
+			statistics.add(statistics(entry.getKey(), entry.getValue(), now));
+		}
+		statistics.sort(Comparator.comparingLong(CooldownStatistics::entries).reversed());
+		return statistics;
 	}
 	
+	/**
+	 * Takes the statistics of a single key
+	 *
+	 * @param key the key
+	 * @return the statistics or null if the key does not exist
+	 */
+	public CooldownStatistics getStatistics(String key) {
+		KeyCooldowns map = cooldowns.get(key);
+		return map == null ? null : statistics(key, map, System.currentTimeMillis());
+	}
+	
+	private static CooldownStatistics statistics(String key, KeyCooldowns map, long now) {
+		long entries = map.mappingCount();
+		return new CooldownStatistics(key,
+				entries,
+				map.expired(now),
+				KEY_BYTES + entries * ENTRY_BYTES + map.expiryBuckets() * EXPIRY_BUCKET_BYTES,
+				map.acquires.sum(),
+				map.rejections.sum(),
+				map.writes.sum(),
+				map.removals.sum());
+	}
+	
+	@Override
+	public int purgeExpired() {
+		long now = System.currentTimeMillis();
+		int purged = 0;
+		for(KeyCooldowns map : cooldowns.values()){
+			purged += map.purgeExpired(now);
+		}
+		for(SubjectCooldownTable table : subjectCooldowns.values()){
+			purged += table.purgeExpired(now);
+		}
+		return purged;
+	}
+	
+	@Override
+	public int getKeys() {
+		int keys = cooldowns.size();
+		for(String key : subjectCooldowns.keySet()){
+			if(!cooldowns.containsKey(key)){
+				keys++;
+			}
+		}
+		return keys;
+	}
+	
+	@Override
+	public long getEntries() {
+		long entries = 0;
+		for(KeyCooldowns map : cooldowns.values()){
+			entries += map.mappingCount();
+		}
+		for(SubjectCooldownTable table : subjectCooldowns.values()){
+			entries += table.size();
+		}
+		return entries;
+	}
+	
+	@Override
+	public long getExpiredEntries() {
+		long now = System.currentTimeMillis();
+		long expired = 0;
+		for(KeyCooldowns map : cooldowns.values()){
+			expired += map.expired(now);
+		}
+		for(SubjectCooldownTable table : subjectCooldowns.values()){
+			expired += table.expired(now);
+		}
+		return expired;
+	}
+	
+	@Override
+	public long getEstimatedBytes() {
+		long bytes = 0;
+		for(KeyCooldowns map : cooldowns.values()){
+			bytes += KEY_BYTES + map.mappingCount() * ENTRY_BYTES + map.expiryBuckets() * EXPIRY_BUCKET_BYTES;
+		}
+		for(SubjectCooldownTable table : subjectCooldowns.values()){
+			bytes += KEY_BYTES + table.capacity() * SUBJECT_SLOT_BYTES;
+		}
+		return bytes;
+	}
+	
+	@Override
+	public long getAcquires() {
+		return sum(map -> map.acquires);
+	}
+	
+	@Override
+	public long getRejections() {
+		return sum(map -> map.rejections);
+	}
+	
+	@Override
+	public long getWrites() {
+		return sum(map -> map.writes);
+	}
+	
+	@Override
+	public long getRemovals() {
+		return sum(map -> map.removals);
+	}
+	
+	private long sum(Function<KeyCooldowns, LongAdder> counter) {
+		long sum = 0;
+		for(KeyCooldowns map : cooldowns.values()){
+			sum += counter.apply(map).sum();
+		}
+		return sum;
+	}
+	
+	@Override
+	public String[] getLargestKeys() {
+		List<CooldownStatistics> statistics = getStatistics();
+		String[] largest = new String[Math.min(10, statistics.size())];
+		for(int i = 0; i < largest.length; i++){
+			largest[i] = statistics.get(i).key() + "=" + statistics.get(i).entries();
+		}
+		return largest;
+	}
+	
+	/**
+	 * Registers the statistics of this manager with the platform MBean server
+	 *
+	 * @param name the name to register the manager under, usually plugin and command
+	 */
+	public synchronized void enableJmx(String name) {
+		disableJmx();
+		try{
+			ObjectName objectName = new ObjectName("com.wonkglorg.utilitylib:type=CooldownManager,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.objectName = objectName;
+		} catch(JMException e){
+			LOGGER.log(Level.WARNING, "Could not register cooldown statistics of " + name, e);
+		}
+	}
+	
+	/**
+	 * Unregisters the statistics of this manager from the platform MBean server
+	 */
+	public synchronized void disableJmx() {
+		if(objectName == null){
+			return;
+		}
+		try{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if(server.isRegistered(objectName)){
+				server.unregisterMBean(objectName);
+			}
+		} catch(JMException e){
+			LOGGER.log(Level.WARNING, "Could not unregister cooldown statistics of " + objectName, e);
+		}
+		objectName = null;
+	}
 }
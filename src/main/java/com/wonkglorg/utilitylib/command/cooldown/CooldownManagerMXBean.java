@@ -0,0 +1,35 @@
+package com.wonkglorg.utilitylib.command.cooldown;
+
+/**
+ * JMX view of the statistics of a {@link CooldownManager}, counters are totals since creation so monitoring tools can derive rates
+ */
+public interface CooldownManagerMXBean{
+	
+	int getKeys();
+	
+	long getEntries();
+	
+	long getExpiredEntries();
+	
+	long getEstimatedBytes();
+	
+	long getAcquires();
+	
+	long getRejections();
+	
+	long getWrites();
+	
+	long getRemovals();
+	
+	/**
+	 * @return the keys with the most entries as {@code key=entries}
+	 */
+	String[] getLargestKeys();
+	
+	/**
+	 * Removes every expired cooldown
+	 *
+	 * @return the amount of removed cooldowns
+	 */
+	int purgeExpired();
+}
@@ -0,0 +1,22 @@
+package com.wonkglorg.utilitylib.command.cooldown;
+
+/**
+ * Statistics of a single cooldown key at the time they were taken
+ *
+ * @param key the key
+ * @param entries the amount of cooldowns stored for the key, including expired ones
+ * @param expired the amount of cooldowns that expired but were not removed yet
+ * @param estimatedBytes estimated heap retained by the key
+ * @param acquires successful {@link CooldownManager#tryAcquire} calls
+ * @param rejections {@link CooldownManager#tryAcquire} calls rejected by an active cooldown
+ * @param writes cooldowns started
+ * @param removals cooldowns removed
+ */
+public record CooldownStatistics(String key,
+								 long entries,
+								 long expired,
+								 long estimatedBytes,
+								 long acquires,
+								 long rejections,
+								 long writes,
+								 long removals){}
@@ -0,0 +1,61 @@
+package com.wonkglorg.utilitylib.command.cooldown;
+
+import com.wonkglorg.utilitylib.command.Subcommand;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Subcommand showing the largest keys of a {@link CooldownManager}, can be mounted under any admin command.
+ * <p>
+ * Usage: {@code <parent> [amount]} or {@code <parent> purge}
+ */
+public class CooldownStatsSubcommand extends Subcommand{
+	private final CooldownManager manager;
+	
+	/**
+	 * @param index The index of the argument in the command
+	 * @param manager the manager to show
+	 */
+	public CooldownStatsSubcommand(int index, CooldownManager manager) {
+		super(index);
+		this.manager = manager;
+	}
+	
+	@Override
+	protected boolean execute(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if(compareString(argAsString(0), "purge")){
+			sender.sendMessage("Removed " + manager.purgeExpired() + " expired cooldowns.");
+			return true;
+		}
+		int amount = argAsInteger(0, 10);
+		List<CooldownStatistics> statistics = manager.getStatistics();
+		sender.sendMessage("%d keys, %d cooldowns (%d expired), ~%d KiB".formatted(manager.getKeys(),
+				manager.getEntries(),
+				manager.getExpiredEntries(),
+				manager.getEstimatedBytes() / 1024));
+		for(int i = 0; i < Math.min(amount, statistics.size()); i++){
+			CooldownStatistics key = statistics.get(i);
+			sender.sendMessage("%s: %d cooldowns, %d expired, ~%d KiB, %d acquired, %d rejected, %d started, %d removed".formatted(key.key(),
+					key.entries(),
+					key.expired(),
+					key.estimatedBytes() / 1024,
+					key.acquires(),
+					key.rejections(),
+					key.writes(),
+					key.removals()));
+		}
+		return true;
+	}
+	
+	@Override
+	protected List<String> tabComplete(@NotNull Player player, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if(argCount() == 1){
+			return matchArg(argAsString(0), List.of("purge", "5", "10", "25"));
+		}
+		return List.of();
+	}
+}
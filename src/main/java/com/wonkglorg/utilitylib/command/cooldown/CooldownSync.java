@@ -0,0 +1,112 @@
+package com.wonkglorg.utilitylib.command.cooldown;
+
+import com.wonkglorg.utilitylib.command.cooldown.shared.CooldownUpdate;
+import com.wonkglorg.utilitylib.command.cooldown.shared.SharedCooldownStore;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind link between a {@link CooldownManager} and a {@link SharedCooldownStore}. Local changes are queued without blocking and
+ * published in one batch per tick, updates of other servers are polled in the same tick and applied to the manager.
+ */
+@ThreadSafe
+final class CooldownSync implements Runnable{
+	private static final Logger LOGGER = Logger.getLogger(CooldownSync.class.getName());
+	private final CooldownManager manager;
+	private final SharedCooldownStore store;
+	private final String origin;
+	private final Queue<CooldownUpdate> pending = new ConcurrentLinkedQueue<>();
+	/**
+	 * Batch that could not be published, retried before newer updates so their order is kept
+	 */
+	private List<CooldownUpdate> failed = List.of();
+	
+	CooldownSync(CooldownManager manager, SharedCooldownStore store, String origin) {
+		this.manager = manager;
+		this.store = store;
+		this.origin = origin;
+	}
+	
+	SharedCooldownStore getStore() {
+		return store;
+	}
+	
+	/**
+	 * Queues a local change to be published with the next batch
+	 */
+	void enqueue(CooldownUpdate update) {
+		pending.add(update);
+	}
+	
+	/**
+	 * Publishes the queued changes and applies the changes of other servers, called once per tick
+	 */
+	@Override
+	public synchronized void run() {
+		List<CooldownUpdate> batch = drain();
+		if(!batch.isEmpty()){
+			try{
+				store.publish(origin, batch);
+				failed = List.of();
+			} catch(IOException e){
+				failed = batch;
+				LOGGER.log(Level.WARNING, "Could not publish " + batch.size() + " cooldown updates, retrying next tick", e);
+			}
+		}
+		try{
+			for(CooldownUpdate update : store.poll(origin)){
+				manager.apply(update);
+			}
+		} catch(IOException e){
+			LOGGER.log(Level.WARNING, "Could not poll cooldown updates", e);
+		}
+	}
+	
+	/**
+	 * Fills the near-cache with the cooldowns of a player from the store
+	 */
+	void fetch(UUID player) {
+		//pages the player in first, updates of parked players would be dropped otherwise
+		manager.unpark(player);
+		try{
+			for(CooldownUpdate update : store.fetch(player)){
+				manager.apply(update);
+			}
+		} catch(IOException e){
+			LOGGER.log(Level.WARNING, "Could not fetch cooldowns of " + player, e);
+		}
+	}
+	
+	/**
+	 * Drains the queue, only keeping the last change of every cooldown
+	 */
+	private List<CooldownUpdate> drain() {
+		if(pending.isEmpty()){
+			return failed;
+		}
+		Map<CooldownKey, CooldownUpdate> latest = new LinkedHashMap<>();
+		for(CooldownUpdate update : failed){
+			latest.put(new CooldownKey(update.key(), update.player()), update);
+		}
+		CooldownUpdate update;
+		while((update = pending.poll()) != null){
+			CooldownKey key = new CooldownKey(update.key(), update.player());
+			//re-inserted so the batch stays in the order of the last changes
+			latest.remove(key);
+			latest.put(key, update);
+		}
+		return new ArrayList<>(latest.values());
+	}
+	
+	private record CooldownKey(String key, UUID player){}
+}
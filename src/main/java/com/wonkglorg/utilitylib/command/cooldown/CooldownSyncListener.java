@@ -0,0 +1,24 @@
+package com.wonkglorg.utilitylib.command.cooldown;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+
+/**
+ * Fetches the shared cooldowns of players while they log in, off the main thread, so they are in the near-cache once they joined
+ */
+final class CooldownSyncListener implements Listener{
+	private final CooldownSync sync;
+	
+	CooldownSyncListener(CooldownSync sync) {
+		this.sync = sync;
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+		if(event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED){
+			sync.fetch(event.getUniqueId());
+		}
+	}
+}
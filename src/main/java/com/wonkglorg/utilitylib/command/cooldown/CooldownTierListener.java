@@ -0,0 +1,85 @@
+package com.wonkglorg.utilitylib.command.cooldown;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Parks the cooldowns of players in the cold tier when they quit and pages them back in while they log in, both off the main thread.
+ * Parks of the same player run in order and a log in waits for a pending park before paging the cooldowns back in.
+ */
+final class CooldownTierListener implements Listener{
+	private final CooldownManager manager;
+	private final Plugin plugin;
+	/**
+	 * Player -> last park not finished yet
+	 */
+	private final Map<UUID, CompletableFuture<Void>> parking = new ConcurrentHashMap<>();
+	
+	CooldownTierListener(CooldownManager manager, Plugin plugin) {
+		this.manager = manager;
+		this.plugin = plugin;
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+		if(event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED){
+			CompletableFuture<Void> pending = parking.get(event.getUniqueId());
+			if(pending != null){
+				pending.join();
+			}
+			manager.unpark(event.getUniqueId());
+		}
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onLogin(PlayerLoginEvent event) {
+		if(event.getResult() != PlayerLoginEvent.Result.ALLOWED){
+			//the player never joins, so they never quit either
+			park(event.getPlayer().getUniqueId());
+		}
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent event) {
+		park(event.getPlayer().getUniqueId());
+	}
+	
+	private void park(UUID player) {
+		if(!plugin.isEnabled()){
+			//async tasks can no longer be scheduled while the plugin is disabled
+			manager.park(player);
+			return;
+		}
+		CompletableFuture<Void> park = parking.compute(player, (uuid, previous) -> {
+			CompletableFuture<Void> next = new CompletableFuture<>();
+			Runnable task = () -> Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+				try{
+					manager.park(uuid);
+				} catch(RuntimeException e){
+					plugin.getLogger().log(Level.SEVERE, "Could not park cooldowns of " + uuid, e);
+				} finally{
+					next.complete(null);
+				}
+			});
+			if(previous == null){
+				task.run();
+			} else {
+				previous.thenRun(task);
+			}
+			return next;
+		});
+		park.thenRun(() -> parking.remove(player, park));
+	}
+}
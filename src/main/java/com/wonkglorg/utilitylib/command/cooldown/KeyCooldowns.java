@@ -0,0 +1,167 @@
+package com.wonkglorg.utilitylib.command.cooldown;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The cooldowns of a single key, keeping its statistics up to date on every write so they never have to be computed by walking the
+ * entries.
+ * <p>
+ * Besides operation counters every entry that did not expire yet is accounted in a histogram of expiry seconds, every entry not in it is
+ * expired but not reclaimed yet. Every bucket is a {@link LongAdder} in a concurrent map, so writes never take a lock. Buckets are dropped
+ * by the writes once their second passed, so the histogram only ever holds the seconds of live entries. An entry can be untracked by one
+ * thread before the thread that wrote it tracked it, so buckets may go negative for a moment.
+ * The map is only exposed to callers as unmodifiable view, so every write goes through the counting overrides.
+ */
+final class KeyCooldowns extends ConcurrentHashMap<UUID, Cooldown>{
+	final LongAdder acquires = new LongAdder();
+	final LongAdder rejections = new LongAdder();
+	final LongAdder writes = new LongAdder();
+	final LongAdder removals = new LongAdder();
+	/**
+	 * Expiry second -> amount of entries expiring in it
+	 */
+	private final ConcurrentSkipListMap<Long, LongAdder> expiries = new ConcurrentSkipListMap<>();
+	
+	@Override
+	public Cooldown put(UUID key, Cooldown value) {
+		Cooldown previous = super.put(key, value);
+		if(previous != null){
+			untrack(previous);
+		}
+		track(value);
+		return previous;
+	}
+	
+	@Override
+	public Cooldown putIfAbsent(UUID key, Cooldown value) {
+		Cooldown previous = super.putIfAbsent(key, value);
+		if(previous == null){
+			track(value);
+		}
+		return previous;
+	}
+	
+	@Override
+	public boolean replace(UUID key, Cooldown oldValue, Cooldown newValue) {
+		if(!super.replace(key, oldValue, newValue)){
+			return false;
+		}
+		untrack(oldValue);
+		track(newValue);
+		return true;
+	}
+	
+	@Override
+	public Cooldown replace(UUID key, Cooldown value) {
+		Cooldown previous = super.replace(key, value);
+		if(previous != null){
+			untrack(previous);
+			track(value);
+		}
+		return previous;
+	}
+	
+	@Override
+	public Cooldown remove(Object key) {
+		Cooldown previous = super.remove(key);
+		if(previous != null){
+			untrack(previous);
+			removals.increment();
+		}
+		return previous;
+	}
+	
+	@Override
+	public boolean remove(Object key, Object value) {
+		if(!super.remove(key, value)){
+			return false;
+		}
+		untrack((Cooldown) value);
+		removals.increment();
+		return true;
+	}
+	
+	@Override
+	public void clear() {
+		for(Map.Entry<UUID, Cooldown> entry : entrySet()){
+			remove(entry.getKey(), entry.getValue());
+		}
+	}
+	
+	/**
+	 * @param now the current time in milliseconds
+	 * @return the amount of entries that expired before the current second and were not removed yet
+	 */
+	long expired(long now) {
+		long live = 0;
+		for(LongAdder count : expiries.tailMap(now / 1000).values()){
+			live += count.sum();
+		}
+		return Math.max(0, mappingCount() - live);
+	}
+	
+	/**
+	 * @return the amount of distinct expiry seconds tracked
+	 */
+	int expiryBuckets() {
+		return expiries.size();
+	}
+	
+	/**
+	 * Removes every expired entry
+	 *
+	 * @param now the current time in milliseconds
+	 * @return the amount of removed entries
+	 */
+	int purgeExpired(long now) {
+		int purged = 0;
+		for(Map.Entry<UUID, Cooldown> entry : entrySet()){
+			if(entry.getValue().getRemainingTime(now) <= 0 && remove(entry.getKey(), entry.getValue())){
+				purged++;
+			}
+		}
+		prune(now / 1000);
+		return purged;
+	}
+	
+	private void track(Cooldown cooldown) {
+		writes.increment();
+		long now = System.currentTimeMillis() / 1000;
+		long second = expirySecond(cooldown);
+		if(second >= now){
+			bucket(second).increment();
+		}
+		prune(now);
+	}
+	
+	private void untrack(Cooldown cooldown) {
+		long second = expirySecond(cooldown);
+		//entries of past seconds are no longer in the histogram
+		if(second >= System.currentTimeMillis() / 1000){
+			bucket(second).decrement();
+		}
+	}
+	
+	private LongAdder bucket(long second) {
+		LongAdder count = expiries.get(second);
+		return count != null ? count : expiries.computeIfAbsent(second, s -> new LongAdder());
+	}
+	
+	/**
+	 * Drops the buckets of seconds that passed, each bucket is dropped once so this costs constant time per write
+	 */
+	private void prune(long now) {
+		Map.Entry<Long, LongAdder> first;
+		while((first = expiries.firstEntry()) != null && first.getKey() < now){
+			expiries.remove(first.getKey(), first.getValue());
+		}
+	}
+	
+	private static long expirySecond(Cooldown cooldown) {
+		return (cooldown.getStartTime() + cooldown.getDuration().toMillis()) / 1000;
+	}
+}
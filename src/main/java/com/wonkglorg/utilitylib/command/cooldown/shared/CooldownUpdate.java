@@ -0,0 +1,41 @@
+package com.wonkglorg.utilitylib.command.cooldown.shared;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A change of a cooldown exchanged between servers, updates of the same cooldown are ordered by their start time (last writer wins)
+ *
+ * @param key the key of the cooldown
+ * @param player the player
+ * @param startTime the time in milliseconds the cooldown was started or removed at
+ * @param durationMillis the duration of the cooldown, 0 if it was removed
+ */
+public record CooldownUpdate(@NotNull String key, @NotNull UUID player, long startTime, long durationMillis){
+	
+	/**
+	 * @param key the key of the cooldown
+	 * @param player the player
+	 * @param time the time in milliseconds the cooldown was removed at
+	 * @return an update removing the cooldown
+	 */
+	public static CooldownUpdate removal(@NotNull String key, @NotNull UUID player, long time) {
+		return new CooldownUpdate(key, player, time, 0);
+	}
+	
+	/**
+	 * @return true if the update removes the cooldown
+	 */
+	public boolean isRemoval() {
+		return durationMillis <= 0;
+	}
+	
+	/**
+	 * @param now the current time in milliseconds
+	 * @return true if the cooldown is still running at the given time
+	 */
+	public boolean isActive(long now) {
+		return !isRemoval() && startTime + durationMillis > now;
+	}
+}
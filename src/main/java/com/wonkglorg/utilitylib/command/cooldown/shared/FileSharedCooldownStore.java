@@ -0,0 +1,163 @@
+package com.wonkglorg.utilitylib.command.cooldown.shared;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares cooldowns between servers on the same machine through an append only log file. Every published batch is appended as one block
+ * under an exclusive file lock, every origin remembers up to which offset it has read the log.
+ * <p>
+ * The log is never compacted and {@link #fetch(UUID)} reads all of it, this store is meant as reference and for local testing, networks
+ * should use a store backed by a database or message broker.
+ */
+@ThreadSafe
+public final class FileSharedCooldownStore implements SharedCooldownStore{
+	private static final int MAGIC = 0x554C4353; //ULCS
+	/**
+	 * File locks are held per jvm, stores of the same file in one jvm additionally synchronize on a shared monitor
+	 */
+	private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+	private final Path file;
+	private final Object monitor;
+	/**
+	 * Origin -> offset in the log up to which it was polled
+	 */
+	private final Map<String, Long> offsets = new HashMap<>();
+	
+	/**
+	 * @param file the log file, created if missing
+	 * @throws IOException if the file could not be created
+	 */
+	public FileSharedCooldownStore(@NotNull Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if(parent != null){
+			Files.createDirectories(parent);
+		}
+		if(!Files.exists(file)){
+			try{
+				Files.createFile(file);
+			} catch(FileAlreadyExistsException ignored){
+				//created by another server in between
+			}
+		}
+		this.file = file.toRealPath();
+		this.monitor = MONITORS.computeIfAbsent(this.file, path -> new Object());
+	}
+	
+	@Override
+	public void publish(@NotNull String origin, @NotNull List<CooldownUpdate> updates) throws IOException {
+		if(updates.isEmpty()){
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * updates.size());
+		try(DataOutputStream out = new DataOutputStream(bytes)){
+			out.writeInt(MAGIC);
+			out.writeUTF(origin);
+			out.writeInt(updates.size());
+			for(CooldownUpdate update : updates){
+				out.writeUTF(update.key());
+				out.writeLong(update.player().getMostSignificantBits());
+				out.writeLong(update.player().getLeastSignificantBits());
+				out.writeLong(update.startTime());
+				out.writeLong(update.durationMillis());
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		synchronized(monitor){
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND); FileLock ignored = channel.lock()){
+				while(buffer.hasRemaining()){
+					channel.write(buffer);
+				}
+			}
+		}
+	}
+	
+	@Override
+	public synchronized @NotNull List<CooldownUpdate> poll(@NotNull String origin) throws IOException {
+		Long offset = offsets.get(origin);
+		if(offset == null){
+			offsets.put(origin, Files.size(file));
+			return List.of();
+		}
+		List<CooldownUpdate> updates = new ArrayList<>();
+		offsets.put(origin, read(offset, origin, updates));
+		return updates;
+	}
+	
+	@Override
+	public @NotNull List<CooldownUpdate> fetch(@NotNull UUID player) throws IOException {
+		List<CooldownUpdate> updates = new ArrayList<>();
+		read(0, null, updates);
+		Map<String, CooldownUpdate> latest = new HashMap<>();
+		for(CooldownUpdate update : updates){
+			if(update.player().equals(player)){
+				latest.merge(update.key(), update, (current, next) -> next.startTime() >= current.startTime() ? next : current);
+			}
+		}
+		long now = System.currentTimeMillis();
+		latest.values().removeIf(update -> !update.isActive(now));
+		return new ArrayList<>(latest.values());
+	}
+	
+	/**
+	 * Reads the blocks of the log from the offset on
+	 *
+	 * @param skipOrigin origin whose blocks are skipped or null to read all
+	 * @return the offset of the end of the read blocks
+	 */
+	private long read(long offset, String skipOrigin, List<CooldownUpdate> into) throws IOException {
+		byte[] data;
+		synchronized(monitor){
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ); FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)){
+				long size = channel.size();
+				if(size <= offset){
+					return offset;
+				}
+				ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size - offset));
+				while(buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0){
+					//read until full
+				}
+				data = buffer.array();
+			}
+		}
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))){
+			while(in.available() > 0){
+				if(in.readInt() != MAGIC){
+					throw new IOException("Corrupted cooldown log " + file);
+				}
+				String origin = in.readUTF();
+				int count = in.readInt();
+				boolean skip = origin.equals(skipOrigin);
+				for(int i = 0; i < count; i++){
+					String key = in.readUTF();
+					UUID player = new UUID(in.readLong(), in.readLong());
+					long start = in.readLong();
+					long duration = in.readLong();
+					if(!skip){
+						into.add(new CooldownUpdate(key, player, start, duration));
+					}
+				}
+			}
+		}
+		return offset + data.length;
+	}
+}
@@ -0,0 +1,63 @@
+package com.wonkglorg.utilitylib.command.cooldown.shared;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shares cooldowns between managers in the same jvm, for tests and single machine setups
+ */
+@ThreadSafe
+public final class InMemorySharedCooldownStore implements SharedCooldownStore{
+	/**
+	 * Origin -> updates of other origins not polled yet
+	 */
+	private final Map<String, List<CooldownUpdate>> inboxes = new HashMap<>();
+	/**
+	 * Player -> key -> latest update
+	 */
+	private final Map<UUID, Map<String, CooldownUpdate>> latest = new HashMap<>();
+	
+	@Override
+	public synchronized void publish(@NotNull String origin, @NotNull List<CooldownUpdate> updates) {
+		for(CooldownUpdate update : updates){
+			Map<String, CooldownUpdate> cooldowns = latest.computeIfAbsent(update.player(), player -> new HashMap<>());
+			cooldowns.merge(update.key(), update, (current, next) -> next.startTime() >= current.startTime() ? next : current);
+		}
+		for(Map.Entry<String, List<CooldownUpdate>> inbox : inboxes.entrySet()){
+			if(!inbox.getKey().equals(origin)){
+				inbox.getValue().addAll(updates);
+			}
+		}
+	}
+	
+	@Override
+	public synchronized @NotNull List<CooldownUpdate> poll(@NotNull String origin) {
+		List<CooldownUpdate> inbox = inboxes.putIfAbsent(origin, new ArrayList<>());
+		if(inbox == null || inbox.isEmpty()){
+			return List.of();
+		}
+		inboxes.put(origin, new ArrayList<>());
+		return inbox;
+	}
+	
+	@Override
+	public synchronized @NotNull List<CooldownUpdate> fetch(@NotNull UUID player) {
+		Map<String, CooldownUpdate> cooldowns = latest.get(player);
+		if(cooldowns == null){
+			return List.of();
+		}
+		long now = System.currentTimeMillis();
+		cooldowns.values().removeIf(update -> !update.isActive(now));
+		if(cooldowns.isEmpty()){
+			latest.remove(player);
+			return List.of();
+		}
+		return new ArrayList<>(cooldowns.values());
+	}
+}
@@ -0,0 +1,43 @@
+package com.wonkglorg.utilitylib.command.cooldown.shared;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Backend sharing cooldowns between the servers of a network. Servers only talk to it in batches once per tick, every read of a cooldown
+ * is answered by the local {@link com.wonkglorg.utilitylib.command.cooldown.CooldownManager} which acts as near-cache.
+ * <p>
+ * Implementations are called from a single async thread per server but must be safe to use by several servers (origins) at once.
+ */
+public interface SharedCooldownStore{
+	
+	/**
+	 * Stores a batch of updates and delivers them to every other origin
+	 *
+	 * @param origin the server the updates were made on
+	 * @param updates the updates in the order they were made
+	 * @throws IOException if the updates could not be stored
+	 */
+	void publish(@NotNull String origin, @NotNull List<CooldownUpdate> updates) throws IOException;
+	
+	/**
+	 * Gets the updates other origins published since the last poll of the origin, the first poll only registers the origin
+	 *
+	 * @param origin the server polling
+	 * @return the updates in the order they were published
+	 * @throws IOException if the updates could not be read
+	 */
+	@NotNull List<CooldownUpdate> poll(@NotNull String origin) throws IOException;
+	
+	/**
+	 * Gets the active cooldowns of a player, used to fill the near-cache when the player joins a server
+	 *
+	 * @param player the player
+	 * @return the latest update of every key the player has an active cooldown for
+	 * @throws IOException if the cooldowns could not be read
+	 */
+	@NotNull List<CooldownUpdate> fetch(@NotNull UUID player) throws IOException;
+}
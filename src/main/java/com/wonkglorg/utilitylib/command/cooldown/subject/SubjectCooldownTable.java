@@ -0,0 +1,304 @@
+package com.wonkglorg.utilitylib.command.cooldown.subject;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The cooldowns of a single key for {@link SubjectKey subjects}, stored in primitive arrays with open addressing (linear probing) so
+ * neither lookups nor updates allocate.
+ * <p>
+ * Every slot holds the three longs of its subject and the time its cooldown expires at, an expiry of 0 marks an empty slot. Reads are
+ * optimistic and only fall back to the read lock when they raced with a write. Expired cooldowns are reclaimed whenever the table grows
+ * or is {@link #purgeExpired(long) purged}.
+ */
+@ThreadSafe
+public final class SubjectCooldownTable{
+	private static final int MIN_CAPACITY = 16;
+	private final StampedLock lock = new StampedLock();
+	/**
+	 * Subject parts, 3 per slot
+	 */
+	private long[] subjects;
+	/**
+	 * Expiry in milliseconds per slot, 0 if the slot is empty
+	 */
+	private long[] expiries;
+	private int size;
+	
+	public SubjectCooldownTable() {
+		this.subjects = new long[MIN_CAPACITY * 3];
+		this.expiries = new long[MIN_CAPACITY];
+	}
+	
+	/**
+	 * Gets the remaining time of the cooldown of a subject
+	 *
+	 * @param a the first part of the subject
+	 * @param b the second part of the subject
+	 * @param c the third part of the subject
+	 * @param now the current time in milliseconds
+	 * @return the remaining time in milliseconds or 0 if no cooldown is active
+	 */
+	public long getRemainingTime(long a, long b, long c, long now) {
+		long stamp = lock.tryOptimisticRead();
+		long expiry = expiry(subjects, expiries, a, b, c);
+		if(!lock.validate(stamp)){
+			stamp = lock.readLock();
+			try{
+				expiry = expiry(subjects, expiries, a, b, c);
+			} finally{
+				lock.unlockRead(stamp);
+			}
+		}
+		return Math.max(0, expiry - now);
+	}
+	
+	/**
+	 * Starts a cooldown for a subject if none is active, checking and setting it atomically
+	 *
+	 * @param a the first part of the subject
+	 * @param b the second part of the subject
+	 * @param c the third part of the subject
+	 * @param durationMillis the duration of the cooldown
+	 * @param now the current time in milliseconds
+	 * @return 0 if the cooldown was acquired, otherwise the remaining time in milliseconds of the active cooldown
+	 */
+	public long tryAcquire(long a, long b, long c, long durationMillis, long now) {
+		//cheap optimistic rejection, most calls of a rate limit are rejected
+		long remaining = getRemainingTime(a, b, c, now);
+		if(remaining > 0){
+			return remaining;
+		}
+		long stamp = lock.writeLock();
+		try{
+			int slot = slot(subjects, expiries, a, b, c);
+			if(expiries[slot] != 0){
+				if(expiries[slot] > now){
+					return expiries[slot] - now;
+				}
+				expiries[slot] = now + durationMillis;
+				return 0;
+			}
+			insert(slot, a, b, c, now + durationMillis, now);
+			return 0;
+		} finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Starts or replaces the cooldown of a subject
+	 *
+	 * @param a the first part of the subject
+	 * @param b the second part of the subject
+	 * @param c the third part of the subject
+	 * @param expiresAt the time in milliseconds the cooldown expires at
+	 * @param now the current time in milliseconds
+	 */
+	public void put(long a, long b, long c, long expiresAt, long now) {
+		long stamp = lock.writeLock();
+		try{
+			int slot = slot(subjects, expiries, a, b, c);
+			if(expiries[slot] != 0){
+				expiries[slot] = expiresAt;
+			} else {
+				insert(slot, a, b, c, expiresAt, now);
+			}
+		} finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Removes the cooldown of a subject
+	 *
+	 * @param a the first part of the subject
+	 * @param b the second part of the subject
+	 * @param c the third part of the subject
+	 * @return true if the subject had a cooldown
+	 */
+	public boolean remove(long a, long b, long c) {
+		long stamp = lock.writeLock();
+		try{
+			int slot = slot(subjects, expiries, a, b, c);
+			if(expiries[slot] == 0){
+				return false;
+			}
+			delete(slot);
+			return true;
+		} finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Removes every expired cooldown
+	 *
+	 * @param now the current time in milliseconds
+	 * @return the amount of removed cooldowns
+	 */
+	public int purgeExpired(long now) {
+		long stamp = lock.writeLock();
+		try{
+			int before = size;
+			rehash(expiries.length, now);
+			return before - size;
+		} finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * @return the amount of stored cooldowns, including expired ones not reclaimed yet
+	 */
+	public int size() {
+		long stamp = lock.readLock();
+		try{
+			return size;
+		} finally{
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * @param now the current time in milliseconds
+	 * @return the amount of expired cooldowns not reclaimed yet
+	 */
+	public int expired(long now) {
+		long stamp = lock.readLock();
+		try{
+			int expired = 0;
+			for(long expiry : expiries){
+				if(expiry != 0 && expiry <= now){
+					expired++;
+				}
+			}
+			return expired;
+		} finally{
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * @return the amount of slots
+	 */
+	public int capacity() {
+		long stamp = lock.readLock();
+		try{
+			return expiries.length;
+		} finally{
+			lock.unlockRead(stamp);
+		}
+	}
+	
+	private void insert(int slot, long a, long b, long c, long expiresAt, long now) {
+		if((size + 1) * 2 > expiries.length){
+			//grow, reclaiming expired cooldowns on the way, the new table may not need to be larger at all
+			rehash(expiries.length * 2, now);
+			slot = slot(subjects, expiries, a, b, c);
+		}
+		subjects[slot * 3] = a;
+		subjects[slot * 3 + 1] = b;
+		subjects[slot * 3 + 2] = c;
+		expiries[slot] = expiresAt;
+		size++;
+	}
+	
+	/**
+	 * Deletes a slot by shifting the following slots of its probe chain back, so no tombstones are needed
+	 */
+	private void delete(int slot) {
+		int mask = expiries.length - 1;
+		int hole = slot;
+		int next = slot;
+		while(true){
+			next = next + 1 & mask;
+			if(expiries[next] == 0){
+				break;
+			}
+			int home = hash(subjects[next * 3], subjects[next * 3 + 1], subjects[next * 3 + 2]) & mask;
+			//move the entry into the hole if the hole lies between its home and its current slot
+			if((next - home & mask) >= (next - hole & mask)){
+				System.arraycopy(subjects, next * 3, subjects, hole * 3, 3);
+				expiries[hole] = expiries[next];
+				hole = next;
+			}
+		}
+		expiries[hole] = 0;
+		size--;
+	}
+	
+	private void rehash(int capacity, long now) {
+		long[] oldSubjects = subjects;
+		long[] oldExpiries = expiries;
+		int live = 0;
+		for(long expiry : oldExpiries){
+			if(expiry > now){
+				live++;
+			}
+		}
+		int newCapacity = MIN_CAPACITY;
+		while(newCapacity < (live + 1) * 2){
+			newCapacity <<= 1;
+		}
+		if(capacity > newCapacity && live * 4 > newCapacity){
+			//still mostly live, grow to the requested capacity instead of rehashing again shortly after
+			newCapacity = capacity;
+		}
+		long[] newSubjects = new long[newCapacity * 3];
+		long[] newExpiries = new long[newCapacity];
+		for(int i = 0; i < oldExpiries.length; i++){
+			if(oldExpiries[i] > now){
+				long a = oldSubjects[i * 3];
+				long b = oldSubjects[i * 3 + 1];
+				long c = oldSubjects[i * 3 + 2];
+				int slot = slot(newSubjects, newExpiries, a, b, c);
+				System.arraycopy(oldSubjects, i * 3, newSubjects, slot * 3, 3);
+				newExpiries[slot] = oldExpiries[i];
+			}
+		}
+		subjects = newSubjects;
+		expiries = newExpiries;
+		size = live;
+	}
+	
+	/**
+	 * @return the expiry of a subject or 0 if it has none, safe to call on arrays that are modified concurrently
+	 */
+	private static long expiry(long[] subjects, long[] expiries, long a, long b, long c) {
+		int mask = expiries.length - 1;
+		int slot = hash(a, b, c) & mask;
+		for(int probes = 0; probes <= mask; probes++){
+			long expiry = expiries[slot];
+			if(expiry == 0){
+				return 0;
+			}
+			int base = slot * 3;
+			//the arrays may be out of sync during a racing resize, the result is then discarded by the validation
+			if(base + 2 < subjects.length && subjects[base] == a && subjects[base + 1] == b && subjects[base + 2] == c){
+				return expiry;
+			}
+			slot = slot + 1 & mask;
+		}
+		return 0;
+	}
+	
+	/**
+	 * @return the slot of a subject or the empty slot it would be inserted at
+	 */
+	private static int slot(long[] subjects, long[] expiries, long a, long b, long c) {
+		int mask = expiries.length - 1;
+		int slot = hash(a, b, c) & mask;
+		while(expiries[slot] != 0 && (subjects[slot * 3] != a || subjects[slot * 3 + 1] != b || subjects[slot * 3 + 2] != c)){
+			slot = slot + 1 & mask;
+		}
+		return slot;
+	}
+	
+	private static int hash(long a, long b, long c) {
+		long hash = a * 0x9E3779B97F4A7C15L;
+		hash = (hash ^ b) * 0xC2B2AE3D27D4EB4FL;
+		hash = (hash ^ c) * 0x165667B19E3779F9L;
+		return (int) (hash ^ hash >>> 32);
+	}
+}
@@ -0,0 +1,78 @@
+package com.wonkglorg.utilitylib.command.cooldown.subject;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * A fixed width cooldown subject of three longs, for cooldowns that are not bound to a player (ip addresses, account ids, composite keys).
+ * <p>
+ * Keys of different kinds can encode to the same longs, so a single cooldown key should only be used with one kind of subject. Keys
+ * are immutable and can be cached, lookups by key never allocate.
+ *
+ * @param a the first part of the key
+ * @param b the second part of the key
+ * @param c the third part of the key
+ */
+public record SubjectKey(long a, long b, long c){
+	
+	/**
+	 * @param player the player
+	 * @return the key of a player
+	 */
+	public static SubjectKey of(@NotNull UUID player) {
+		return new SubjectKey(player.getMostSignificantBits(), player.getLeastSignificantBits(), 0);
+	}
+	
+	/**
+	 * @param player the player
+	 * @param target what the cooldown is bound to besides the player (another player, a region, an item id...)
+	 * @return the key of a player and a target
+	 */
+	public static SubjectKey of(@NotNull UUID player, long target) {
+		return new SubjectKey(player.getMostSignificantBits(), player.getLeastSignificantBits(), target);
+	}
+	
+	/**
+	 * @param id a numeric id, for example an account id
+	 * @return the key of the id
+	 */
+	public static SubjectKey of(long id) {
+		return new SubjectKey(id, 0, 0);
+	}
+	
+	/**
+	 * @param id a numeric id, for example an account id
+	 * @param target what the cooldown is bound to besides the id
+	 * @return the key of an id and a target
+	 */
+	public static SubjectKey of(long id, long target) {
+		return new SubjectKey(id, target, 0);
+	}
+	
+	/**
+	 * Creates the key of an ip address, ipv4 addresses are stored as ipv4 mapped ipv6 addresses so both forms of an address match
+	 *
+	 * @param address the address
+	 * @return the key of the address
+	 */
+	public static SubjectKey of(@NotNull InetAddress address) {
+		byte[] bytes = address.getAddress();
+		if(address instanceof Inet4Address){
+			return ofIpv4(ByteBuffer.wrap(bytes).getInt());
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return new SubjectKey(buffer.getLong(), buffer.getLong(), 0);
+	}
+	
+	/**
+	 * @param address the ipv4 address as int in network byte order
+	 * @return the key of the address
+	 */
+	public static SubjectKey ofIpv4(int address) {
+		return new SubjectKey(0, 0xFFFF_0000_0000L | address & 0xFFFF_FFFFL, 0);
+	}
+}
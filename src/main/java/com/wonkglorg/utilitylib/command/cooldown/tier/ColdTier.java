@@ -0,0 +1,43 @@
+package com.wonkglorg.utilitylib.command.cooldown.tier;
+
+import com.wonkglorg.utilitylib.command.cooldown.Cooldown;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact storage for the active cooldowns of offline players, so the {@link com.wonkglorg.utilitylib.command.cooldown.CooldownManager}
+ * only keeps the cooldowns of online players on the heap
+ */
+public interface ColdTier{
+	
+	/**
+	 * Stores the cooldowns of a player, replacing previously stored ones
+	 *
+	 * @param player the player
+	 * @param cooldowns key -> active cooldown
+	 * @throws IOException if the cooldowns could not be stored
+	 */
+	void store(@NotNull UUID player, @NotNull Map<String, Cooldown> cooldowns) throws IOException;
+	
+	/**
+	 * Removes the stored cooldowns of a player and returns the ones that did not expire yet
+	 *
+	 * @param player the player
+	 * @return key -> cooldown or null if nothing is stored
+	 * @throws IOException if the cooldowns could not be read
+	 */
+	@Nullable Map<String, Cooldown> load(@NotNull UUID player) throws IOException;
+	
+	/**
+	 * Reads the cooldowns of a player that did not expire yet without removing them, used to answer queries about offline players
+	 *
+	 * @param player the player
+	 * @return key -> cooldown or null if nothing is stored
+	 * @throws IOException if the cooldowns could not be read
+	 */
+	@Nullable Map<String, Cooldown> peek(@NotNull UUID player) throws IOException;
+}
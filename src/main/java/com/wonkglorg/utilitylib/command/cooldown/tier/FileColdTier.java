@@ -0,0 +1,129 @@
+package com.wonkglorg.utilitylib.command.cooldown.tier;
+
+import com.wonkglorg.utilitylib.command.cooldown.Cooldown;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the cooldowns of every offline player in its own small file, keeping only the ids of the players with a file on the heap so
+ * queries about players without stored cooldowns never touch the disk
+ */
+public final class FileColdTier implements ColdTier{
+	private static final int MAGIC = 0x554C4344; //ULCD
+	private static final int VERSION = 1;
+	private static final String EXTENSION = ".cd";
+	private final Path directory;
+	/**
+	 * Players with a file in the directory
+	 */
+	private final Set<UUID> stored = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * @param directory the directory to store the files in, created if missing
+	 * @throws IOException if the directory could not be created or listed
+	 */
+	public FileColdTier(@NotNull Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*" + EXTENSION)){
+			for(Path file : files){
+				String name = file.getFileName().toString();
+				try{
+					stored.add(UUID.fromString(name.substring(0, name.length() - EXTENSION.length())));
+				} catch(IllegalArgumentException e){
+					//not a file of this tier
+				}
+			}
+		}
+	}
+	
+	@Override
+	public void store(@NotNull UUID player, @NotNull Map<String, Cooldown> cooldowns) throws IOException {
+		Path file = file(player);
+		if(cooldowns.isEmpty()){
+			Files.deleteIfExists(file);
+			stored.remove(player);
+			return;
+		}
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))){
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(cooldowns.size());
+			for(Map.Entry<String, Cooldown> entry : cooldowns.entrySet()){
+				out.writeUTF(entry.getKey());
+				out.writeLong(entry.getValue().getStartTime());
+				out.writeLong(entry.getValue().getDuration().toMillis());
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		stored.add(player);
+	}
+	
+	@Override
+	public @Nullable Map<String, Cooldown> load(@NotNull UUID player) throws IOException {
+		if(!stored.contains(player)){
+			return null;
+		}
+		Path file = file(player);
+		Map<String, Cooldown> cooldowns = read(file);
+		if(cooldowns != null){
+			Files.deleteIfExists(file);
+		}
+		stored.remove(player);
+		return cooldowns;
+	}
+	
+	@Override
+	public @Nullable Map<String, Cooldown> peek(@NotNull UUID player) throws IOException {
+		return stored.contains(player) ? read(file(player)) : null;
+	}
+	
+	/**
+	 * @return the amount of players with stored cooldowns
+	 */
+	public int size() {
+		return stored.size();
+	}
+	
+	private Map<String, Cooldown> read(Path file) throws IOException {
+		Map<String, Cooldown> cooldowns = new HashMap<>();
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))){
+			if(in.readInt() != MAGIC || in.readInt() != VERSION){
+				throw new IOException("Invalid cooldown file " + file);
+			}
+			long now = System.currentTimeMillis();
+			int size = in.readInt();
+			for(int i = 0; i < size; i++){
+				String key = in.readUTF();
+				long start = in.readLong();
+				long duration = in.readLong();
+				if(start + duration > now){
+					cooldowns.put(key, new Cooldown(duration, start));
+				}
+			}
+		} catch(NoSuchFileException e){
+			return null;
+		}
+		return cooldowns;
+	}
+	
+	private Path file(UUID player) {
+		return directory.resolve(player + EXTENSION);
+	}
+}
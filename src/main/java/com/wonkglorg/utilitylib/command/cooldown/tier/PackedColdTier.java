@@ -0,0 +1,110 @@
+package com.wonkglorg.utilitylib.command.cooldown.tier;
+
+import com.wonkglorg.utilitylib.command.cooldown.Cooldown;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the cooldowns of every offline player as one packed {@code long[]} of {@code key id, start, duration} triples, about 24 bytes
+ * per cooldown instead of a map entry, a {@link Cooldown} and its {@link java.time.Duration}
+ */
+@ThreadSafe
+public final class PackedColdTier implements ColdTier{
+	private static final int STRIDE = 3;
+	private final Map<UUID, long[]> players = new ConcurrentHashMap<>();
+	private final Map<String, Integer> keyIds = new ConcurrentHashMap<>();
+	private final List<String> keys = new ArrayList<>();
+	
+	@Override
+	public void store(@NotNull UUID player, @NotNull Map<String, Cooldown> cooldowns) {
+		if(cooldowns.isEmpty()){
+			players.remove(player);
+			return;
+		}
+		long[] packed = new long[cooldowns.size() * STRIDE];
+		int index = 0;
+		for(Map.Entry<String, Cooldown> entry : cooldowns.entrySet()){
+			packed[index++] = keyId(entry.getKey());
+			packed[index++] = entry.getValue().getStartTime();
+			packed[index++] = entry.getValue().getDuration().toMillis();
+		}
+		players.put(player, packed);
+	}
+	
+	@Override
+	public @Nullable Map<String, Cooldown> load(@NotNull UUID player) {
+		return unpack(players.remove(player));
+	}
+	
+	@Override
+	public @Nullable Map<String, Cooldown> peek(@NotNull UUID player) {
+		return unpack(players.get(player));
+	}
+	
+	private Map<String, Cooldown> unpack(long[] packed) {
+		if(packed == null){
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		Map<String, Cooldown> cooldowns = new HashMap<>();
+		for(int i = 0; i < packed.length; i += STRIDE){
+			if(packed[i + 1] + packed[i + 2] > now){
+				cooldowns.put(key((int) packed[i]), new Cooldown(packed[i + 2], packed[i + 1]));
+			}
+		}
+		return cooldowns;
+	}
+	
+	/**
+	 * Drops players whose cooldowns all expired
+	 *
+	 * @return the amount of dropped players
+	 */
+	public int purgeExpired() {
+		long now = System.currentTimeMillis();
+		int before = players.size();
+		players.values().removeIf(packed -> {
+			for(int i = 0; i < packed.length; i += STRIDE){
+				if(packed[i + 1] + packed[i + 2] > now){
+					return false;
+				}
+			}
+			return true;
+		});
+		return before - players.size();
+	}
+	
+	/**
+	 * @return the amount of players with stored cooldowns
+	 */
+	public int size() {
+		return players.size();
+	}
+	
+	private int keyId(String key) {
+		Integer id = keyIds.get(key);
+		if(id != null){
+			return id;
+		}
+		synchronized(keys){
+			return keyIds.computeIfAbsent(key, k -> {
+				keys.add(k);
+				return keys.size() - 1;
+			});
+		}
+	}
+	
+	private String key(int id) {
+		synchronized(keys){
+			return keys.get(id);
+		}
+	}
+}
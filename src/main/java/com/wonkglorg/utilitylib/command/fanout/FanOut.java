@@ -0,0 +1,159 @@
+package com.wonkglorg.utilitylib.command.fanout;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Builder spreading the execution of a command over many targets ({@code /heal *}, {@code /reset all}) across several ticks instead of
+ * running everything in one.
+ * <p>
+ * The targets are split into partitions. The read-only part ({@link #prepare(Function)}) of every partition runs in parallel off the main
+ * thread, the mutating part ({@link #apply(BiConsumer)}) runs on the main thread in slices that stay within a time budget per tick.
+ * Partitions are applied as soon as they were prepared, in the order they finish.
+ * <pre>{@code
+ * FanOut.over(Bukkit.getOnlinePlayers())
+ *     .prepare(player -> computeLoot(player))
+ *     .apply((player, loot) -> player.getInventory().addItem(loot))
+ *     .reportTo(sender)
+ *     .start(plugin);
+ * }</pre>
+ *
+ * @param <T> the type of the targets
+ * @param <R> the type of the prepared values
+ */
+public final class FanOut<T, R>{
+	private final List<T> targets;
+	private final Function<? super T, ? extends R> prepare;
+	private BiConsumer<? super T, ? super R> apply = (target, value) -> {};
+	private long budgetNanos = Duration.ofMillis(5).toNanos();
+	private int partitionSize = 64;
+	private Executor executor = ForkJoinPool.commonPool();
+	private CommandSender reportTo;
+	private int reportIntervalTicks = 20;
+	private String name = "Fan-out";
+	
+	private FanOut(List<T> targets, Function<? super T, ? extends R> prepare) {
+		this.targets = targets;
+		this.prepare = prepare;
+	}
+	
+	/**
+	 * @param targets the targets, copied so the collection may change afterwards
+	 * @param <T> the type of the targets
+	 * @return a fan-out over the targets without preparation
+	 */
+	public static <T> FanOut<T, T> over(@NotNull Collection<? extends T> targets) {
+		return new FanOut<>(new ArrayList<>(targets), null);
+	}
+	
+	/**
+	 * Sets the read-only part executed for every target in parallel off the main thread, it must not modify the world or the targets
+	 *
+	 * @param prepare computes the value applied to a target
+	 * @param <V> the type of the prepared values
+	 * @return a fan-out with the preparation, the apply step has to be set afterwards
+	 */
+	public <V> FanOut<T, V> prepare(@NotNull Function<? super T, ? extends V> prepare) {
+		FanOut<T, V> fanOut = new FanOut<>(targets, prepare);
+		fanOut.budgetNanos = budgetNanos;
+		fanOut.partitionSize = partitionSize;
+		fanOut.executor = executor;
+		fanOut.reportTo = reportTo;
+		fanOut.reportIntervalTicks = reportIntervalTicks;
+		fanOut.name = name;
+		return fanOut;
+	}
+	
+	/**
+	 * Sets the mutating part executed for every target on the main thread
+	 *
+	 * @param apply applies the prepared value to a target (the target itself if nothing is prepared)
+	 * @return this fan-out
+	 */
+	public FanOut<T, R> apply(@NotNull BiConsumer<? super T, ? super R> apply) {
+		this.apply = Objects.requireNonNull(apply);
+		return this;
+	}
+	
+	/**
+	 * @param budget the main thread time spent applying per tick (default 5ms), at least one target is applied per tick
+	 * @return this fan-out
+	 */
+	public FanOut<T, R> budget(@NotNull Duration budget) {
+		this.budgetNanos = budget.toNanos();
+		return this;
+	}
+	
+	/**
+	 * @param partitionSize the amount of targets prepared together by one off-thread task (default 64)
+	 * @return this fan-out
+	 */
+	public FanOut<T, R> partitionSize(int partitionSize) {
+		if(partitionSize < 1){
+			throw new IllegalArgumentException("Partition size must be positive");
+		}
+		this.partitionSize = partitionSize;
+		return this;
+	}
+	
+	/**
+	 * @param executor the executor the preparations run on (default the common fork join pool)
+	 * @return this fan-out
+	 */
+	public FanOut<T, R> executor(@NotNull Executor executor) {
+		this.executor = Objects.requireNonNull(executor);
+		return this;
+	}
+	
+	/**
+	 * @param sender the sender to report the progress and completion to
+	 * @param intervalTicks the ticks between progress reports (default 20)
+	 * @return this fan-out
+	 */
+	public FanOut<T, R> reportTo(@Nullable CommandSender sender, int intervalTicks) {
+		this.reportTo = sender;
+		this.reportIntervalTicks = Math.max(1, intervalTicks);
+		return this;
+	}
+	
+	/**
+	 * @param sender the sender to report the progress and completion to, every second
+	 * @return this fan-out
+	 */
+	public FanOut<T, R> reportTo(@Nullable CommandSender sender) {
+		return reportTo(sender, 20);
+	}
+	
+	/**
+	 * @param name the name used in the reports (default "Fan-out")
+	 * @return this fan-out
+	 */
+	public FanOut<T, R> name(@NotNull String name) {
+		this.name = name;
+		return this;
+	}
+	
+	/**
+	 * Starts the preparations and schedules the apply slices, must be called on the main thread
+	 *
+	 * @param plugin the plugin to schedule the slices for
+	 * @return the running fan-out
+	 */
+	public FanOutTask<T, R> start(@NotNull Plugin plugin) {
+		FanOutTask<T, R> task = new FanOutTask<>(name, targets, prepare, apply, budgetNanos, reportTo, reportIntervalTicks);
+		task.start(plugin, executor, partitionSize);
+		return task;
+	}
+}
@@ -0,0 +1,230 @@
+package com.wonkglorg.utilitylib.command.fanout;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A running {@link FanOut}, applies the prepared partitions in budgeted slices once per tick until every target was handled
+ *
+ * @param <T> the type of the targets
+ * @param <R> the type of the prepared values
+ */
+public final class FanOutTask<T, R> implements Runnable{
+	private static final Logger LOGGER = Logger.getLogger(FanOutTask.class.getName());
+	private final String name;
+	private final List<T> targets;
+	private final Function<? super T, ? extends R> prepare;
+	private final BiConsumer<? super T, ? super R> apply;
+	private final long budgetNanos;
+	private final CommandSender reportTo;
+	private final int reportIntervalTicks;
+	/**
+	 * Partitions whose preparation finished, in the order they finished
+	 */
+	private final Queue<Partition<R>> prepared = new ConcurrentLinkedQueue<>();
+	private final CompletableFuture<FanOutTask<T, R>> completion = new CompletableFuture<>();
+	private BukkitTask task;
+	private Partition<R> current;
+	private int position;
+	private volatile int applied;
+	private volatile int failures;
+	private volatile int ticks;
+	private volatile boolean cancelled;
+	
+	FanOutTask(String name,
+			   List<T> targets,
+			   Function<? super T, ? extends R> prepare,
+			   BiConsumer<? super T, ? super R> apply,
+			   long budgetNanos,
+			   CommandSender reportTo,
+			   int reportIntervalTicks) {
+		this.name = name;
+		this.targets = targets;
+		this.prepare = prepare;
+		this.apply = apply;
+		this.budgetNanos = budgetNanos;
+		this.reportTo = reportTo;
+		this.reportIntervalTicks = reportIntervalTicks;
+	}
+	
+	void start(Plugin plugin, Executor executor, int partitionSize) {
+		for(int from = 0; from < targets.size(); from += partitionSize){
+			int to = Math.min(targets.size(), from + partitionSize);
+			if(prepare == null){
+				prepared.add(new Partition<>(from, to, null));
+				continue;
+			}
+			int start = from;
+			try{
+				executor.execute(() -> prepared.add(prepare(start, to)));
+			} catch(RejectedExecutionException e){
+				prepared.add(prepare(start, to));
+			}
+		}
+		task = Bukkit.getScheduler().runTaskTimer(plugin, this, 0, 1);
+	}
+	
+	/**
+	 * Prepares a partition, a failing target only fails itself, even on errors, as a lost partition would never let the fan-out finish
+	 */
+	@SuppressWarnings("unchecked")
+	private Partition<R> prepare(int from, int to) {
+		Object[] values = new Object[to - from];
+		for(int i = from; i < to; i++){
+			try{
+				values[i - from] = prepare.apply(targets.get(i));
+			} catch(Throwable e){
+				values[i - from] = new Failure(e);
+			}
+		}
+		return new Partition<>(from, to, (R[]) values);
+	}
+	
+	/**
+	 * Applies one budgeted slice, called once per tick on the main thread
+	 */
+	@Override
+	public void run() {
+		if(cancelled){
+			finish();
+			return;
+		}
+		int tick = ++ticks;
+		long deadline = System.nanoTime() + budgetNanos;
+		int applied = this.applied;
+		int failures = this.failures;
+		do{
+			if(current == null || position == current.to){
+				current = prepared.poll();
+				if(current == null){
+					break;
+				}
+				position = current.from;
+			}
+			T target = targets.get(position);
+			Object value = current.values == null ? target : current.values[position - current.from];
+			position++;
+			applied++;
+			if(value instanceof FanOutTask.Failure failure){
+				failures++;
+				log(target, failure.cause);
+				continue;
+			}
+			try{
+				apply(target, value);
+			} catch(Throwable e){
+				failures++;
+				log(target, e);
+			}
+		} while(System.nanoTime() < deadline);
+		this.applied = applied;
+		this.failures = failures;
+		if(applied == targets.size()){
+			finish();
+		} else if(reportTo != null && tick % reportIntervalTicks == 0){
+			reportTo.sendMessage("%s: %d/%d (%d%%)".formatted(name, applied, targets.size(), applied * 100L / targets.size()));
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void apply(T target, Object value) {
+		apply.accept(target, (R) value);
+	}
+	
+	private void log(T target, Throwable cause) {
+		LOGGER.log(Level.WARNING, name + " failed for " + target, cause);
+	}
+	
+	private void finish() {
+		if(task != null){
+			task.cancel();
+		}
+		if(completion.isDone()){
+			return;
+		}
+		if(reportTo != null){
+			if(cancelled){
+				reportTo.sendMessage("%s cancelled after %d/%d targets.".formatted(name, applied, targets.size()));
+			} else {
+				reportTo.sendMessage("%s finished: %d targets in %d ticks%s.".formatted(name,
+						targets.size(),
+						ticks,
+						failures == 0 ? "" : ", " + failures + " failed"));
+			}
+		}
+		completion.complete(this);
+	}
+	
+	/**
+	 * Stops applying at the next tick, preparations already running still finish
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+	
+	/**
+	 * @return completes on the main thread once every target was handled or the fan-out was cancelled
+	 */
+	public CompletableFuture<FanOutTask<T, R>> getCompletion() {
+		return completion;
+	}
+	
+	/**
+	 * @return the amount of targets
+	 */
+	public int getTotal() {
+		return targets.size();
+	}
+	
+	/**
+	 * @return the amount of targets handled so far, including failed ones
+	 */
+	public int getApplied() {
+		return applied;
+	}
+	
+	/**
+	 * @return the amount of targets whose preparation or apply step threw
+	 */
+	public int getFailures() {
+		return failures;
+	}
+	
+	/**
+	 * @return the amount of ticks the fan-out ran for
+	 */
+	public int getTicks() {
+		return ticks;
+	}
+	
+	public boolean isCancelled() {
+		return cancelled;
+	}
+	
+	public boolean isDone() {
+		return completion.isDone();
+	}
+	
+	/**
+	 * Targets {@code from} (inclusive) to {@code to} (exclusive) and their prepared values or null if nothing was prepared
+	 */
+	private record Partition<R>(int from, int to, R[] values){}
+	
+	/**
+	 * Placeholder for a value whose preparation failed
+	 */
+	private record Failure(Throwable cause){}
+}
@@ -0,0 +1,86 @@
+package com.wonkglorg.utilitylib.command.lazy;
+
+import com.wonkglorg.utilitylib.command.Command;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Registers a plugin.yml command with a lightweight executor that only constructs the {@link Command} (and everything it depends on) on
+ * its first invocation or completion, moving the cost out of the plugins enable
+ */
+public final class LazyCommand implements TabExecutor{
+	private final Supplier<? extends Command> factory;
+	private volatile Command instance;
+	
+	private LazyCommand(Supplier<? extends Command> factory) {
+		this.factory = factory;
+	}
+	
+	/**
+	 * Registers a command that is constructed on first use, once constructed it usually registers itself as executor
+	 *
+	 * @param plugin the plugin declaring the command in its plugin.yml
+	 * @param name the name of the command
+	 * @param factory constructs the command
+	 * @return the lazy command or null if the command is missing from the plugin.yml
+	 */
+	public static @Nullable LazyCommand register(@NotNull JavaPlugin plugin, @NotNull String name, @NotNull Supplier<? extends Command> factory) {
+		PluginCommand pluginCommand = plugin.getCommand(name);
+		if(pluginCommand == null){
+			Bukkit.getLogger().log(Level.SEVERE, "Command " + name + " could not be loaded missing plugin.yml implementation!");
+			return null;
+		}
+		LazyCommand command = new LazyCommand(factory);
+		pluginCommand.setExecutor(command);
+		pluginCommand.setTabCompleter(command);
+		return command;
+	}
+	
+	/**
+	 * Gets the command, constructing it on the first call
+	 *
+	 * @return the command
+	 */
+	public Command get() {
+		Command instance = this.instance;
+		if(instance == null){
+			synchronized(this){
+				instance = this.instance;
+				if(instance == null){
+					instance = factory.get();
+					this.instance = instance;
+				}
+			}
+		}
+		return instance;
+	}
+	
+	/**
+	 * @return true if the command was constructed already
+	 */
+	public boolean isLoaded() {
+		return instance != null;
+	}
+	
+	@Override
+	public boolean onCommand(@NotNull CommandSender sender, @NotNull org.bukkit.command.Command command, @NotNull String label, @NotNull String[] args) {
+		return get().onCommand(sender, command, label, args);
+	}
+	
+	@Override
+	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender,
+												@NotNull org.bukkit.command.Command command,
+												@NotNull String label,
+												@NotNull String[] args) {
+		return get().onTabComplete(sender, command, label, args);
+	}
+}
@@ -0,0 +1,66 @@
+package com.wonkglorg.utilitylib.command.lazy;
+
+import com.wonkglorg.utilitylib.command.Command;
+import com.wonkglorg.utilitylib.command.Subcommand;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Lightweight descriptor of a subcommand that is only constructed on its first invocation or completion
+ */
+public final class LazySubcommand{
+	private final String name;
+	private final String permission;
+	private final Function<? super Command, ? extends Subcommand> factory;
+	private volatile Subcommand instance;
+	
+	/**
+	 * @param name the name of the subcommand, matched case insensitive
+	 * @param permission the permission required to see the subcommand in completions or null if none is required
+	 * @param factory constructs the subcommand for the command it is registered in
+	 */
+	public LazySubcommand(@NotNull String name, @Nullable String permission, @NotNull Function<? super Command, ? extends Subcommand> factory) {
+		this.name = name.toLowerCase(Locale.ROOT);
+		this.permission = permission == null || permission.isEmpty() ? null : permission;
+		this.factory = factory;
+	}
+	
+	/**
+	 * Gets the subcommand, constructing and {@link Subcommand#mount(Command, String) mounting} it under its command on the first call
+	 *
+	 * @param parent the command this subcommand is registered in
+	 * @return the subcommand
+	 */
+	public Subcommand get(@NotNull Command parent) {
+		Subcommand instance = this.instance;
+		if(instance == null){
+			synchronized(this){
+				instance = this.instance;
+				if(instance == null){
+					instance = factory.apply(parent);
+					instance.mount(parent, name);
+					this.instance = instance;
+				}
+			}
+		}
+		return instance;
+	}
+	
+	/**
+	 * @return true if the subcommand was constructed already
+	 */
+	public boolean isLoaded() {
+		return instance != null;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public @Nullable String getPermission() {
+		return permission;
+	}
+}
@@ -0,0 +1,75 @@
+package com.wonkglorg.utilitylib.command.lazy;
+
+import com.wonkglorg.utilitylib.command.Command;
+import com.wonkglorg.utilitylib.command.Subcommand;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Reads the subcommand index generated at build time by the
+ * {@link com.wonkglorg.utilitylib.command.processor.SubcommandIndexProcessor} from every {@code @SubCommand} with a parent, so subcommands
+ * can be registered without loading or constructing them.
+ * <p>
+ * Every line of the index is {@code parent|name|permission|binary class name}. Indexed subcommands are constructed through their public
+ * constructor taking the parent {@link Command} or, if they declare none, their public no argument constructor.
+ */
+public final class SubcommandIndex{
+	/**
+	 * Location of the index in the jar
+	 */
+	public static final String RESOURCE = "META-INF/utilitylib/subcommands.idx";
+	
+	private SubcommandIndex() {
+		//Utility class
+	}
+	
+	/**
+	 * Reads the subcommands of a command from the index
+	 *
+	 * @param classLoader the class loader of the plugin
+	 * @param command the name of the command
+	 * @return descriptors of the indexed subcommands
+	 */
+	public static List<LazySubcommand> load(@NotNull ClassLoader classLoader, @NotNull String command) {
+		List<LazySubcommand> subcommands = new ArrayList<>();
+		try{
+			Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+			while(resources.hasMoreElements()){
+				try(BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8))){
+					String line;
+					while((line = reader.readLine()) != null){
+						String[] parts = line.split("\\|", -1);
+						if(parts.length == 4 && parts[0].equalsIgnoreCase(command)){
+							subcommands.add(new LazySubcommand(parts[1], parts[2], parent -> construct(classLoader, parts[3], parent)));
+						}
+					}
+				}
+			}
+		} catch(IOException e){
+			throw new UncheckedIOException("Could not read subcommand index", e);
+		}
+		return subcommands;
+	}
+	
+	private static Subcommand construct(ClassLoader classLoader, String className, Command parent) {
+		try{
+			Class<? extends Subcommand> type = Class.forName(className, true, classLoader).asSubclass(Subcommand.class);
+			try{
+				return type.getConstructor(Command.class).newInstance(parent);
+			} catch(NoSuchMethodException e){
+				return type.getConstructor().newInstance();
+			}
+		} catch(ReflectiveOperationException e){
+			throw new IllegalStateException("Could not construct indexed subcommand " + className, e);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.wonkglorg.utilitylib.command.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the {@link PathMetrics} of every command path.
+ * <p>
+ * Commands look up their metrics once and keep the reference, so recording only costs a few atomic increments. The metrics can be
+ * exported through JMX under {@code com.wonkglorg.utilitylib:type=CommandMetrics,path=...}.
+ */
+public final class CommandMetrics{
+	private static final CommandMetrics GLOBAL = new CommandMetrics("com.wonkglorg.utilitylib");
+	private static final Logger LOGGER = Logger.getLogger(CommandMetrics.class.getName());
+	
+	private final String domain;
+	private final Map<String, PathMetrics> paths = new ConcurrentHashMap<>();
+	private volatile boolean jmx;
+	
+	/**
+	 * @param domain the jmx domain to register the metrics under
+	 */
+	public CommandMetrics(@NotNull String domain) {
+		this.domain = domain;
+	}
+	
+	/**
+	 * @return the registry used by all commands
+	 */
+	public static CommandMetrics global() {
+		return GLOBAL;
+	}
+	
+	/**
+	 * Gets or creates the metrics of a command path
+	 *
+	 * @param path the path (case-insensitive)
+	 * @return the metrics of this path
+	 */
+	public PathMetrics path(@NotNull String path) {
+		String key = path.toLowerCase(Locale.ROOT);
+		PathMetrics metrics = paths.get(key);
+		if(metrics != null){
+			return metrics;
+		}
+		metrics = paths.computeIfAbsent(key, PathMetrics::new);
+		if(jmx){
+			register(metrics);
+		}
+		return metrics;
+	}
+	
+	/**
+	 * @return all paths that have metrics
+	 */
+	public Collection<PathMetrics> getPaths() {
+		return Collections.unmodifiableCollection(paths.values());
+	}
+	
+	/**
+	 * @return all metrics sorted by their 99th percentile execution latency, slowest first
+	 */
+	public List<PathMetrics> getSlowest() {
+		List<PathMetrics> list = new ArrayList<>(paths.values());
+		//snapshot the percentiles first, live values changing during the sort would break its contract
+		Map<PathMetrics, Long> slowest = new IdentityHashMap<>(list.size());
+		for(PathMetrics metrics : list){
+			slowest.put(metrics, metrics.getExecuteLatency().getValueAtPercentile(99));
+		}
+		list.sort((a, b) -> Long.compare(slowest.get(b), slowest.get(a)));
+		return list;
+	}
+	
+	/**
+	 * Resets the metrics of every path
+	 */
+	public void reset() {
+		paths.values().forEach(PathMetrics::reset);
+	}
+	
+	/**
+	 * Exports all current and future paths through JMX
+	 */
+	public synchronized void enableJmx() {
+		if(jmx){
+			return;
+		}
+		jmx = true;
+		paths.values().forEach(this::register);
+	}
+	
+	/**
+	 * Removes all paths from JMX
+	 */
+	public synchronized void disableJmx() {
+		if(!jmx){
+			return;
+		}
+		jmx = false;
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for(PathMetrics metrics : paths.values()){
+			try{
+				ObjectName name = objectName(metrics);
+				if(server.isRegistered(name)){
+					server.unregisterMBean(name);
+				}
+			} catch(JMException e){
+				LOGGER.log(Level.WARNING, "Could not unregister metrics of " + metrics.getPath(), e);
+			}
+		}
+	}
+	
+	private void register(PathMetrics metrics) {
+		try{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName(metrics));
+		} catch(InstanceAlreadyExistsException ignored){
+			//registered by another registration race or an older instance of the plugin
+		} catch(JMException e){
+			LOGGER.log(Level.WARNING, "Could not register metrics of " + metrics.getPath(), e);
+		}
+	}
+	
+	private ObjectName objectName(PathMetrics metrics) throws JMException {
+		return new ObjectName(domain + ":type=CommandMetrics,path=" + ObjectName.quote(metrics.getPath()));
+	}
+}
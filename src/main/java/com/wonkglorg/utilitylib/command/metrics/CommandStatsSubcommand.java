@@ -0,0 +1,67 @@
+package com.wonkglorg.utilitylib.command.metrics;
+
+import com.wonkglorg.utilitylib.command.Subcommand;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Subcommand showing the slowest command paths of a {@link CommandMetrics} registry, can be mounted under any admin command.
+ * <p>
+ * Usage: {@code <parent> [amount]} or {@code <parent> reset}
+ */
+public class CommandStatsSubcommand extends Subcommand{
+	private final CommandMetrics metrics;
+	
+	/**
+	 * @param index The index of the argument in the command
+	 * @param metrics the registry to show
+	 */
+	public CommandStatsSubcommand(int index, CommandMetrics metrics) {
+		super(index);
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * @param index The index of the argument in the command
+	 */
+	public CommandStatsSubcommand(int index) {
+		this(index, CommandMetrics.global());
+	}
+	
+	@Override
+	protected boolean execute(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if(compareString(argAsString(0), "reset")){
+			metrics.reset();
+			sender.sendMessage("Command metrics have been reset.");
+			return true;
+		}
+		int amount = argAsInteger(0, 10);
+		List<PathMetrics> slowest = metrics.getSlowest();
+		sender.sendMessage("Slowest commands (p50 / p99 / max in µs):");
+		for(int i = 0; i < Math.min(amount, slowest.size()); i++){
+			PathMetrics path = slowest.get(i);
+			sender.sendMessage("%s: %d calls, %d / %d / %d, %d failed, %d rejected, %d errors, %d ms cpu".formatted(path.getPath(),
+					path.getInvocations(),
+					path.getExecuteP50Micros(),
+					path.getExecuteP99Micros(),
+					path.getExecuteMaxMicros(),
+					path.getFailures(),
+					path.getRejections(),
+					path.getErrors(),
+					path.getCpuTotalMillis()));
+		}
+		return true;
+	}
+	
+	@Override
+	protected List<String> tabComplete(@NotNull Player player, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if(argCount() == 1){
+			return matchArg(argAsString(0), List.of("reset", "5", "10", "25"));
+		}
+		return List.of();
+	}
+}
@@ -0,0 +1,122 @@
+package com.wonkglorg.utilitylib.command.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free log-linear latency histogram (HDR style) in nanoseconds.
+ * <p>
+ * Every power of 2 is split into 16 linear sub buckets, giving a relative error of at most 6.25% over the whole long range with a fixed
+ * size of 960 buckets. Recording a value is a single array increment.
+ */
+public final class LatencyHistogram{
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder total = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+	
+	/**
+	 * Records a single value
+	 *
+	 * @param nanos the value in nanoseconds, negative values are recorded as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucket(value));
+		total.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+	
+	/**
+	 * @return the amount of recorded values
+	 */
+	public long getCount() {
+		return total.sum();
+	}
+	
+	/**
+	 * @return the sum of all recorded values in nanoseconds
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+	
+	/**
+	 * @return the highest recorded value in nanoseconds
+	 */
+	public long getMax() {
+		return max.get();
+	}
+	
+	/**
+	 * @return the mean of all recorded values in nanoseconds
+	 */
+	public double getMean() {
+		long count = total.sum();
+		return count == 0 ? 0 : (double) sum.sum() / count;
+	}
+	
+	/**
+	 * Gets the value at a percentile, the result is the upper bound of the bucket the percentile falls into
+	 *
+	 * @param percentile the percentile from 0 to 100
+	 * @return the value in nanoseconds or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for(int i = 0; i < BUCKETS; i++){
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if(count == 0){
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++){
+			seen += snapshot[i];
+			if(seen >= target){
+				return Math.min(upperBound(i), getMax());
+			}
+		}
+		return getMax();
+	}
+	
+	/**
+	 * Clears all recorded values, values recorded concurrently may partially survive
+	 */
+	public void reset() {
+		for(int i = 0; i < BUCKETS; i++){
+			counts.set(i, 0);
+		}
+		total.reset();
+		sum.reset();
+		max.reset();
+	}
+	
+	static int bucket(long value) {
+		if(value < SUB_BUCKETS){
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+	
+	static long upperBound(int bucket) {
+		if(bucket < SUB_BUCKETS){
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+		return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,183 @@
+package com.wonkglorg.utilitylib.command.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of a single command path (for example {@code /shop} or {@code /shop buy})
+ */
+public final class PathMetrics implements PathMetricsMXBean{
+	private final String path;
+	private final LongAdder invocations = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder rejections = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LatencyHistogram executeLatency = new LatencyHistogram();
+	private final LatencyHistogram completeLatency = new LatencyHistogram();
+	private final LatencyHistogram cpuTime = new LatencyHistogram();
+	
+	PathMetrics(String path) {
+		this.path = path;
+	}
+	
+	/**
+	 * Records a finished execution
+	 *
+	 * @param nanos how long the execution took
+	 */
+	public void recordExecution(long nanos) {
+		invocations.increment();
+		executeLatency.record(nanos);
+	}
+	
+	/**
+	 * Records a finished tab completion
+	 *
+	 * @param nanos how long the completion took
+	 */
+	public void recordCompletion(long nanos) {
+		completeLatency.record(nanos);
+	}
+	
+	/**
+	 * Records the cpu time of a finished execution, only measured for commands with a {@link com.wonkglorg.utilitylib.command.quota.CpuQuota}
+	 *
+	 * @param nanos the cpu time the execution used
+	 */
+	public void recordCpuTime(long nanos) {
+		cpuTime.record(nanos);
+	}
+	
+	/**
+	 * Records an execution that returned false (wrong usage)
+	 */
+	public void fail() {
+		failures.increment();
+	}
+	
+	/**
+	 * Records an invocation that was rejected before the command was executed
+	 */
+	public void reject() {
+		rejections.increment();
+	}
+	
+	/**
+	 * Records an execution that threw an exception
+	 */
+	public void error() {
+		errors.increment();
+	}
+	
+	public LatencyHistogram getExecuteLatency() {
+		return executeLatency;
+	}
+	
+	public LatencyHistogram getCompleteLatency() {
+		return completeLatency;
+	}
+	
+	public LatencyHistogram getCpuTime() {
+		return cpuTime;
+	}
+	
+	@Override
+	public String getPath() {
+		return path;
+	}
+	
+	@Override
+	public long getInvocations() {
+		return invocations.sum();
+	}
+	
+	@Override
+	public long getFailures() {
+		return failures.sum();
+	}
+	
+	@Override
+	public long getRejections() {
+		return rejections.sum();
+	}
+	
+	@Override
+	public long getErrors() {
+		return errors.sum();
+	}
+	
+	@Override
+	public double getExecuteMeanMicros() {
+		return executeLatency.getMean() / 1000;
+	}
+	
+	@Override
+	public long getExecuteP50Micros() {
+		return executeLatency.getValueAtPercentile(50) / 1000;
+	}
+	
+	@Override
+	public long getExecuteP99Micros() {
+		return executeLatency.getValueAtPercentile(99) / 1000;
+	}
+	
+	@Override
+	public long getExecuteP999Micros() {
+		return executeLatency.getValueAtPercentile(99.9) / 1000;
+	}
+	
+	@Override
+	public long getExecuteMaxMicros() {
+		return executeLatency.getMax() / 1000;
+	}
+	
+	@Override
+	public long getCompletions() {
+		return completeLatency.getCount();
+	}
+	
+	@Override
+	public long getCompleteP50Micros() {
+		return completeLatency.getValueAtPercentile(50) / 1000;
+	}
+	
+	@Override
+	public long getCompleteP99Micros() {
+		return completeLatency.getValueAtPercentile(99) / 1000;
+	}
+	
+	@Override
+	public long getCompleteMaxMicros() {
+		return completeLatency.getMax() / 1000;
+	}
+	
+	@Override
+	public double getCpuMeanMicros() {
+		return cpuTime.getMean() / 1000;
+	}
+	
+	@Override
+	public long getCpuP99Micros() {
+		return cpuTime.getValueAtPercentile(99) / 1000;
+	}
+	
+	@Override
+	public long getCpuTotalMillis() {
+		return cpuTime.getSum() / 1_000_000;
+	}
+	
+	@Override
+	public void reset() {
+		invocations.reset();
+		failures.reset();
+		rejections.reset();
+		errors.reset();
+		executeLatency.reset();
+		completeLatency.reset();
+		cpuTime.reset();
+	}
+	
+	@Override
+	public String toString() {
+		return "PathMetrics{" + "path=" + path + ", invocations=" + getInvocations() + ", p99=" + getExecuteP99Micros() + "us}";
+	}
+}
@@ -0,0 +1,43 @@
+package com.wonkglorg.utilitylib.command.metrics;
+
+/**
+ * JMX view of the {@link PathMetrics} of a single command path, latencies are in microseconds
+ */
+public interface PathMetricsMXBean{
+	
+	String getPath();
+	
+	long getInvocations();
+	
+	long getFailures();
+	
+	long getRejections();
+	
+	long getErrors();
+	
+	double getExecuteMeanMicros();
+	
+	long getExecuteP50Micros();
+	
+	long getExecuteP99Micros();
+	
+	long getExecuteP999Micros();
+	
+	long getExecuteMaxMicros();
+	
+	long getCompletions();
+	
+	long getCompleteP50Micros();
+	
+	long getCompleteP99Micros();
+	
+	long getCompleteMaxMicros();
+	
+	double getCpuMeanMicros();
+	
+	long getCpuP99Micros();
+	
+	long getCpuTotalMillis();
+	
+	void reset();
+}
@@ -0,0 +1,238 @@
+package com.wonkglorg.utilitylib.command.parse;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Single pass tokenizer for command input.
+ * <p>
+ * Supports
+ * <ul>
+ *     <li>Whitespace separated arguments</li>
+ *     <li>Quoted arguments using {@code "} or {@code '}, a quote that is never closed extends to the end of the input</li>
+ *     <li>Escaping any character with {@code \}</li>
+ *     <li>Long options {@code --name}, {@code --name=value} and {@code --name value}</li>
+ *     <li>Short options {@code -n}, {@code -n value}, {@code -nvalue} and combined flags {@code -abc}</li>
+ *     <li>{@code --} to treat everything after it as positional arguments</li>
+ * </ul>
+ * Options are only recognized if they are part of the given {@link OptionSchema}, anything else (for example negative numbers) is kept
+ * as a positional argument.
+ */
+public final class CommandTokenizer{
+	
+	private CommandTokenizer() {
+		//Utility class
+	}
+	
+	/**
+	 * Tokenizes the input into a new view
+	 *
+	 * @param input the raw input
+	 * @param schema the options to recognize or null to treat everything as positional arguments
+	 * @return the view over the input
+	 */
+	public static TokenView tokenize(@NotNull CharSequence input, @Nullable OptionSchema schema) {
+		return tokenize(input, schema, new TokenView());
+	}
+	
+	/**
+	 * Tokenizes bukkit style pre split arguments, they are joined once so quoted arguments can span multiple of them
+	 *
+	 * @param args the arguments
+	 * @param offset the index of the first argument to include
+	 * @param schema the options to recognize or null to treat everything as positional arguments
+	 * @param view the view to reuse
+	 * @return the given view
+	 */
+	public static TokenView tokenize(@NotNull String[] args, int offset, @Nullable OptionSchema schema, @NotNull TokenView view) {
+		if(offset >= args.length){
+			return tokenize("", schema, view);
+		}
+		if(offset == args.length - 1){
+			return tokenize(args[offset], schema, view);
+		}
+		int length = args.length - offset - 1;
+		for(int i = offset; i < args.length; i++){
+			length += args[i].length();
+		}
+		StringBuilder builder = new StringBuilder(length);
+		for(int i = offset; i < args.length; i++){
+			if(i > offset){
+				builder.append(' ');
+			}
+			builder.append(args[i]);
+		}
+		return tokenize(builder.toString(), schema, view);
+	}
+	
+	/**
+	 * Tokenizes the input into the given view, replacing its previous content
+	 *
+	 * @param input the raw input
+	 * @param schema the options to recognize or null to treat everything as positional arguments
+	 * @param view the view to reuse
+	 * @return the given view
+	 */
+	public static TokenView tokenize(@NotNull CharSequence input, @Nullable OptionSchema schema, @NotNull TokenView view) {
+		view.reset(input, schema);
+		int length = input.length();
+		boolean optionsEnded = schema == null;
+		int i = 0;
+		while(true){
+			i = skipWhitespace(input, i);
+			if(i >= length){
+				return view;
+			}
+			if(!optionsEnded && input.charAt(i) == '-' && i + 1 < length){
+				char next = input.charAt(i + 1);
+				if(next == '-'){
+					if(i + 2 == length || Character.isWhitespace(input.charAt(i + 2))){
+						optionsEnded = true;
+						i += 2;
+						continue;
+					}
+					int parsed = parseLongOption(input, i, schema, view);
+					if(parsed >= 0){
+						i = parsed;
+						continue;
+					}
+				} else if(!Character.isWhitespace(next) && !Character.isDigit(next) && next != '.'){
+					int parsed = parseShortOptions(input, i, schema, view);
+					if(parsed >= 0){
+						i = parsed;
+						continue;
+					}
+				}
+			}
+			i = readToken(input, i, view);
+			view.addPositional(view.lastToken());
+		}
+	}
+	
+	/**
+	 * @return the index after the option or -1 if it is not a known option
+	 */
+	private static int parseLongOption(CharSequence input, int i, OptionSchema schema, TokenView view) {
+		int length = input.length();
+		int nameStart = i + 2;
+		int nameEnd = nameStart;
+		while(nameEnd < length && input.charAt(nameEnd) != '=' && !Character.isWhitespace(input.charAt(nameEnd))){
+			nameEnd++;
+		}
+		OptionSchema.Option option = schema.find(input, nameStart, nameEnd);
+		if(option == null){
+			return -1;
+		}
+		return readOptionValue(input, nameEnd, option, view);
+	}
+	
+	/**
+	 * @return the index after the options or -1 if the first character is not a known option
+	 */
+	private static int parseShortOptions(CharSequence input, int i, OptionSchema schema, TokenView view) {
+		int length = input.length();
+		int j = i + 1;
+		if(schema.find(input.charAt(j)) == null){
+			return -1;
+		}
+		while(j < length){
+			char c = input.charAt(j);
+			if(Character.isWhitespace(c)){
+				return j;
+			}
+			OptionSchema.Option option = schema.find(c);
+			if(option == null){
+				//unknown flag in the middle of a group, ignore the rest of it
+				while(j < length && !Character.isWhitespace(input.charAt(j))){
+					j++;
+				}
+				return j;
+			}
+			j++;
+			if(option.takesValue()){
+				if(j < length && input.charAt(j) != '=' && !Character.isWhitespace(input.charAt(j))){
+					//-r5
+					j = readToken(input, j, view);
+					view.setOption(option, view.lastToken());
+					return j;
+				}
+				return readOptionValue(input, j, option, view);
+			}
+			view.setFlag(option);
+		}
+		return j;
+	}
+	
+	/**
+	 * Reads the value of an option starting directly after its name
+	 */
+	private static int readOptionValue(CharSequence input, int i, OptionSchema.Option option, TokenView view) {
+		int length = input.length();
+		if(i < length && input.charAt(i) == '='){
+			i = readToken(input, i + 1, view);
+			view.setOption(option, view.lastToken());
+			return i;
+		}
+		if(!option.takesValue()){
+			view.setFlag(option);
+			return i;
+		}
+		int valueStart = skipWhitespace(input, i);
+		if(valueStart >= length){
+			view.setFlag(option);
+			return valueStart;
+		}
+		i = readToken(input, valueStart, view);
+		view.setOption(option, view.lastToken());
+		return i;
+	}
+	
+	/**
+	 * Reads a single (possibly quoted) token and adds it to the views pool
+	 *
+	 * @return the index after the token
+	 */
+	private static int readToken(CharSequence input, int i, TokenView view) {
+		int length = input.length();
+		byte flag = 0;
+		if(i < length && (input.charAt(i) == '"' || input.charAt(i) == '\'')){
+			char quote = input.charAt(i);
+			int start = i + 1;
+			for(int j = start; j < length; j++){
+				char c = input.charAt(j);
+				if(c == '\\'){
+					flag |= TokenView.ESCAPED;
+					j++;
+				} else if(c == quote){
+					view.addToken(start, j, (byte) (flag | TokenView.QUOTED));
+					return j + 1;
+				}
+			}
+			view.addToken(start, length, (byte) (flag | TokenView.QUOTED | TokenView.UNTERMINATED));
+			return length;
+		}
+		int start = i;
+		while(i < length){
+			char c = input.charAt(i);
+			if(Character.isWhitespace(c)){
+				break;
+			}
+			if(c == '\\'){
+				flag |= TokenView.ESCAPED;
+				i++;
+			}
+			i++;
+		}
+		i = Math.min(i, length);
+		view.addToken(start, i, flag);
+		return i;
+	}
+	
+	private static int skipWhitespace(CharSequence input, int i) {
+		int length = input.length();
+		while(i < length && Character.isWhitespace(input.charAt(i))){
+			i++;
+		}
+		return i;
+	}
+}
@@ -0,0 +1,227 @@
+package com.wonkglorg.utilitylib.command.parse;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The options a command accepts ({@code --name}, {@code --name=value}, {@code -n value}, {@code -abc}), compiled once per command so the
+ * {@link CommandTokenizer} can match option names directly against the input without creating any intermediate strings.
+ * <p>
+ * Should be created once and kept in a static field, for example:
+ * <pre>{@code
+ * private static final OptionSchema OPTIONS = OptionSchema.builder().flag("force", 'f').option("radius", 'r').build();
+ * }</pre>
+ */
+public final class OptionSchema{
+	private final Option[] options;
+	/**
+	 * Open addressing table of all long names, sized to a power of 2
+	 */
+	private final Option[] table;
+	/**
+	 * Short names indexed by their ascii value
+	 */
+	private final Option[] shortNames = new Option[128];
+	
+	private OptionSchema(List<Option> options) {
+		this.options = options.toArray(new Option[0]);
+		int size = Integer.highestOneBit(Math.max(2, this.options.length * 2) - 1) << 1;
+		this.table = new Option[size];
+		for(Option option : this.options){
+			int slot = hash(option.name, 0, option.name.length()) & (size - 1);
+			while(table[slot] != null){
+				if(table[slot].name.equals(option.name)){
+					throw new IllegalArgumentException("Duplicate option --" + option.name + "!");
+				}
+				slot = (slot + 1) & (size - 1);
+			}
+			table[slot] = option;
+			if(option.shortName != 0){
+				if(shortNames[option.shortName] != null){
+					throw new IllegalArgumentException("Duplicate option -" + option.shortName + "!");
+				}
+				shortNames[option.shortName] = option;
+			}
+		}
+	}
+	
+	/**
+	 * @return a new builder to define the options of a command
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	/**
+	 * Gets an option by its long name
+	 *
+	 * @param name the name without leading dashes (case-insensitive)
+	 * @return the option or null if no option with this name exists
+	 */
+	public @Nullable Option option(@NotNull String name) {
+		return find(name, 0, name.length());
+	}
+	
+	/**
+	 * @return the amount of options in this schema
+	 */
+	public int size() {
+		return options.length;
+	}
+	
+	/**
+	 * Looks up an option by a region of the input without copying it
+	 */
+	@Nullable
+	Option find(CharSequence input, int start, int end) {
+		int mask = table.length - 1;
+		int slot = hash(input, start, end) & mask;
+		Option option;
+		while((option = table[slot]) != null){
+			if(option.matches(input, start, end)){
+				return option;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+	
+	@Nullable
+	Option find(char shortName) {
+		return shortName < 128 ? shortNames[shortName] : null;
+	}
+	
+	private static int hash(CharSequence input, int start, int end) {
+		int hash = 0;
+		for(int i = start; i < end; i++){
+			hash = 31 * hash + Character.toLowerCase(input.charAt(i));
+		}
+		return hash ^ (hash >>> 16);
+	}
+	
+	/**
+	 * A single option of a {@link OptionSchema}, used as the handle to read its value from a {@link TokenView}
+	 */
+	public static final class Option{
+		private final String name;
+		private final char shortName;
+		private final boolean takesValue;
+		private final int id;
+		
+		private Option(String name, char shortName, boolean takesValue, int id) {
+			this.name = name;
+			this.shortName = shortName;
+			this.takesValue = takesValue;
+			this.id = id;
+		}
+		
+		/**
+		 * @return the long name of this option without leading dashes
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * @return the short name or 0 if this option has none
+		 */
+		public char getShortName() {
+			return shortName;
+		}
+		
+		/**
+		 * @return true if this option expects a value, false if it is a simple flag
+		 */
+		public boolean takesValue() {
+			return takesValue;
+		}
+		
+		int id() {
+			return id;
+		}
+		
+		private boolean matches(CharSequence input, int start, int end) {
+			if(end - start != name.length()){
+				return false;
+			}
+			for(int i = start; i < end; i++){
+				if(Character.toLowerCase(input.charAt(i)) != name.charAt(i - start)){
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		public String toString() {
+			return "--" + name;
+		}
+	}
+	
+	public static final class Builder{
+		private final List<Option> options = new ArrayList<>();
+		
+		private Builder() {
+		}
+		
+		/**
+		 * Adds a flag that does not take a value ({@code --name})
+		 *
+		 * @param name the name without leading dashes
+		 */
+		public Builder flag(@NotNull String name) {
+			return add(name, (char) 0, false);
+		}
+		
+		/**
+		 * Adds a flag that does not take a value ({@code --name} or {@code -n})
+		 *
+		 * @param name the name without leading dashes
+		 * @param shortName the single character short name
+		 */
+		public Builder flag(@NotNull String name, char shortName) {
+			return add(name, shortName, false);
+		}
+		
+		/**
+		 * Adds an option that takes a value ({@code --name value} or {@code --name=value})
+		 *
+		 * @param name the name without leading dashes
+		 */
+		public Builder option(@NotNull String name) {
+			return add(name, (char) 0, true);
+		}
+		
+		/**
+		 * Adds an option that takes a value ({@code --name value}, {@code --name=value} or {@code -n value})
+		 *
+		 * @param name the name without leading dashes
+		 * @param shortName the single character short name
+		 */
+		public Builder option(@NotNull String name, char shortName) {
+			return add(name, shortName, true);
+		}
+		
+		/**
+		 * @return the compiled schema
+		 */
+		public OptionSchema build() {
+			return new OptionSchema(options);
+		}
+		
+		private Builder add(String name, char shortName, boolean takesValue) {
+			if(name.isEmpty()){
+				throw new IllegalArgumentException("Option name cannot be empty!");
+			}
+			if(shortName >= 128 || shortName != 0 && (Character.isDigit(shortName) || Character.isWhitespace(shortName))){
+				throw new IllegalArgumentException("Invalid short name '" + shortName + "' for option " + name + "!");
+			}
+			options.add(new Option(name.toLowerCase(Locale.ROOT), shortName, takesValue, options.size()));
+			return this;
+		}
+	}
+}
@@ -0,0 +1,338 @@
+package com.wonkglorg.utilitylib.command.parse;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * An offset / length view over tokenized command input created by the {@link CommandTokenizer}.
+ * <p>
+ * Tokens are only turned into strings when explicitly requested with {@link #get(int)}, comparisons and number parsing read the
+ * characters of the original input directly. A view can be reused for any amount of inputs, its arrays only grow when needed.
+ */
+public final class TokenView{
+	static final byte QUOTED = 1;
+	static final byte ESCAPED = 2;
+	static final byte UNTERMINATED = 4;
+	
+	private static final int ABSENT = -1;
+	private static final int PRESENT = -2;
+	
+	private CharSequence input = "";
+	/**
+	 * Pool of all tokens (positional arguments and option values)
+	 */
+	private int[] starts = new int[8];
+	private int[] ends = new int[8];
+	private byte[] flags = new byte[8];
+	private int poolSize;
+	/**
+	 * Pool indices of the positional arguments
+	 */
+	private int[] positional = new int[8];
+	private int size;
+	/**
+	 * Pool index of an options value indexed by the option id, or {@link #ABSENT} / {@link #PRESENT}
+	 */
+	private int[] options = new int[0];
+	private OptionSchema schema;
+	
+	/**
+	 * @return the input this view was created from
+	 */
+	public CharSequence input() {
+		return input;
+	}
+	
+	/**
+	 * @return the amount of positional tokens
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Gets a positional token as string, this is the only method that copies the token
+	 *
+	 * @param index the index of the positional token
+	 * @return the token with quotes and escapes removed or null if no token exists at this index
+	 */
+	public @Nullable String get(int index) {
+		return index < 0 || index >= size ? null : materialize(positional[index]);
+	}
+	
+	/**
+	 * @param index the index of the positional token
+	 * @return the start offset of the token in the input (excluding quotes)
+	 */
+	public int start(int index) {
+		return starts[checkIndex(index)];
+	}
+	
+	/**
+	 * @param index the index of the positional token
+	 * @return the end offset (exclusive) of the token in the input (excluding quotes)
+	 */
+	public int end(int index) {
+		return ends[checkIndex(index)];
+	}
+	
+	/**
+	 * @param index the index of the positional token
+	 * @return true if the token was quoted
+	 */
+	public boolean isQuoted(int index) {
+		return (flags[checkIndex(index)] & QUOTED) != 0;
+	}
+	
+	/**
+	 * @param index the index of the positional token
+	 * @return true if the token is a quoted string that was never closed (usually because the player is still typing it)
+	 */
+	public boolean isUnterminated(int index) {
+		return (flags[checkIndex(index)] & UNTERMINATED) != 0;
+	}
+	
+	/**
+	 * Compares a positional token with a string without copying the token. Does not check capital letters
+	 *
+	 * @param index the index of the positional token
+	 * @param value the value to compare to
+	 * @return true if they are equal, false if they are not or no token exists at this index
+	 */
+	public boolean equalsIgnoreCase(int index, @NotNull String value) {
+		if(index < 0 || index >= size){
+			return false;
+		}
+		int token = positional[index];
+		if((flags[token] & ESCAPED) != 0){
+			return value.equalsIgnoreCase(materialize(token));
+		}
+		int start = starts[token];
+		int length = ends[token] - start;
+		if(length != value.length()){
+			return false;
+		}
+		for(int i = 0; i < length; i++){
+			char a = input.charAt(start + i);
+			char b = value.charAt(i);
+			if(a != b && Character.toLowerCase(a) != Character.toLowerCase(b)){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @param index the index of the positional token
+	 * @param defaultValue the value to return if the token is missing or not a valid integer
+	 * @return the token as integer
+	 */
+	public int getInt(int index, int defaultValue) {
+		if(index < 0 || index >= size){
+			return defaultValue;
+		}
+		long value = parseLong(positional[index], Integer.MIN_VALUE, Integer.MAX_VALUE);
+		return value == Long.MIN_VALUE ? defaultValue : (int) value;
+	}
+	
+	/**
+	 * @param index the index of the positional token
+	 * @param defaultValue the value to return if the token is missing or not a valid long
+	 * @return the token as long
+	 */
+	public long getLong(int index, long defaultValue) {
+		if(index < 0 || index >= size){
+			return defaultValue;
+		}
+		long value = parseLong(positional[index], Long.MIN_VALUE + 1, Long.MAX_VALUE);
+		return value == Long.MIN_VALUE ? defaultValue : value;
+	}
+	
+	/**
+	 * @param index the index of the positional token
+	 * @param defaultValue the value to return if the token is missing or not a valid double
+	 * @return the token as double (accepts , as decimal separator)
+	 */
+	public double getDouble(int index, double defaultValue) {
+		return index < 0 || index >= size ? defaultValue : parseDouble(positional[index], defaultValue);
+	}
+	
+	/**
+	 * @param option the option to check
+	 * @return true if the option was given, with or without a value
+	 */
+	public boolean has(@NotNull OptionSchema.Option option) {
+		return optionSlot(option) != ABSENT;
+	}
+	
+	/**
+	 * @param option the option to get
+	 * @return the value of the option or null if it was not given or given without a value
+	 */
+	public @Nullable String value(@NotNull OptionSchema.Option option) {
+		int slot = optionSlot(option);
+		return slot < 0 ? null : materialize(slot);
+	}
+	
+	/**
+	 * @param option the option to get
+	 * @param defaultValue the value to return if the option is missing or not a valid integer
+	 * @return the value of the option as integer
+	 */
+	public int intValue(@NotNull OptionSchema.Option option, int defaultValue) {
+		int slot = optionSlot(option);
+		if(slot < 0){
+			return defaultValue;
+		}
+		long value = parseLong(slot, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		return value == Long.MIN_VALUE ? defaultValue : (int) value;
+	}
+	
+	/**
+	 * @param option the option to get
+	 * @param defaultValue the value to return if the option is missing or not a valid double
+	 * @return the value of the option as double (accepts , as decimal separator)
+	 */
+	public double doubleValue(@NotNull OptionSchema.Option option, double defaultValue) {
+		int slot = optionSlot(option);
+		return slot < 0 ? defaultValue : parseDouble(slot, defaultValue);
+	}
+	
+	/**
+	 * @return the schema the options were parsed with or null if options were not parsed
+	 */
+	public @Nullable OptionSchema schema() {
+		return schema;
+	}
+	
+	//----------------------------------- Tokenizer access -----------------------------------
+	
+	void reset(CharSequence input, OptionSchema schema) {
+		this.input = input;
+		this.schema = schema;
+		this.poolSize = 0;
+		this.size = 0;
+		int optionCount = schema == null ? 0 : schema.size();
+		if(options.length < optionCount){
+			options = new int[optionCount];
+		}
+		Arrays.fill(options, ABSENT);
+	}
+	
+	int addToken(int start, int end, byte flag) {
+		if(poolSize == starts.length){
+			int length = poolSize * 2;
+			starts = Arrays.copyOf(starts, length);
+			ends = Arrays.copyOf(ends, length);
+			flags = Arrays.copyOf(flags, length);
+		}
+		starts[poolSize] = start;
+		ends[poolSize] = end;
+		flags[poolSize] = flag;
+		return poolSize++;
+	}
+	
+	int lastToken() {
+		return poolSize - 1;
+	}
+	
+	void addPositional(int token) {
+		if(size == positional.length){
+			positional = Arrays.copyOf(positional, size * 2);
+		}
+		positional[size++] = token;
+	}
+	
+	void setOption(OptionSchema.Option option, int token) {
+		options[option.id()] = token;
+	}
+	
+	void setFlag(OptionSchema.Option option) {
+		options[option.id()] = PRESENT;
+	}
+	
+	//----------------------------------- Helpers -----------------------------------
+	
+	private int checkIndex(int index) {
+		if(index < 0 || index >= size){
+			throw new IndexOutOfBoundsException("Token " + index + " out of bounds for " + size + " tokens");
+		}
+		return positional[index];
+	}
+	
+	private int optionSlot(OptionSchema.Option option) {
+		if(schema == null || option.id() >= options.length){
+			return ABSENT;
+		}
+		return options[option.id()];
+	}
+	
+	private String materialize(int token) {
+		int start = starts[token];
+		int end = ends[token];
+		if((flags[token] & ESCAPED) == 0){
+			return input.subSequence(start, end).toString();
+		}
+		StringBuilder builder = new StringBuilder(end - start);
+		for(int i = start; i < end; i++){
+			char c = input.charAt(i);
+			if(c == '\\' && i + 1 < end){
+				c = input.charAt(++i);
+			}
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Parses a token as number directly from the input
+	 *
+	 * @return the value or {@link Long#MIN_VALUE} if the token is not a valid number in the given range
+	 */
+	private long parseLong(int token, long min, long max) {
+		if((flags[token] & ESCAPED) != 0){
+			try{
+				long value = Long.parseLong(materialize(token));
+				return value < min || value > max ? Long.MIN_VALUE : value;
+			} catch(NumberFormatException e){
+				return Long.MIN_VALUE;
+			}
+		}
+		int i = starts[token];
+		int end = ends[token];
+		if(i == end){
+			return Long.MIN_VALUE;
+		}
+		boolean negative = false;
+		char first = input.charAt(i);
+		if(first == '-' || first == '+'){
+			negative = first == '-';
+			if(++i == end){
+				return Long.MIN_VALUE;
+			}
+		}
+		long value = 0;
+		for(; i < end; i++){
+			int digit = input.charAt(i) - '0';
+			if(digit < 0 || digit > 9){
+				return Long.MIN_VALUE;
+			}
+			if(value > (Long.MAX_VALUE - digit) / 10){
+				return Long.MIN_VALUE;
+			}
+			value = value * 10 + digit;
+		}
+		value = negative ? -value : value;
+		return value < min || value > max ? Long.MIN_VALUE : value;
+	}
+	
+	private double parseDouble(int token, double defaultValue) {
+		try{
+			return Double.parseDouble(materialize(token).replace(',', '.'));
+		} catch(NumberFormatException e){
+			return defaultValue;
+		}
+	}
+}
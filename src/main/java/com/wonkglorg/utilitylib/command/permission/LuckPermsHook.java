@@ -0,0 +1,23 @@
+package com.wonkglorg.utilitylib.command.permission;
+
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Invalidates cached decisions when LuckPerms recalculates permissions, only loaded if LuckPerms is installed
+ */
+final class LuckPermsHook{
+	
+	private LuckPermsHook() {
+		//Utility class
+	}
+	
+	static void subscribe(Plugin plugin, PermissionCache cache) {
+		EventBus eventBus = LuckPermsProvider.get().getEventBus();
+		eventBus.subscribe(plugin, UserDataRecalculateEvent.class, event -> cache.invalidate(event.getUser().getUniqueId()));
+		eventBus.subscribe(plugin, GroupDataRecalculateEvent.class, event -> cache.invalidateAll());
+	}
+}
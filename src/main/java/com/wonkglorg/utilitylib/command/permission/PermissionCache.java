@@ -0,0 +1,220 @@
+package com.wonkglorg.utilitylib.command.permission;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the permission decisions of every online player for the permission nodes used by the library, so gating commands and their
+ * completions does not call into the permissions plugin on every invocation.
+ * <p>
+ * Nodes are interned into ids once, the decisions of a player are a byte per id. The decisions of a player are dropped when they join,
+ * quit or change worlds, when LuckPerms recalculates their data (if installed) and after {@link #setMaxAge(long) a max age} to catch
+ * changes of permission plugins without events. The cache is disabled until {@link #enable(Plugin)} registered these invalidations,
+ * until then every check calls through.
+ */
+@ThreadSafe
+public final class PermissionCache{
+	private static final PermissionCache GLOBAL = new PermissionCache();
+	private static final byte UNKNOWN = 0;
+	private static final byte DENIED = 1;
+	private static final byte GRANTED = 2;
+	
+	/**
+	 * Node -> id
+	 */
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	/**
+	 * Id -> node, replaced when a node is interned
+	 */
+	private volatile String[] nodes = new String[0];
+	private final Map<UUID, Decisions> players = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private volatile boolean enabled;
+	private volatile long maxAgeMillis = 30_000;
+	
+	/**
+	 * @return the cache used by every command
+	 */
+	public static PermissionCache global() {
+		return GLOBAL;
+	}
+	
+	/**
+	 * Starts caching decisions and registers the listeners invalidating them
+	 *
+	 * @param plugin the plugin to register the listeners for
+	 */
+	public synchronized void enable(@NotNull Plugin plugin) {
+		if(enabled){
+			return;
+		}
+		if(Bukkit.getPluginManager().getPlugin("LuckPerms") != null && !hookLuckPerms(plugin)){
+			//LuckPerms is enabled after this plugin, every plugin is enabled once the first tick runs
+			Bukkit.getScheduler().runTask(plugin, () -> {
+				if(!hookLuckPerms(plugin)){
+					plugin.getLogger().warning("Could not hook into LuckPerms, cached permissions are only refreshed after their max age");
+				}
+			});
+		}
+		Bukkit.getPluginManager().registerEvents(new PermissionCacheListener(this), plugin);
+		enabled = true;
+	}
+	
+	/**
+	 * @return true if the LuckPerms events are subscribed, false if LuckPerms is not loaded yet
+	 */
+	private boolean hookLuckPerms(Plugin plugin) {
+		try{
+			LuckPermsHook.subscribe(plugin, this);
+			return true;
+		} catch(IllegalStateException e){
+			return false;
+		}
+	}
+	
+	/**
+	 * @return true if decisions are cached
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Sets how long decisions are cached at most, a safety net for permission changes no event is fired for (op status, plugins other
+	 * than LuckPerms)
+	 *
+	 * @param maxAgeMillis the max age in milliseconds, 0 to keep decisions until they are invalidated
+	 */
+	public void setMaxAge(long maxAgeMillis) {
+		this.maxAgeMillis = maxAgeMillis;
+	}
+	
+	/**
+	 * Interns a permission node
+	 *
+	 * @param node the node
+	 * @return the id of the node
+	 */
+	public int id(@NotNull String node) {
+		Integer id = ids.get(node);
+		return id != null ? id : intern(node);
+	}
+	
+	private synchronized int intern(String node) {
+		Integer id = ids.get(node);
+		if(id != null){
+			return id;
+		}
+		String[] nodes = Arrays.copyOf(this.nodes, this.nodes.length + 1);
+		nodes[nodes.length - 1] = node;
+		this.nodes = nodes;
+		ids.put(node, nodes.length - 1);
+		return nodes.length - 1;
+	}
+	
+	/**
+	 * Checks if a sender has a permission
+	 *
+	 * @param sender the sender to check
+	 * @param node the permission node
+	 * @return true if the sender has the permission
+	 */
+	public boolean has(@NotNull CommandSender sender, @NotNull String node) {
+		if(!enabled || !(sender instanceof Player)){
+			return sender.hasPermission(node);
+		}
+		return has(sender, id(node));
+	}
+	
+	/**
+	 * Checks if a sender has a permission
+	 *
+	 * @param sender the sender to check
+	 * @param id the id of the permission node, see {@link #id(String)}
+	 * @return true if the sender has the permission
+	 */
+	public boolean has(@NotNull CommandSender sender, int id) {
+		if(!enabled || !(sender instanceof Player player)){
+			return sender.hasPermission(nodes[id]);
+		}
+		long maxAge = maxAgeMillis;
+		long now = maxAge > 0 ? System.currentTimeMillis() : 0;
+		UUID uuid = player.getUniqueId();
+		Decisions decisions = players.get(uuid);
+		if(decisions == null || maxAge > 0 && now - decisions.createdAt >= maxAge){
+			decisions = new Decisions(now, nodes.length);
+			players.put(uuid, decisions);
+		}
+		byte[] states = decisions.states;
+		if(id < states.length && states[id] != UNKNOWN){
+			hits.increment();
+			return states[id] == GRANTED;
+		}
+		misses.increment();
+		//decisions of an invalidated player are written to the orphaned instance and never read again
+		boolean granted = player.hasPermission(nodes[id]);
+		decisions.set(id, granted ? GRANTED : DENIED);
+		return granted;
+	}
+	
+	/**
+	 * Drops the cached decisions of a player
+	 *
+	 * @param player the player
+	 */
+	public void invalidate(@NotNull UUID player) {
+		players.remove(player);
+	}
+	
+	/**
+	 * Drops the cached decisions of every player, for example after a group changed
+	 */
+	public void invalidateAll() {
+		players.clear();
+	}
+	
+	/**
+	 * @return the amount of checks answered from the cache
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return the amount of checks that had to call the permissions plugin
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	private static final class Decisions{
+		private final long createdAt;
+		private volatile byte[] states;
+		
+		private Decisions(long createdAt, int size) {
+			this.createdAt = createdAt;
+			this.states = new byte[Math.max(8, size)];
+		}
+		
+		private void set(int id, byte state) {
+			byte[] states = this.states;
+			if(id >= states.length){
+				//a decision written concurrently to the old array may be lost, it is simply computed again
+				states = Arrays.copyOf(states, Math.max(id + 1, states.length * 2));
+				this.states = states;
+			}
+			states[id] = state;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.wonkglorg.utilitylib.command.permission;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Drops cached permission decisions whenever the permissions of a player commonly change
+ */
+final class PermissionCacheListener implements Listener{
+	private final PermissionCache cache;
+	
+	PermissionCacheListener(PermissionCache cache) {
+		this.cache = cache;
+	}
+	
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onJoin(PlayerJoinEvent event) {
+		cache.invalidate(event.getPlayer().getUniqueId());
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent event) {
+		cache.invalidate(event.getPlayer().getUniqueId());
+	}
+	
+	/**
+	 * Permission plugins can grant permissions per world
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onWorldChange(PlayerChangedWorldEvent event) {
+		cache.invalidate(event.getPlayer().getUniqueId());
+	}
+}
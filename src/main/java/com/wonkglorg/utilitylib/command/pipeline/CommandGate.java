@@ -0,0 +1,383 @@
+package com.wonkglorg.utilitylib.command.pipeline;
+
+import com.wonkglorg.utilitylib.command.annotation.Argument;
+import com.wonkglorg.utilitylib.command.annotation.Command;
+import com.wonkglorg.utilitylib.command.annotation.Confirmation;
+import com.wonkglorg.utilitylib.command.annotation.Cooldown;
+import com.wonkglorg.utilitylib.command.annotation.SubCommand;
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import com.wonkglorg.utilitylib.command.cooldown.time.TimeBuilder;
+import com.wonkglorg.utilitylib.command.permission.PermissionCache;
+import com.wonkglorg.utilitylib.command.selector.EntitySelector;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * The checks declared by the annotations of a command compiled into a single handler, run before the command is executed.
+ * <p>
+ * The annotations are only read once when the gate is compiled, checks that are not declared cost nothing. Checks always run in the
+ * order of their cost so cheap rejections happen first:
+ * <ol>
+ *     <li>permission of {@link Command} or {@link SubCommand}</li>
+ *     <li>active {@link Cooldown}</li>
+ *     <li>{@link Argument} validation</li>
+ *     <li>custom {@link Interceptor interceptors}</li>
+ *     <li>{@link Confirmation}</li>
+ * </ol>
+ * Once every check passed the cooldown is started.
+ */
+public final class CommandGate{
+	/**
+	 * Uuid confirmations of non player senders are stored under
+	 */
+	private static final UUID CONSOLE = new UUID(0, 0);
+	private static final long DEFAULT_CONFIRMATION_MILLIS = 30_000;
+	
+	private final PermissionCache permissions = PermissionCache.global();
+	private final String permission;
+	private final int permissionId;
+	private final String permissionMessage;
+	
+	private final CooldownManager cooldowns;
+	private final String cooldownKey;
+	private final long cooldownMillis;
+	private final int[] cooldownBypass;
+	private final String cooldownMessage;
+	
+	/**
+	 * Index of the first argument of the command, arguments declared by annotations are relative to it
+	 */
+	private final int argumentOffset;
+	/**
+	 * Minimum amount of arguments so every required argument is present
+	 */
+	private final int requiredArguments;
+	private final Argument[] arguments;
+	private final int[] argumentIndexes;
+	/**
+	 * Indexes and types of arguments that have to be parsable as something other than a string
+	 */
+	private final int[] typedIndexes;
+	private final Argument[] typedArguments;
+	
+	private final Interceptor interceptor;
+	
+	private final ConfirmationStore confirmations;
+	private final Confirmation confirmation;
+	private final int[] confirmationBypass;
+	
+	private CommandGate(CommandGate gate, Interceptor interceptor) {
+		this(gate, gate.cooldowns, gate.cooldownKey, interceptor);
+	}
+	
+	private CommandGate(CommandGate gate, CooldownManager cooldowns, String cooldownKey, Interceptor interceptor) {
+		this.permission = gate.permission;
+		this.permissionId = gate.permissionId;
+		this.permissionMessage = gate.permissionMessage;
+		this.cooldowns = gate.cooldownMillis > 0 ? cooldowns : null;
+		this.cooldownKey = cooldownKey;
+		this.cooldownMillis = gate.cooldownMillis;
+		this.cooldownBypass = gate.cooldownBypass;
+		this.cooldownMessage = gate.cooldownMessage;
+		this.argumentOffset = gate.argumentOffset;
+		this.requiredArguments = gate.requiredArguments;
+		this.arguments = gate.arguments;
+		this.argumentIndexes = gate.argumentIndexes;
+		this.typedIndexes = gate.typedIndexes;
+		this.typedArguments = gate.typedArguments;
+		this.confirmations = gate.confirmations;
+		this.confirmation = gate.confirmation;
+		this.confirmationBypass = gate.confirmationBypass;
+		this.interceptor = interceptor;
+	}
+	
+	private CommandGate(Class<?> type, CooldownManager cooldowns, String cooldownKey, int argumentOffset) {
+		Command command = type.getAnnotation(Command.class);
+		SubCommand subCommand = type.getAnnotation(SubCommand.class);
+		String permission = command != null ? command.permission() : subCommand != null ? subCommand.permission() : "";
+		this.permission = permission.isEmpty() ? null : permission;
+		this.permissionId = permission.isEmpty() ? -1 : permissions.id(permission);
+		this.permissionMessage = command != null ? command.permissionMessage() : subCommand != null ? subCommand.permissionMessage() : null;
+		
+		Cooldown cooldown = type.getAnnotation(Cooldown.class);
+		this.cooldownMillis = cooldown == null ? 0 : Duration.of(cooldown.cooldown(), cooldown.timeUnit()).toMillis();
+		this.cooldowns = cooldownMillis > 0 ? cooldowns : null;
+		this.cooldownKey = cooldownKey;
+		this.cooldownBypass = cooldown == null ? new int[0] : ids(cooldown.permissionBypass());
+		this.cooldownMessage = cooldown == null ? null : cooldown.message();
+		
+		this.argumentOffset = argumentOffset;
+		Argument[] arguments = type.getAnnotationsByType(Argument.class);
+		int[] indexes = resolveIndexes(arguments);
+		Integer[] order = new Integer[arguments.length];
+		for(int i = 0; i < order.length; i++){
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingInt(i -> indexes[i]));
+		this.arguments = new Argument[arguments.length];
+		this.argumentIndexes = new int[arguments.length];
+		int required = 0;
+		int typed = 0;
+		for(int i = 0; i < order.length; i++){
+			Argument argument = arguments[order[i]];
+			this.arguments[i] = argument;
+			this.argumentIndexes[i] = indexes[order[i]];
+			if(argument.required()){
+				required = Math.max(required, indexes[order[i]] + 1);
+			}
+			if(argument.type() != Argument.Type.STRING){
+				typed++;
+			}
+		}
+		this.requiredArguments = required;
+		this.typedIndexes = new int[typed];
+		this.typedArguments = new Argument[typed];
+		typed = 0;
+		for(int i = 0; i < this.arguments.length; i++){
+			if(this.arguments[i].type() != Argument.Type.STRING){
+				typedIndexes[typed] = argumentIndexes[i];
+				typedArguments[typed++] = this.arguments[i];
+			}
+		}
+		
+		this.interceptor = null;
+		
+		this.confirmation = type.getAnnotation(Confirmation.class);
+		long confirmationMillis = confirmation == null || confirmation.expiresAfter() <= 0
+								  ? DEFAULT_CONFIRMATION_MILLIS
+								  : Duration.of(confirmation.expiresAfter(), confirmation.timeUnit()).toMillis();
+		this.confirmations = confirmation == null ? null : new ConfirmationStore(confirmationMillis);
+		this.confirmationBypass = confirmation == null ? new int[0] : ids(confirmation.permissionBypass());
+	}
+	
+	/**
+	 * Compiles the annotations of a command class into a gate
+	 *
+	 * @param type the class of the command
+	 * @param cooldowns the cooldown manager to store the cooldowns in
+	 * @param cooldownKey the key of the cooldowns of this command
+	 * @param argumentOffset the index of the first argument of the command (the index of a subcommand)
+	 * @return the gate or null if the class declares no checks
+	 */
+	public static @Nullable CommandGate compile(@NotNull Class<?> type,
+												@NotNull CooldownManager cooldowns,
+												@NotNull String cooldownKey,
+												int argumentOffset) {
+		CommandGate gate = new CommandGate(type, cooldowns, cooldownKey, argumentOffset);
+		return gate.isEmpty() ? null : gate;
+	}
+	
+	/**
+	 * Creates a gate that only runs the given interceptor, used for commands without annotations
+	 *
+	 * @param interceptor the interceptor
+	 * @return the gate
+	 */
+	public static CommandGate of(@NotNull Interceptor interceptor) {
+		return new CommandGate(new CommandGate(Object.class, null, "", 0), interceptor);
+	}
+	
+	/**
+	 * Adds a custom check to this gate, it runs after the argument validation
+	 *
+	 * @param interceptor the interceptor to add
+	 * @return a new gate with the interceptor fused into it
+	 */
+	public CommandGate with(@NotNull Interceptor interceptor) {
+		return new CommandGate(this, this.interceptor == null ? interceptor : this.interceptor.andThen(interceptor));
+	}
+	
+	/**
+	 * Moves the cooldowns of this gate to another manager, used when a subcommand is mounted under its command
+	 *
+	 * @param cooldowns the cooldown manager to store the cooldowns in
+	 * @param cooldownKey the key of the cooldowns of this command
+	 * @return a new gate storing its cooldowns in the given manager
+	 */
+	public CommandGate withCooldowns(@NotNull CooldownManager cooldowns, @NotNull String cooldownKey) {
+		return new CommandGate(this, cooldowns, cooldownKey, interceptor);
+	}
+	
+	/**
+	 * Runs every check of this gate, rejected senders are informed why
+	 *
+	 * @param sender the sender of the command
+	 * @param label the label the command was used with
+	 * @param args all arguments of the command
+	 * @return true if the command may be executed
+	 */
+	public boolean test(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args) {
+		if(permissionId >= 0 && !permissions.has(sender, permissionId)){
+			sender.sendMessage(permissionMessage);
+			return false;
+		}
+		
+		UUID uuid = sender instanceof Player player ? player.getUniqueId() : null;
+		boolean cooldown = cooldowns != null && uuid != null && !hasAny(sender, cooldownBypass);
+		if(cooldown){
+			long remaining = cooldowns.getRemainingTime(cooldownKey, uuid);
+			if(remaining > 0){
+				sendCooldownMessage(sender, remaining);
+				return false;
+			}
+		}
+		
+		if(args.length - argumentOffset < requiredArguments){
+			sender.sendMessage(missingArgument(args.length - argumentOffset).errorMessage());
+			return false;
+		}
+		for(int i = 0; i < typedIndexes.length; i++){
+			int index = typedIndexes[i] + argumentOffset;
+			if(index < args.length && !parses(args[index], typedArguments[i].type())){
+				sender.sendMessage(typedArguments[i].errorMessage());
+				return false;
+			}
+		}
+		
+		if(interceptor != null && !interceptor.intercept(sender, label, args)){
+			return false;
+		}
+		
+		if(confirmations != null && !hasAny(sender, confirmationBypass)){
+			switch(confirmations.confirm(uuid == null ? CONSOLE : uuid, args)){
+				case CONFIRMED -> {
+					//continue with the execution
+				}
+				case REPLACED -> {
+					if(confirmation.sendCancelMessage()){
+						sender.sendMessage(confirmation.cancelMessage());
+					}
+					sender.sendMessage(confirmation.message());
+					return false;
+				}
+				default -> {
+					sender.sendMessage(confirmation.message());
+					return false;
+				}
+			}
+		}
+		
+		if(cooldown){
+			//checked again atomically, another invocation (async or concurrent) may have started the cooldown since the first check
+			long remaining = cooldowns.tryAcquire(cooldownKey, uuid, cooldownMillis);
+			if(remaining > 0){
+				sendCooldownMessage(sender, remaining);
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private void sendCooldownMessage(CommandSender sender, long remaining) {
+		sender.sendMessage(cooldownMessage.replace("%s", TimeBuilder.toTimeString().inputMillie(remaining).build()));
+	}
+	
+	/**
+	 * Checks only the permission of this gate, used to hide commands from players that can not use them
+	 *
+	 * @param sender the sender to check
+	 * @return true if the sender has the permission required by this gate
+	 */
+	public boolean permits(@NotNull CommandSender sender) {
+		return permissionId < 0 || permissions.has(sender, permissionId);
+	}
+	
+	/**
+	 * @return the permission required to pass this gate or null if none is required
+	 */
+	public @Nullable String getPermission() {
+		return permission;
+	}
+	
+	private boolean isEmpty() {
+		return permission == null && cooldowns == null && arguments.length == 0 && interceptor == null && confirmations == null;
+	}
+	
+	/**
+	 * @return the first required argument missing when only the given amount of arguments is present
+	 */
+	private Argument missingArgument(int present) {
+		for(int i = 0; i < arguments.length; i++){
+			if(arguments[i].required() && argumentIndexes[i] >= present){
+				return arguments[i];
+			}
+		}
+		return arguments[arguments.length - 1];
+	}
+	
+	/**
+	 * Resolves the index of every argument, arguments with the index -1 get the first index not used by any other argument
+	 */
+	private static int[] resolveIndexes(Argument[] arguments) {
+		int[] indexes = new int[arguments.length];
+		boolean[] used = new boolean[arguments.length * 2 + 1];
+		for(int i = 0; i < arguments.length; i++){
+			indexes[i] = arguments[i].index();
+			if(indexes[i] >= 0){
+				if(indexes[i] >= used.length){
+					used = Arrays.copyOf(used, indexes[i] + 1);
+				}
+				used[indexes[i]] = true;
+			}
+		}
+		int next = 0;
+		for(int i = 0; i < arguments.length; i++){
+			if(indexes[i] < 0){
+				while(next < used.length && used[next]){
+					next++;
+				}
+				indexes[i] = next++;
+			}
+		}
+		return indexes;
+	}
+	
+	private boolean hasAny(CommandSender sender, int[] ids) {
+		for(int id : ids){
+			if(permissions.has(sender, id)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private int[] ids(String[] nodes) {
+		int[] ids = new int[nodes.length];
+		for(int i = 0; i < nodes.length; i++){
+			ids[i] = permissions.id(nodes[i]);
+		}
+		return ids;
+	}
+	
+	private static boolean parses(String value, Argument.Type type) {
+		try{
+			switch(type){
+				case INTEGER -> Integer.parseInt(value);
+				case LONG -> Long.parseLong(value);
+				case DOUBLE -> Double.parseDouble(value);
+				case BOOLEAN -> {
+					return value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false");
+				}
+				case ENTITY -> {
+					if(EntitySelector.isSelector(value)){
+						EntitySelector.compile(value);
+					}
+				}
+				default -> {
+					//strings always parse
+				}
+			}
+			return true;
+		} catch(IllegalArgumentException e){
+			//also thrown for numbers that do not parse
+			return false;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.wonkglorg.utilitylib.command.pipeline;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * Remembers the last unconfirmed invocation of every sender of a command as a 64 bit fingerprint.
+ * <p>
+ * Senders are spread over shards, each an insertion ordered map behind its own lock. As every pending invocation of a store has the same
+ * lifetime insertion order is expiry order, so expired invocations are always at the head of a shard and are removed lazily whenever the
+ * shard is used. Insert, lookup and expiry are O(1) and nothing has to be scanned periodically.
+ */
+@ThreadSafe
+final class ConfirmationStore{
+	private static final int SHARDS = 16;
+	private final Shard[] shards = new Shard[SHARDS];
+	private final long expiresAfterMillis;
+	
+	ConfirmationStore(long expiresAfterMillis) {
+		this.expiresAfterMillis = expiresAfterMillis;
+		for(int i = 0; i < SHARDS; i++){
+			shards[i] = new Shard();
+		}
+	}
+	
+	/**
+	 * Confirms an invocation if the same one is pending, otherwise remembers it as pending
+	 *
+	 * @param sender the sender of the invocation
+	 * @param args the arguments of the invocation
+	 * @return the result of the confirmation
+	 */
+	Result confirm(@NotNull UUID sender, @NotNull String[] args) {
+		long fingerprint = fingerprint(args);
+		long now = System.currentTimeMillis();
+		Shard shard = shard(sender);
+		synchronized(shard){
+			shard.expire(now);
+			Pending previous = shard.remove(sender);
+			if(previous != null && previous.fingerprint == fingerprint){
+				return Result.CONFIRMED;
+			}
+			//removed first so the new invocation is appended at the tail, keeping the shard ordered by expiry
+			shard.put(sender, new Pending(fingerprint, now + expiresAfterMillis));
+			return previous != null ? Result.REPLACED : Result.PENDING;
+		}
+	}
+	
+	/**
+	 * Forgets the pending invocation of a sender
+	 *
+	 * @param sender the sender
+	 */
+	void cancel(@NotNull UUID sender) {
+		Shard shard = shard(sender);
+		synchronized(shard){
+			shard.remove(sender);
+		}
+	}
+	
+	/**
+	 * @return the amount of pending invocations, including expired ones not removed yet
+	 */
+	int size() {
+		int size = 0;
+		for(Shard shard : shards){
+			synchronized(shard){
+				size += shard.size();
+			}
+		}
+		return size;
+	}
+	
+	private Shard shard(UUID sender) {
+		int hash = sender.hashCode();
+		return shards[(hash ^ hash >>> 16) & SHARDS - 1];
+	}
+	
+	/**
+	 * 64 bit FNV-1a hash of the arguments, separated so {@code "a b"} and {@code "ab"} differ
+	 */
+	static long fingerprint(String[] args) {
+		long hash = 0xcbf29ce484222325L;
+		for(String arg : args){
+			for(int i = 0; i < arg.length(); i++){
+				hash = (hash ^ arg.charAt(i)) * 0x100000001b3L;
+			}
+			hash = (hash ^ 0xFFFF) * 0x100000001b3L;
+		}
+		return hash;
+	}
+	
+	enum Result{
+		/**
+		 * The invocation matched the pending one
+		 */
+		CONFIRMED,
+		/**
+		 * Nothing was pending, the invocation now is
+		 */
+		PENDING,
+		/**
+		 * A different invocation was pending and got replaced by this one
+		 */
+		REPLACED
+	}
+	
+	private static final class Shard extends LinkedHashMap<UUID, Pending>{
+		
+		private void expire(long now) {
+			Iterator<Pending> iterator = values().iterator();
+			while(iterator.hasNext() && iterator.next().expiresAt <= now){
+				iterator.remove();
+			}
+		}
+	}
+	
+	private record Pending(long fingerprint, long expiresAt){}
+}
@@ -0,0 +1,31 @@
+package com.wonkglorg.utilitylib.command.pipeline;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A custom check run by a {@link CommandGate} after its annotation based checks and before the confirmation
+ */
+@FunctionalInterface
+public interface Interceptor{
+	
+	/**
+	 * Checks an invocation, when rejecting it the interceptor is responsible for telling the sender why
+	 *
+	 * @param sender the sender of the command
+	 * @param label the label the command was used with
+	 * @param args all arguments of the command
+	 * @return true if the invocation may continue, false to reject it
+	 */
+	boolean intercept(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] args);
+	
+	/**
+	 * Fuses this and another interceptor into one, the other one is only called if this one passes
+	 *
+	 * @param next the interceptor to call after this one
+	 * @return the fused interceptor
+	 */
+	default Interceptor andThen(@NotNull Interceptor next) {
+		return (sender, label, args) -> intercept(sender, label, args) && next.intercept(sender, label, args);
+	}
+}
@@ -0,0 +1,128 @@
+package com.wonkglorg.utilitylib.command.processor;
+
+import com.wonkglorg.utilitylib.command.annotation.SubCommand;
+import com.wonkglorg.utilitylib.command.lazy.SubcommandIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the {@link SubcommandIndex} of every {@link SubCommand} with a parent at build time, runs automatically when the library is
+ * on the annotation processor path of a plugin.
+ * <p>
+ * Incremental builds only hand the changed classes to the processor, so the index of the previous build is merged in: its entries are
+ * kept for every class that still exists and is still an indexed subcommand, re-read from the class so changed names or permissions are
+ * picked up, and dropped otherwise.
+ */
+@SupportedAnnotationTypes("com.wonkglorg.utilitylib.command.annotation.SubCommand")
+public final class SubcommandIndexProcessor extends AbstractProcessor{
+	/**
+	 * Binary class name -> index line of every subcommand of this compilation
+	 */
+	private final Map<String, String> lines = new LinkedHashMap<>();
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for(Element element : roundEnv.getElementsAnnotatedWith(SubCommand.class)){
+			SubCommand subCommand = element.getAnnotation(SubCommand.class);
+			if(subCommand.parent().isEmpty()){
+				continue;
+			}
+			if(element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT) || !hasConstructor(element)){
+				processingEnv.getMessager()
+							 .printMessage(Diagnostic.Kind.ERROR, "Indexed subcommands must be concrete classes with a public parent command or no argument constructor", element);
+				continue;
+			}
+			String className = processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString();
+			lines.put(className, line(subCommand, className));
+		}
+		if(roundEnv.processingOver() && !lines.isEmpty()){
+			mergePrevious();
+			write();
+		}
+		return false;
+	}
+	
+	private static String line(SubCommand subCommand, String className) {
+		return subCommand.parent() + "|" + subCommand.name() + "|" + subCommand.permission() + "|" + className;
+	}
+	
+	private boolean hasConstructor(Element element) {
+		TypeMirror command = processingEnv.getElementUtils().getTypeElement("com.wonkglorg.utilitylib.command.Command").asType();
+		for(ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())){
+			if(!constructor.getModifiers().contains(Modifier.PUBLIC)){
+				continue;
+			}
+			if(constructor.getParameters().isEmpty()){
+				return true;
+			}
+			if(constructor.getParameters().size() == 1 && processingEnv.getTypeUtils().isSameType(constructor.getParameters().get(0).asType(), command)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Adds the entries of the index of the previous build for every class not compiled now that is still an indexed subcommand
+	 */
+	private void mergePrevious() {
+		Filer filer = processingEnv.getFiler();
+		try(Reader reader = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SubcommandIndex.RESOURCE).openReader(true);
+			BufferedReader lines = new BufferedReader(reader)){
+			String line;
+			while((line = lines.readLine()) != null){
+				String[] parts = line.split("\\|", -1);
+				if(parts.length != 4 || this.lines.containsKey(parts[3])){
+					continue;
+				}
+				TypeElement type = processingEnv.getElementUtils().getTypeElement(parts[3].replace('$', '.'));
+				SubCommand subCommand = type == null ? null : type.getAnnotation(SubCommand.class);
+				if(subCommand != null && !subCommand.parent().isEmpty()){
+					this.lines.put(parts[3], line(subCommand, parts[3]));
+				}
+			}
+		} catch(IOException e){
+			//no previous build, the index only consists of this compilation
+		}
+	}
+	
+	private void write() {
+		try{
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SubcommandIndex.RESOURCE);
+			try(Writer writer = file.openWriter()){
+				for(String line : lines.values()){
+					writer.write(line);
+					writer.write('\n');
+				}
+			}
+		} catch(IOException e){
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write subcommand index: " + e.getMessage());
+		}
+	}
+}
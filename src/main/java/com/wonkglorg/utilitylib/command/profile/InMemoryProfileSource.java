@@ -0,0 +1,34 @@
+package com.wonkglorg.utilitylib.command.profile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ProfileSource} that only knows the profiles that were added to it, used as an in process stand in for the remote profile lookup
+ * (tests, offline mode servers or networks that resolve names through their own database)
+ */
+public final class InMemoryProfileSource implements ProfileSource{
+	private final Map<String, UUID> profiles = new ConcurrentHashMap<>();
+	
+	/**
+	 * Adds a profile to this source
+	 *
+	 * @param name the name of the profile
+	 * @param uuid the uuid of the profile
+	 * @return this source
+	 */
+	public InMemoryProfileSource add(@NotNull String name, @NotNull UUID uuid) {
+		profiles.put(name.toLowerCase(Locale.ROOT), uuid);
+		return this;
+	}
+	
+	@Override
+	public @Nullable UUID lookup(@NotNull String name) {
+		return profiles.get(name.toLowerCase(Locale.ROOT));
+	}
+}
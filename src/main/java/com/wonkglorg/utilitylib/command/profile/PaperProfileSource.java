@@ -0,0 +1,30 @@
+package com.wonkglorg.utilitylib.command.profile;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * {@link ProfileSource} backed by the servers own user cache and the Paper profile api
+ */
+public final class PaperProfileSource implements ProfileSource{
+	
+	@Override
+	public @Nullable UUID cached(@NotNull String name) {
+		OfflinePlayer player = Bukkit.getOfflinePlayerIfCached(name);
+		return player == null ? null : player.getUniqueId();
+	}
+	
+	@Override
+	public @Nullable UUID lookup(@NotNull String name) {
+		PlayerProfile profile = Bukkit.createProfile(name);
+		if(!profile.complete(false)){
+			return null;
+		}
+		return profile.getId();
+	}
+}
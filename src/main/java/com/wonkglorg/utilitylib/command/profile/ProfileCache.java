@@ -0,0 +1,174 @@
+package com.wonkglorg.utilitylib.command.profile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local name to {@link UUID} cache that can be persisted in a compact binary format.
+ * <p>
+ * File layout (big endian): {@code int magic, byte version, int count} followed by count entries of
+ * {@code byte nameLength, byte[] name (utf-8), long mostSigBits, long leastSigBits, long resolvedAtMillis}
+ */
+public final class ProfileCache{
+	private static final int MAGIC = 0x554C5043; // ULPC
+	private static final byte VERSION = 1;
+	/**
+	 * Longest name in bytes that can be saved
+	 */
+	private static final int MAX_NAME_BYTES = 255;
+	
+	/**
+	 * Lower case name -> entry
+	 */
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	/**
+	 * How long an entry is trusted before it is looked up again, names can be changed by their owner
+	 */
+	private final long maxAgeMillis;
+	
+	/**
+	 * @param maxAgeMillis how long an entry is trusted before it is looked up again (&lt;= 0 to trust entries forever)
+	 */
+	public ProfileCache(long maxAgeMillis) {
+		this.maxAgeMillis = maxAgeMillis;
+	}
+	
+	/**
+	 * Creates a cache that trusts its entries forever
+	 */
+	public ProfileCache() {
+		this(0);
+	}
+	
+	/**
+	 * Gets the cached uuid of a name
+	 *
+	 * @param name the name to look up (case-insensitive)
+	 * @return the uuid or null if the name is not cached or its entry is too old
+	 */
+	public @Nullable UUID get(@NotNull String name) {
+		Entry entry = entries.get(name.toLowerCase(Locale.ROOT));
+		if(entry == null){
+			return null;
+		}
+		if(maxAgeMillis > 0 && System.currentTimeMillis() - entry.resolvedAt > maxAgeMillis){
+			return null;
+		}
+		return entry.uuid;
+	}
+	
+	/**
+	 * Caches a name to uuid mapping
+	 *
+	 * @param name the name (case-insensitive)
+	 * @param uuid the uuid it belongs to
+	 */
+	public void put(@NotNull String name, @NotNull UUID uuid) {
+		entries.put(name.toLowerCase(Locale.ROOT), new Entry(uuid, System.currentTimeMillis()));
+	}
+	
+	/**
+	 * Removes a name from the cache
+	 *
+	 * @param name the name (case-insensitive)
+	 */
+	public void remove(@NotNull String name) {
+		entries.remove(name.toLowerCase(Locale.ROOT));
+	}
+	
+	/**
+	 * @return the amount of cached names
+	 */
+	public int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Writes the cache to the given file, the file is replaced atomically so a crash while saving never leaves a broken cache behind. Names
+	 * longer than 255 bytes in utf-8 are skipped.
+	 *
+	 * @param file the file to write to
+	 * @throws IOException if the file could not be written
+	 */
+	public void save(@NotNull Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if(parent != null){
+			Files.createDirectories(parent);
+		}
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))){
+			Map<String, Entry> snapshot = Map.copyOf(entries);
+			List<byte[]> names = new ArrayList<>(snapshot.size());
+			List<Entry> values = new ArrayList<>(snapshot.size());
+			for(Map.Entry<String, Entry> entry : snapshot.entrySet()){
+				byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				//the length is stored in one byte, longer names can not belong to a player anyway
+				if(name.length <= MAX_NAME_BYTES){
+					names.add(name);
+					values.add(entry.getValue());
+				}
+			}
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeInt(names.size());
+			for(int i = 0; i < names.size(); i++){
+				byte[] name = names.get(i);
+				Entry entry = values.get(i);
+				out.writeByte(name.length);
+				out.write(name);
+				out.writeLong(entry.uuid.getMostSignificantBits());
+				out.writeLong(entry.uuid.getLeastSignificantBits());
+				out.writeLong(entry.resolvedAt);
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Reads all entries from the given file into this cache, does nothing if the file does not exist
+	 *
+	 * @param file the file to read from
+	 * @throws IOException if the file could not be read or is not a valid cache file
+	 */
+	public void load(@NotNull Path file) throws IOException {
+		if(!Files.exists(file)){
+			return;
+		}
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))){
+			if(in.readInt() != MAGIC){
+				throw new IOException("File " + file + " is not a profile cache!");
+			}
+			byte version = in.readByte();
+			if(version != VERSION){
+				throw new IOException("Unsupported profile cache version " + version + "!");
+			}
+			int count = in.readInt();
+			byte[] buffer = new byte[MAX_NAME_BYTES];
+			for(int i = 0; i < count; i++){
+				int length = in.readUnsignedByte();
+				in.readFully(buffer, 0, length);
+				String name = new String(buffer, 0, length, StandardCharsets.UTF_8);
+				UUID uuid = new UUID(in.readLong(), in.readLong());
+				entries.put(name, new Entry(uuid, in.readLong()));
+			}
+		}
+	}
+	
+	private record Entry(UUID uuid, long resolvedAt){}
+}
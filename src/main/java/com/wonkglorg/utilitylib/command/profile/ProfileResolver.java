@@ -0,0 +1,102 @@
+package com.wonkglorg.utilitylib.command.profile;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolves player names to their {@link UUID} without ever blocking the calling thread.
+ * <p>
+ * Names are first looked up in the local {@link ProfileCache}, then in the fast path of the {@link ProfileSource} and only if both miss a
+ * blocking lookup is done on the given executor. Concurrent lookups of the same name share a single request.
+ */
+public final class ProfileResolver{
+	private final ProfileCache cache;
+	private final ProfileSource source;
+	private final Executor executor;
+	/**
+	 * Lower case name -> pending lookup
+	 */
+	private final Map<String, CompletableFuture<UUID>> inFlight = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param cache the local cache to use
+	 * @param source the source to look up unknown names with
+	 * @param executor the executor blocking lookups are run on (never the main thread)
+	 */
+	public ProfileResolver(@NotNull ProfileCache cache, @NotNull ProfileSource source, @NotNull Executor executor) {
+		this.cache = cache;
+		this.source = source;
+		this.executor = executor;
+	}
+	
+	/**
+	 * Resolves a name to its uuid
+	 *
+	 * @param name the name to resolve (case-insensitive)
+	 * @return a future completing with the uuid or null if no profile with this name exists, completes exceptionally if the lookup failed
+	 */
+	public CompletableFuture<UUID> resolve(@NotNull String name) {
+		String key = name.toLowerCase(Locale.ROOT);
+		UUID uuid = cache.get(key);
+		if(uuid != null){
+			return CompletableFuture.completedFuture(uuid);
+		}
+		uuid = source.cached(name);
+		if(uuid != null){
+			cache.put(key, uuid);
+			return CompletableFuture.completedFuture(uuid);
+		}
+		
+		CompletableFuture<UUID> future = new CompletableFuture<>();
+		CompletableFuture<UUID> existing = inFlight.putIfAbsent(key, future);
+		if(existing != null){
+			return existing;
+		}
+		try{
+			executor.execute(() -> lookup(key, future));
+		} catch(RuntimeException e){
+			inFlight.remove(key, future);
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+	
+	/**
+	 * Resolves a name to its {@link OfflinePlayer}, the future completes on the resolvers executor unless the name was already cached
+	 *
+	 * @param name the name to resolve (case-insensitive)
+	 * @return a future completing with the player or null if no profile with this name exists
+	 */
+	public CompletableFuture<OfflinePlayer> resolveOfflinePlayer(@NotNull String name) {
+		return resolve(name).thenApply(uuid -> uuid == null ? null : Bukkit.getOfflinePlayer(uuid));
+	}
+	
+	/**
+	 * @return the cache used by this resolver
+	 */
+	public ProfileCache getCache() {
+		return cache;
+	}
+	
+	private void lookup(String key, CompletableFuture<UUID> future) {
+		try{
+			UUID uuid = source.lookup(key);
+			if(uuid != null){
+				cache.put(key, uuid);
+			}
+			inFlight.remove(key, future);
+			future.complete(uuid);
+		} catch(Exception e){
+			inFlight.remove(key, future);
+			future.completeExceptionally(e);
+		}
+	}
+}
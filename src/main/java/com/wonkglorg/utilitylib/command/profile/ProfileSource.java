@@ -0,0 +1,34 @@
+package com.wonkglorg.utilitylib.command.profile;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * A source that can turn a player name into its {@link UUID}, used by the {@link ProfileResolver} whenever the local {@link ProfileCache}
+ * does not know a name.
+ */
+public interface ProfileSource{
+	
+	/**
+	 * Fast, non-blocking lookup that is allowed to be called from the main thread (for example online players or a server side cache)
+	 *
+	 * @param name the name to look up
+	 * @return the uuid or null if it is not known without doing a remote lookup
+	 */
+	default @Nullable UUID cached(@NotNull String name) {
+		return null;
+	}
+	
+	/**
+	 * Blocking lookup, this is only ever called from the resolvers executor and never from the main thread
+	 *
+	 * @param name the name to look up
+	 * @return the uuid or null if no profile with this name exists
+	 * @throws IOException if the lookup failed
+	 */
+	@Nullable
+	UUID lookup(@NotNull String name) throws IOException;
+}
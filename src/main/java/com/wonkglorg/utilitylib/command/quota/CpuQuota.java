@@ -0,0 +1,192 @@
+package com.wonkglorg.utilitylib.command.quota;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per player budget of cpu time for command executions, throttling expensive commands by what they actually cost instead of how often
+ * they are called.
+ * <p>
+ * Every player has a token bucket of cpu nanoseconds that refills at a fixed rate up to its capacity. As the cost of an execution is
+ * only known once it finished, an execution is allowed while the bucket is not empty and its measured cpu time is charged afterwards, the
+ * bucket can go into debt that has to be refilled before the next execution. One quota can be shared by several commands.
+ * <p>
+ * Only the cpu time of the executing thread is measured, work a command hands off to other threads is not charged.
+ */
+@ThreadSafe
+public final class CpuQuota{
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+	/**
+	 * Full buckets are removed about every this many charges, so players that stopped using commands do not keep their bucket
+	 */
+	private static final int PURGE_INTERVAL = 4096;
+	private final long capacityNanos;
+	private final double refillPerNano;
+	private final Map<UUID, Bucket> buckets = new ConcurrentHashMap<>();
+	private final LongAdder charged = new LongAdder();
+	private final LongAdder executions = new LongAdder();
+	private final LongAdder throttled = new LongAdder();
+	private String message = "You are using commands too quickly, try again in %s.";
+	
+	/**
+	 * @param capacity the cpu time a player can burst before being throttled
+	 * @param refillPerSecond the cpu time added back to the budget of a player every second
+	 */
+	public CpuQuota(@NotNull Duration capacity, @NotNull Duration refillPerSecond) {
+		if(capacity.isNegative() || capacity.isZero() || refillPerSecond.isNegative() || refillPerSecond.isZero()){
+			throw new IllegalArgumentException("Capacity and refill rate of a cpu quota must be positive");
+		}
+		this.capacityNanos = capacity.toNanos();
+		this.refillPerNano = refillPerSecond.toNanos() / 1e9;
+		if(THREADS.isCurrentThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()){
+			THREADS.setThreadCpuTimeEnabled(true);
+		}
+	}
+	
+	/**
+	 * @return the cpu time in nanoseconds the current thread used so far or -1 if the jvm can not measure it
+	 */
+	public static long currentThreadCpuTime() {
+		return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+	}
+	
+	/**
+	 * Checks if a player has budget left to execute a command
+	 *
+	 * @param player the player
+	 * @return 0 if the player may execute, otherwise the time in milliseconds until the budget is refilled enough
+	 */
+	public long tryEnter(@NotNull UUID player) {
+		Bucket bucket = buckets.get(player);
+		if(bucket == null){
+			return 0;
+		}
+		long wait = bucket.waitNanos(System.nanoTime());
+		if(wait > 0){
+			throttled.increment();
+			return Math.max(1, wait / 1_000_000);
+		}
+		return 0;
+	}
+	
+	/**
+	 * Charges the cpu time of an execution to the budget of a player
+	 *
+	 * @param player the player
+	 * @param cpuNanos the cpu time the execution used
+	 */
+	public void charge(@NotNull UUID player, long cpuNanos) {
+		if(cpuNanos < 0){
+			return;
+		}
+		charged.add(cpuNanos);
+		executions.increment();
+		buckets.computeIfAbsent(player, uuid -> new Bucket()).charge(cpuNanos, System.nanoTime());
+		if(ThreadLocalRandom.current().nextInt(PURGE_INTERVAL) == 0){
+			purgeIdle();
+		}
+	}
+	
+	/**
+	 * @param player the player
+	 * @return the budget left in nanoseconds, negative while in debt
+	 */
+	public long getBalance(@NotNull UUID player) {
+		Bucket bucket = buckets.get(player);
+		return bucket == null ? capacityNanos : bucket.balance(System.nanoTime());
+	}
+	
+	/**
+	 * Resets the budget of a player to full
+	 *
+	 * @param player the player
+	 */
+	public void reset(@NotNull UUID player) {
+		buckets.remove(player);
+	}
+	
+	/**
+	 * Removes the buckets that refilled completely, they behave exactly like a missing bucket
+	 *
+	 * @return the amount of removed buckets
+	 */
+	public int purgeIdle() {
+		long now = System.nanoTime();
+		int before = buckets.size();
+		buckets.values().removeIf(bucket -> bucket.balance(now) >= capacityNanos);
+		return before - buckets.size();
+	}
+	
+	/**
+	 * @return the total cpu time in nanoseconds charged to all players
+	 */
+	public long getCharged() {
+		return charged.sum();
+	}
+	
+	/**
+	 * @return the amount of charged executions
+	 */
+	public long getExecutions() {
+		return executions.sum();
+	}
+	
+	/**
+	 * @return the amount of executions rejected because the budget was used up
+	 */
+	public long getThrottled() {
+		return throttled.sum();
+	}
+	
+	/**
+	 * @return the amount of players with a budget that is not full
+	 */
+	public int getTrackedPlayers() {
+		return buckets.size();
+	}
+	
+	/**
+	 * @param message the message sent to throttled players, %s is replaced with the time until they may execute again
+	 */
+	public void setMessage(@NotNull String message) {
+		this.message = message;
+	}
+	
+	public String getMessage() {
+		return message;
+	}
+	
+	private final class Bucket{
+		private double balance = capacityNanos;
+		private long lastRefill = System.nanoTime();
+		
+		private synchronized void refill(long now) {
+			balance = Math.min(capacityNanos, balance + (now - lastRefill) * refillPerNano);
+			lastRefill = now;
+		}
+		
+		private synchronized long balance(long now) {
+			refill(now);
+			return (long) balance;
+		}
+		
+		private synchronized long waitNanos(long now) {
+			refill(now);
+			return balance > 0 ? 0 : (long) Math.ceil((1 - balance) / refillPerNano);
+		}
+		
+		private synchronized void charge(long cpuNanos, long now) {
+			refill(now);
+			balance -= cpuNanos;
+		}
+	}
+}
@@ -0,0 +1,391 @@
+package com.wonkglorg.utilitylib.command.schedule;
+
+import com.wonkglorg.utilitylib.command.cooldown.time.TimeBuilder;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executes command lines at a later time ("restart in 2h30m"), through {@link Bukkit#dispatchCommand(CommandSender, String)} so they pass
+ * the same dispatch (gates, cooldowns, metrics) as typed commands.
+ * <p>
+ * Pending commands are held in a priority queue ordered by due time. Instead of checking the queue every tick a single task is scheduled
+ * for the due time of the head, scheduling or cancelling is O(log n) and nothing is scanned. Cancelled entries are only removed from the
+ * queue once they reach its head. If a file is given pending commands are saved to it and commands that became due while the server was
+ * offline run right after it started.
+ */
+@ThreadSafe
+public final class CommandScheduler{
+	private static final Logger LOGGER = Logger.getLogger(CommandScheduler.class.getName());
+	private static final int MAGIC = 0x554C5343; //ULSC
+	private static final int VERSION = 1;
+	private static final long MILLIS_PER_TICK = 50;
+	/**
+	 * Most commands executed in a single tick, the remaining due ones run in the following ticks
+	 */
+	private static final int MAX_PER_TICK = 100;
+	/**
+	 * Ticks between saves of the pending commands, only saved if they changed
+	 */
+	private static final long SAVE_INTERVAL_TICKS = 20 * 60;
+	/**
+	 * Longest command line in bytes {@link DataOutputStream#writeUTF(String)} can save
+	 */
+	private static final int MAX_LINE_BYTES = 65535;
+	private final Plugin plugin;
+	private final Path file;
+	private final PriorityQueue<ScheduledCommand> queue = new PriorityQueue<>(ScheduledCommand.DUE_ORDER);
+	/**
+	 * Id -> entry of every pending, not cancelled entry
+	 */
+	private final Map<Long, ScheduledCommand> pending = new HashMap<>();
+	private long nextId = 1;
+	private BukkitTask wakeup;
+	private long wakeupAt = Long.MAX_VALUE;
+	private BukkitTask saveTask;
+	private boolean dirty;
+	/**
+	 * Held while saving, taken before the monitor of the scheduler
+	 */
+	private final Object saveLock = new Object();
+	
+	/**
+	 * Creates a scheduler that keeps its pending commands in memory only
+	 *
+	 * @param plugin the plugin to schedule the executions for
+	 */
+	public CommandScheduler(@NotNull Plugin plugin) {
+		this.plugin = plugin;
+		this.file = null;
+	}
+	
+	/**
+	 * Creates a scheduler that saves its pending commands to the given file and loads the ones saved before
+	 *
+	 * @param plugin the plugin to schedule the executions for
+	 * @param file the file the pending commands are saved in
+	 * @throws IOException if the saved commands could not be read
+	 */
+	public CommandScheduler(@NotNull Plugin plugin, @NotNull Path file) throws IOException {
+		this.plugin = plugin;
+		this.file = file;
+		load();
+		this.saveTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::saveIfDirty, SAVE_INTERVAL_TICKS, SAVE_INTERVAL_TICKS);
+	}
+	
+	/**
+	 * Schedules a command executed by the console
+	 *
+	 * @param commandLine the command line, with or without leading slash
+	 * @param delay the delay in the format of {@link TimeBuilder#fromTimeString(String)}, for example {@code 2h30m}
+	 * @return the scheduled entry
+	 * @throws IllegalArgumentException if the delay could not be parsed or the command line is {@link #fits(String) too long}
+	 */
+	public ScheduledCommand schedule(@NotNull String commandLine, @NotNull String delay) {
+		return schedule(null, commandLine, delay);
+	}
+	
+	/**
+	 * Schedules a command
+	 *
+	 * @param sender the player executing the command or null for the console
+	 * @param commandLine the command line, with or without leading slash
+	 * @param delay the delay in the format of {@link TimeBuilder#fromTimeString(String)}, for example {@code 2h30m}
+	 * @return the scheduled entry
+	 * @throws IllegalArgumentException if the delay could not be parsed or the command line is {@link #fits(String) too long}
+	 */
+	public ScheduledCommand schedule(@Nullable UUID sender, @NotNull String commandLine, @NotNull String delay) {
+		long delayMillis = TimeBuilder.fromTimeString(delay).toMilliseconds();
+		if(delayMillis <= 0){
+			throw new IllegalArgumentException("Invalid delay: " + delay);
+		}
+		return scheduleAt(sender, commandLine, System.currentTimeMillis() + delayMillis);
+	}
+	
+	/**
+	 * Schedules a command
+	 *
+	 * @param sender the player executing the command or null for the console
+	 * @param commandLine the command line, with or without leading slash
+	 * @param delay the delay until the command is executed
+	 * @return the scheduled entry
+	 * @throws IllegalArgumentException if the command line is {@link #fits(String) too long}
+	 */
+	public ScheduledCommand schedule(@Nullable UUID sender, @NotNull String commandLine, @NotNull Duration delay) {
+		return scheduleAt(sender, commandLine, System.currentTimeMillis() + delay.toMillis());
+	}
+	
+	/**
+	 * Schedules a command
+	 *
+	 * @param sender the player executing the command or null for the console
+	 * @param commandLine the command line, with or without leading slash
+	 * @param runAt the time in epoch milliseconds to execute the command at
+	 * @return the scheduled entry
+	 * @throws IllegalArgumentException if the command line is {@link #fits(String) too long}
+	 */
+	public synchronized ScheduledCommand scheduleAt(@Nullable UUID sender, @NotNull String commandLine, long runAt) {
+		String line = commandLine.startsWith("/") ? commandLine.substring(1) : commandLine;
+		if(!fits(line)){
+			throw new IllegalArgumentException("Command line too long to be saved: " + line.length() + " characters");
+		}
+		ScheduledCommand entry = new ScheduledCommand(nextId++, runAt, line, sender);
+		add(entry);
+		dirty = true;
+		wakeUpAt(runAt);
+		return entry;
+	}
+	
+	/**
+	 * Checks if a command line can be saved, the file stores it as modified UTF-8 which is limited to 65535 bytes
+	 *
+	 * @param commandLine the command line
+	 * @return true if the command line can be scheduled
+	 */
+	public static boolean fits(@NotNull String commandLine) {
+		if(commandLine.length() > MAX_LINE_BYTES){
+			return false;
+		}
+		long bytes = 0;
+		for(int i = 0; i < commandLine.length(); i++){
+			char c = commandLine.charAt(i);
+			bytes += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+		}
+		return bytes <= MAX_LINE_BYTES;
+	}
+	
+	/**
+	 * Cancels a pending command
+	 *
+	 * @param id the id of the entry
+	 * @return the cancelled entry or null if no entry with the id is pending
+	 */
+	public synchronized @Nullable ScheduledCommand cancel(long id) {
+		ScheduledCommand entry = pending.remove(id);
+		if(entry != null){
+			dirty = true;
+		}
+		return entry;
+	}
+	
+	/**
+	 * @return the pending commands ordered by due time
+	 */
+	public synchronized List<ScheduledCommand> getPending() {
+		List<ScheduledCommand> entries = new ArrayList<>(pending.values());
+		entries.sort(ScheduledCommand.DUE_ORDER);
+		return entries;
+	}
+	
+	/**
+	 * @param id the id of the entry
+	 * @return the pending entry or null if no entry with the id is pending
+	 */
+	public synchronized @Nullable ScheduledCommand getPending(long id) {
+		return pending.get(id);
+	}
+	
+	/**
+	 * @return the amount of pending commands
+	 */
+	public synchronized int size() {
+		return pending.size();
+	}
+	
+	/**
+	 * Stops executing commands and saves the pending ones, called when the plugin disables
+	 *
+	 * @throws IOException if the pending commands could not be saved
+	 */
+	public void shutdown() throws IOException {
+		synchronized(this){
+			if(wakeup != null){
+				wakeup.cancel();
+				wakeup = null;
+			}
+			wakeupAt = Long.MAX_VALUE;
+			if(saveTask != null){
+				saveTask.cancel();
+				saveTask = null;
+			}
+		}
+		save();
+	}
+	
+	private void add(ScheduledCommand entry) {
+		queue.add(entry);
+		pending.put(entry.id(), entry);
+	}
+	
+	/**
+	 * Makes sure the wakeup task runs no later than the given time
+	 */
+	private void wakeUpAt(long runAt) {
+		if(runAt >= wakeupAt){
+			return;
+		}
+		if(wakeup != null){
+			wakeup.cancel();
+		}
+		long delayTicks = Math.max(1, (runAt - System.currentTimeMillis() + MILLIS_PER_TICK - 1) / MILLIS_PER_TICK);
+		wakeupAt = runAt;
+		wakeup = Bukkit.getScheduler().runTaskLater(plugin, this::runDue, delayTicks);
+	}
+	
+	/**
+	 * Executes the due commands on the main thread and schedules the wakeup for the next one
+	 */
+	private void runDue() {
+		List<ScheduledCommand> due = new ArrayList<>();
+		synchronized(this){
+			wakeup = null;
+			wakeupAt = Long.MAX_VALUE;
+			long now = System.currentTimeMillis();
+			ScheduledCommand head;
+			while(due.size() < MAX_PER_TICK && (head = queue.peek()) != null && (head.runAt() <= now || !pending.containsKey(head.id()))){
+				queue.poll();
+				if(pending.remove(head.id()) != null){
+					due.add(head);
+				}
+			}
+			dirty |= !due.isEmpty();
+			//drop cancelled entries at the head so the wakeup is not scheduled for them
+			while((head = queue.peek()) != null && !pending.containsKey(head.id())){
+				queue.poll();
+			}
+			if(head != null){
+				wakeUpAt(due.size() == MAX_PER_TICK ? now : head.runAt());
+			}
+		}
+		for(ScheduledCommand entry : due){
+			execute(entry);
+		}
+	}
+	
+	private void execute(ScheduledCommand entry) {
+		CommandSender sender;
+		if(entry.sender() == null){
+			sender = Bukkit.getConsoleSender();
+		} else {
+			Player player = Bukkit.getPlayer(entry.sender());
+			if(player == null){
+				LOGGER.info("Skipped scheduled command /" + entry.commandLine() + ", its sender " + entry.sender() + " is offline");
+				return;
+			}
+			sender = player;
+		}
+		try{
+			if(!Bukkit.dispatchCommand(sender, entry.commandLine())){
+				LOGGER.warning("Scheduled command /" + entry.commandLine() + " does not exist");
+			}
+		} catch(RuntimeException e){
+			LOGGER.log(Level.SEVERE, "Scheduled command /" + entry.commandLine() + " failed", e);
+		}
+	}
+	
+	private void saveIfDirty() {
+		try{
+			save();
+		} catch(IOException e){
+			LOGGER.log(Level.WARNING, "Could not save scheduled commands", e);
+		}
+	}
+	
+	/**
+	 * Saves the pending commands if they changed since the last save, a no-op without file
+	 *
+	 * @throws IOException if the commands could not be saved
+	 */
+	public void save() throws IOException {
+		if(file == null){
+			return;
+		}
+		//the timer and shutdown may save at the same time, the snapshot and the write happen under one lock so they share no temp file
+		//and an older snapshot never replaces a newer one
+		synchronized(saveLock){
+			List<ScheduledCommand> entries;
+			long nextId;
+			synchronized(this){
+				if(!dirty){
+					return;
+				}
+				entries = new ArrayList<>(pending.values());
+				nextId = this.nextId;
+				dirty = false;
+			}
+			Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+			try{
+				try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))){
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					out.writeLong(nextId);
+					out.writeInt(entries.size());
+					for(ScheduledCommand entry : entries){
+						out.writeLong(entry.id());
+						out.writeLong(entry.runAt());
+						out.writeUTF(entry.commandLine());
+						out.writeBoolean(entry.sender() != null);
+						if(entry.sender() != null){
+							out.writeLong(entry.sender().getMostSignificantBits());
+							out.writeLong(entry.sender().getLeastSignificantBits());
+						}
+					}
+				}
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch(IOException e){
+				synchronized(this){
+					dirty = true;
+				}
+				throw e;
+			}
+		}
+	}
+	
+	private synchronized void load() throws IOException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))){
+			if(in.readInt() != MAGIC || in.readInt() != VERSION){
+				throw new IOException("Invalid scheduled command file " + file);
+			}
+			nextId = in.readLong();
+			int size = in.readInt();
+			long first = Long.MAX_VALUE;
+			for(int i = 0; i < size; i++){
+				long id = in.readLong();
+				long runAt = in.readLong();
+				String commandLine = in.readUTF();
+				UUID sender = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+				add(new ScheduledCommand(id, runAt, commandLine, sender));
+				first = Math.min(first, runAt);
+			}
+			if(first != Long.MAX_VALUE){
+				wakeUpAt(first);
+			}
+		} catch(NoSuchFileException e){
+			//nothing scheduled yet
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.wonkglorg.utilitylib.command.schedule;
+
+import com.wonkglorg.utilitylib.command.Subcommand;
+import com.wonkglorg.utilitylib.command.cooldown.time.TimeBuilder;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Subcommand managing the console commands of a {@link CommandScheduler}, can be mounted under any admin command.
+ * <p>
+ * Usage: {@code <parent> <delay> <command...>}, {@code <parent> list [amount]} or {@code <parent> cancel <id>}
+ */
+public class ScheduleSubcommand extends Subcommand{
+	private final CommandScheduler scheduler;
+	
+	/**
+	 * @param index The index of the argument in the command
+	 * @param scheduler the scheduler to manage
+	 */
+	public ScheduleSubcommand(int index, CommandScheduler scheduler) {
+		super(index);
+		this.scheduler = scheduler;
+	}
+	
+	@Override
+	protected boolean execute(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		String first = argAsString(0);
+		if(first == null){
+			return false;
+		}
+		if(compareString(first, "list")){
+			int amount = argAsInteger(1, 10);
+			List<ScheduledCommand> pending = scheduler.getPending();
+			sender.sendMessage("%d scheduled commands:".formatted(pending.size()));
+			long now = System.currentTimeMillis();
+			for(int i = 0; i < Math.min(amount, pending.size()); i++){
+				ScheduledCommand entry = pending.get(i);
+				String in = TimeBuilder.toTimeString().inputMillie(Math.max(0, entry.runAt() - now)).build();
+				sender.sendMessage("#%d in %s: /%s".formatted(entry.id(), in, entry.commandLine()));
+			}
+			return true;
+		}
+		if(compareString(first, "cancel")){
+			long id = argAsLong(1, -1);
+			ScheduledCommand cancelled = scheduler.cancel(id);
+			sender.sendMessage(cancelled == null ? "No scheduled command with id " + argAsString(1) + "." : "Cancelled /" + cancelled.commandLine() + ".");
+			return true;
+		}
+		if(argCount() < 2){
+			return false;
+		}
+		String commandLine = String.join(" ", Arrays.copyOfRange(getArgs(), getArgumentIndex() + 1, getArgs().length));
+		if(!CommandScheduler.fits(commandLine)){
+			sender.sendMessage("The command is too long to be scheduled.");
+			return true;
+		}
+		ScheduledCommand entry;
+		try{
+			entry = scheduler.schedule(commandLine, first);
+		} catch(IllegalArgumentException e){
+			sender.sendMessage("Invalid delay " + first + ", use for example 2h30m.");
+			return true;
+		}
+		sender.sendMessage("Scheduled #%d: /%s".formatted(entry.id(), entry.commandLine()));
+		return true;
+	}
+	
+	@Override
+	protected List<String> tabComplete(@NotNull Player player, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if(argCount() == 1){
+			return matchArg(argAsString(0), List.of("list", "cancel", "30m", "1h", "2h30m", "1d"));
+		}
+		if(argCount() == 2 && compareString(argAsString(0), "cancel")){
+			return matchArg(argAsString(1), scheduler.getPending().stream().map(entry -> String.valueOf(entry.id())).toList());
+		}
+		return List.of();
+	}
+}
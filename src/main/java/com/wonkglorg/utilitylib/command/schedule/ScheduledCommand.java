@@ -0,0 +1,22 @@
+package com.wonkglorg.utilitylib.command.schedule;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * A command line waiting to be executed by a {@link CommandScheduler}
+ *
+ * @param id the id of the entry, unique within its scheduler
+ * @param runAt the time in epoch milliseconds the command is due at
+ * @param commandLine the command line without leading slash
+ * @param sender the player executing the command or null for the console
+ */
+public record ScheduledCommand(long id, long runAt, @NotNull String commandLine, @Nullable UUID sender){
+	/**
+	 * Orders entries by due time, entries due at the same time in the order they were scheduled
+	 */
+	static final Comparator<ScheduledCommand> DUE_ORDER = Comparator.comparingLong(ScheduledCommand::runAt).thenComparingLong(ScheduledCommand::id);
+}
@@ -0,0 +1,741 @@
+package com.wonkglorg.utilitylib.command.selector;
+
+import com.wonkglorg.utilitylib.command.permission.PermissionCache;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A compiled vanilla style entity selector such as {@code @a[distance=..20]} or {@code @e[type=zombie,limit=5,sort=nearest]}.
+ * <p>
+ * Supported are {@code @p @a @r @e @s} with the options {@code type, name, tag, gamemode} (each negatable with {@code !}),
+ * {@code distance, x, y, z, dx, dy, dz, limit} and {@code sort}. Like in vanilla negated {@code type, name, gamemode} options and every
+ * {@code tag} option can be repeated and all of them have to match, the others can only be given once. Selectors with a position (distance, volume or coordinates) and limited
+ * nearest first selectors look at the loaded chunks around the origin, ring by ring from the origin outwards, instead of iterating every
+ * entity of the world, the latter only visit other worlds if the world of the origin has fewer matches than their limit. Unsorted
+ * selectors stop once {@code limit} entities matched, nearest first selectors once no entity of the following rings can be closer than
+ * the ones found.
+ * <p>
+ * Selectors are immutable and compiled selectors are cached by their input, resolving one has to happen on the main thread. Only
+ * senders with the {@value #PERMISSION} permission can resolve selectors.
+ */
+@ThreadSafe
+public final class EntitySelector{
+	/**
+	 * Permission required to resolve selectors, the one vanilla uses
+	 */
+	public static final String PERMISSION = "minecraft.command.selector";
+	private static final int PERMISSION_ID = PermissionCache.global().id(PERMISSION);
+	private static final int CACHE_SIZE = 512;
+	private static final Map<String, EntitySelector> CACHE = new ConcurrentHashMap<>();
+	private final String input;
+	private final Target target;
+	private EntityType type;
+	private final EnumSet<EntityType> excludedTypes = EnumSet.noneOf(EntityType.class);
+	private String name;
+	private final List<String> excludedNames = new ArrayList<>();
+	private final List<String> tags = new ArrayList<>();
+	private final List<String> excludedTags = new ArrayList<>();
+	private GameMode gameMode;
+	private final EnumSet<GameMode> excludedGameModes = EnumSet.noneOf(GameMode.class);
+	private double minDistance = 0;
+	private double maxDistance = Double.POSITIVE_INFINITY;
+	private Double x;
+	private Double y;
+	private Double z;
+	private double dx = Double.NaN;
+	private double dy = Double.NaN;
+	private double dz = Double.NaN;
+	private int limit;
+	private Sort sort;
+	
+	private EntitySelector(String input, Target target) {
+		this.input = input;
+		this.target = target;
+		this.limit = target.limit;
+		this.sort = target.sort;
+	}
+	
+	/**
+	 * @param input the argument to check
+	 * @return true if the argument is a selector rather than a name
+	 */
+	public static boolean isSelector(@Nullable String input) {
+		return input != null && input.length() >= 2 && input.charAt(0) == '@';
+	}
+	
+	/**
+	 * @param sender the sender to check
+	 * @return true if the sender is allowed to resolve selectors
+	 */
+	public static boolean canUse(@NotNull CommandSender sender) {
+		return PermissionCache.global().has(sender, PERMISSION_ID);
+	}
+	
+	/**
+	 * Compiles a selector or returns the cached one
+	 *
+	 * @param input the selector, for example {@code @e[type=zombie,limit=5]}
+	 * @return the compiled selector
+	 * @throws IllegalArgumentException if the selector is invalid
+	 */
+	public static EntitySelector compile(@NotNull String input) {
+		EntitySelector selector = CACHE.get(input);
+		if(selector != null){
+			return selector;
+		}
+		selector = parse(input);
+		if(CACHE.size() >= CACHE_SIZE){
+			CACHE.clear();
+		}
+		CACHE.put(input, selector);
+		return selector;
+	}
+	
+	private static EntitySelector parse(String input) {
+		if(!isSelector(input)){
+			throw new IllegalArgumentException("Not a selector: " + input);
+		}
+		Target target = Target.of(input.charAt(1));
+		if(target == null){
+			throw new IllegalArgumentException("Unknown selector @" + input.charAt(1));
+		}
+		EntitySelector selector = new EntitySelector(input, target);
+		if(input.length() == 2){
+			return selector;
+		}
+		if(input.charAt(2) != '[' || input.charAt(input.length() - 1) != ']'){
+			throw new IllegalArgumentException("Invalid selector options: " + input);
+		}
+		String options = input.substring(3, input.length() - 1);
+		if(options.isBlank()){
+			return selector;
+		}
+		for(String option : splitOptions(options)){
+			int separator = option.indexOf('=');
+			if(separator <= 0){
+				throw new IllegalArgumentException("Invalid selector option: " + option);
+			}
+			selector.option(option.substring(0, separator).trim().toLowerCase(Locale.ROOT), option.substring(separator + 1).trim());
+		}
+		if(selector.target.playersOnly && (selector.type != null && selector.type != EntityType.PLAYER || selector.excludedTypes.contains(EntityType.PLAYER))){
+			throw new IllegalArgumentException("@" + selector.target.character + " only selects players");
+		}
+		return selector;
+	}
+	
+	/**
+	 * Splits the options at the commas outside of quoted values, so {@code name="a,b"} stays one option
+	 */
+	private static List<String> splitOptions(String options) {
+		List<String> split = new ArrayList<>();
+		boolean quoted = false;
+		int start = 0;
+		for(int i = 0; i < options.length(); i++){
+			char c = options.charAt(i);
+			if(quoted && c == '\\'){
+				i++;
+			} else if(c == '"'){
+				quoted = !quoted;
+			} else if(c == ',' && !quoted){
+				split.add(options.substring(start, i));
+				start = i + 1;
+			}
+		}
+		if(quoted){
+			throw new IllegalArgumentException("Unclosed quote in selector options: " + options);
+		}
+		split.add(options.substring(start));
+		return split;
+	}
+	
+	private void option(String key, String value) {
+		boolean negated = value.startsWith("!");
+		String plain = negated ? value.substring(1) : value;
+		switch(key){
+			case "type" -> {
+				EntityType type = entityType(plain);
+				if(negated){
+					excludedTypes.add(type);
+				} else {
+					this.type = once(key, this.type, type);
+				}
+			}
+			case "name" -> {
+				String name = unquote(plain);
+				if(negated){
+					excludedNames.add(name);
+				} else {
+					this.name = once(key, this.name, name);
+				}
+			}
+			case "tag" -> (negated ? excludedTags : tags).add(plain);
+			case "gamemode" -> {
+				GameMode gameMode;
+				try{
+					gameMode = GameMode.valueOf(plain.toUpperCase(Locale.ROOT));
+				} catch(IllegalArgumentException e){
+					throw new IllegalArgumentException("Unknown game mode: " + plain);
+				}
+				if(negated){
+					excludedGameModes.add(gameMode);
+				} else {
+					this.gameMode = once(key, this.gameMode, gameMode);
+				}
+			}
+			case "distance" -> {
+				double[] range = range(value);
+				minDistance = range[0];
+				maxDistance = range[1];
+			}
+			case "x" -> x = number(key, value);
+			case "y" -> y = number(key, value);
+			case "z" -> z = number(key, value);
+			case "dx" -> dx = number(key, value);
+			case "dy" -> dy = number(key, value);
+			case "dz" -> dz = number(key, value);
+			case "limit" -> {
+				limit = (int) number(key, value);
+				if(limit < 1 || limit != number(key, value)){
+					throw new IllegalArgumentException("Limit must be a positive integer: " + value);
+				}
+			}
+			case "sort" -> {
+				try{
+					sort = Sort.valueOf(value.toUpperCase(Locale.ROOT));
+				} catch(IllegalArgumentException e){
+					throw new IllegalArgumentException("Unknown sort: " + value);
+				}
+			}
+			default -> throw new IllegalArgumentException("Unknown selector option: " + key);
+		}
+	}
+	
+	private static <T> T once(String key, T current, T value) {
+		if(current != null){
+			throw new IllegalArgumentException("Option " + key + " can only be given once unless negated");
+		}
+		return value;
+	}
+	
+	private static EntityType entityType(String value) {
+		String type = value.toLowerCase(Locale.ROOT);
+		if(type.startsWith("minecraft:")){
+			type = type.substring("minecraft:".length());
+		}
+		try{
+			return EntityType.valueOf(type.toUpperCase(Locale.ROOT));
+		} catch(IllegalArgumentException e){
+			throw new IllegalArgumentException("Unknown entity type: " + value);
+		}
+	}
+	
+	private static String unquote(String value) {
+		if(value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")){
+			return value;
+		}
+		StringBuilder unquoted = new StringBuilder(value.length() - 2);
+		for(int i = 1; i < value.length() - 1; i++){
+			char c = value.charAt(i);
+			if(c == '\\' && i + 1 < value.length() - 1){
+				c = value.charAt(++i);
+			}
+			unquoted.append(c);
+		}
+		return unquoted.toString();
+	}
+	
+	private static double number(String key, String value) {
+		try{
+			return Double.parseDouble(value);
+		} catch(NumberFormatException e){
+			throw new IllegalArgumentException("Invalid number for " + key + ": " + value);
+		}
+	}
+	
+	/**
+	 * Parses {@code 5}, {@code 5..}, {@code ..20} or {@code 5..20}
+	 */
+	private static double[] range(String value) {
+		int dots = value.indexOf("..");
+		if(dots < 0){
+			double exact = number("distance", value);
+			return new double[]{exact, exact};
+		}
+		String min = value.substring(0, dots);
+		String max = value.substring(dots + 2);
+		if(min.isEmpty() && max.isEmpty()){
+			throw new IllegalArgumentException("Invalid range: " + value);
+		}
+		double[] range = {min.isEmpty() ? 0 : number("distance", min), max.isEmpty() ? Double.POSITIVE_INFINITY : number("distance", max)};
+		if(range[0] < 0 || range[0] > range[1]){
+			throw new IllegalArgumentException("Invalid range: " + value);
+		}
+		return range;
+	}
+	
+	/**
+	 * Resolves the selector
+	 *
+	 * @param sender the sender the selector is resolved for, its position is the origin
+	 * @return the selected entities in the order of the selectors sort, empty if the sender may not use selectors
+	 */
+	public List<Entity> select(@NotNull CommandSender sender) {
+		if(!canUse(sender)){
+			return List.of();
+		}
+		Location origin = origin(sender);
+		if(target == Target.SELF){
+			return sender instanceof Entity entity && matches(entity, origin, origin.clone()) ? List.of(entity) : List.of();
+		}
+		Collector collector = new Collector(limit, sort, origin);
+		Location scratch = origin.clone();
+		if(playersOnly()){
+			for(Player player : candidatePlayers(origin)){
+				if(matches(player, origin, scratch)){
+					collector.add(player, scratch);
+					if(collector.isFull()){
+						break;
+					}
+				}
+			}
+		} else if(isPositional()){
+			scanChunks(origin, collector, scratch);
+		} else if(sort == Sort.NEAREST && limit != Integer.MAX_VALUE){
+			//entities of other worlds are infinitely far away, they only fill up the limit if the world of the origin has too few
+			scanChunks(origin, collector, scratch);
+			scan:
+			for(World world : Bukkit.getWorlds()){
+				if(collector.size() >= limit){
+					break;
+				}
+				if(world == origin.getWorld()){
+					continue;
+				}
+				for(Entity entity : world.getEntities()){
+					if(matches(entity, origin, scratch)){
+						collector.add(entity, scratch);
+						if(collector.size() >= limit){
+							break scan;
+						}
+					}
+				}
+			}
+		} else {
+			scan:
+			for(World world : Bukkit.getWorlds()){
+				for(Entity entity : world.getEntities()){
+					if(matches(entity, origin, scratch)){
+						collector.add(entity, scratch);
+						if(collector.isFull()){
+							break scan;
+						}
+					}
+				}
+			}
+		}
+		return collector.result();
+	}
+	
+	/**
+	 * Resolves the selector and keeps only the players
+	 *
+	 * @param sender the sender the selector is resolved for, its position is the origin
+	 * @return the selected players in the order of the selectors sort, empty if the sender may not use selectors
+	 */
+	public List<Player> selectPlayers(@NotNull CommandSender sender) {
+		List<Player> players = new ArrayList<>();
+		for(Entity entity : select(sender)){
+			if(entity instanceof Player player){
+				players.add(player);
+			}
+		}
+		return players;
+	}
+	
+	/**
+	 * @return true if the selector can only select players
+	 */
+	public boolean playersOnly() {
+		return target.playersOnly || type == EntityType.PLAYER;
+	}
+	
+	/**
+	 * @return true if the selector is limited to the world of its origin
+	 */
+	public boolean isPositional() {
+		return x != null || y != null || z != null || maxDistance != Double.POSITIVE_INFINITY || minDistance > 0 || hasVolume();
+	}
+	
+	private boolean hasVolume() {
+		return !Double.isNaN(dx) || !Double.isNaN(dy) || !Double.isNaN(dz);
+	}
+	
+	private Collection<? extends Player> candidatePlayers(Location origin) {
+		//like vanilla @p and positional selectors stay in the world of the origin, others span all worlds
+		return target == Target.NEAREST_PLAYER || isPositional() ? origin.getWorld().getPlayers() : Bukkit.getOnlinePlayers();
+	}
+	
+	private Location origin(CommandSender sender) {
+		Location origin;
+		if(sender instanceof Entity entity){
+			origin = entity.getLocation();
+		} else if(sender instanceof BlockCommandSender block){
+			origin = block.getBlock().getLocation().add(0.5, 0, 0.5);
+		} else {
+			origin = Bukkit.getWorlds().get(0).getSpawnLocation();
+		}
+		if(x != null){
+			origin.setX(x);
+		}
+		if(y != null){
+			origin.setY(y);
+		}
+		if(z != null){
+			origin.setZ(z);
+		}
+		return origin;
+	}
+	
+	/**
+	 * Checks every filter of the selector, cheapest first
+	 *
+	 * @param scratch location the position of the entity is written to, reused to not allocate per entity
+	 */
+	private boolean matches(Entity entity, Location origin, Location scratch) {
+		if(type != null && entity.getType() != type || !excludedTypes.isEmpty() && excludedTypes.contains(entity.getType())){
+			return false;
+		}
+		if(!entity.isValid()){
+			return false;
+		}
+		if((gameMode != null || !excludedGameModes.isEmpty()) && !matchesGameMode(entity)){
+			return false;
+		}
+		if(isPositional() || sort == Sort.NEAREST || sort == Sort.FURTHEST){
+			entity.getLocation(scratch);
+			if(scratch.getWorld() != origin.getWorld()){
+				return !isPositional() && matchesNonPositional(entity);
+			}
+			if(hasVolume() && !inVolume(origin, scratch)){
+				return false;
+			}
+			if(minDistance > 0 || maxDistance != Double.POSITIVE_INFINITY){
+				double distance = origin.distanceSquared(scratch);
+				if(distance < minDistance * minDistance || distance > maxDistance * maxDistance){
+					return false;
+				}
+			}
+		}
+		return matchesNonPositional(entity);
+	}
+	
+	private boolean matchesGameMode(Entity entity) {
+		if(!(entity instanceof Player player)){
+			return false;
+		}
+		GameMode mode = player.getGameMode();
+		return (gameMode == null || mode == gameMode) && !excludedGameModes.contains(mode);
+	}
+	
+	private boolean matchesNonPositional(Entity entity) {
+		if(name != null || !excludedNames.isEmpty()){
+			String entityName = entity.getName();
+			if(name != null && !name.equals(entityName) || excludedNames.contains(entityName)){
+				return false;
+			}
+		}
+		if(tags.isEmpty() && excludedTags.isEmpty()){
+			return true;
+		}
+		Set<String> entityTags = entity.getScoreboardTags();
+		for(String tag : tags){
+			if(!entityTags.contains(tag)){
+				return false;
+			}
+		}
+		for(String tag : excludedTags){
+			if(entityTags.contains(tag)){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private boolean inVolume(Location origin, Location position) {
+		return inRange(origin.getX(), dx, position.getX()) && inRange(origin.getY(), dy, position.getY()) && inRange(origin.getZ(), dz, position.getZ());
+	}
+	
+	private static boolean inRange(double start, double delta, double value) {
+		if(Double.isNaN(delta)){
+			return true;
+		}
+		double min = Math.min(start, start + delta);
+		double max = Math.max(start, start + delta) + 1;
+		return value >= min && value < max;
+	}
+	
+	/**
+	 * Visits the loaded chunks around the origin ring by ring, ring r holding the chunks r chunks away from the origin chunk
+	 */
+	private void scanChunks(Location origin, Collector collector, Location scratch) {
+		World world = origin.getWorld();
+		double reach = reach(origin);
+		int originX = origin.getBlockX() >> 4;
+		int originZ = origin.getBlockZ() >> 4;
+		Chunk[] loaded = null;
+		int minX;
+		int maxX;
+		int minZ;
+		int maxZ;
+		if(reach == Double.POSITIVE_INFINITY){
+			loaded = world.getLoadedChunks();
+			minX = minZ = Integer.MIN_VALUE;
+			maxX = maxZ = Integer.MAX_VALUE;
+		} else {
+			minX = (int) Math.floor(origin.getX() - reach) >> 4;
+			maxX = (int) Math.floor(origin.getX() + reach) >> 4;
+			minZ = (int) Math.floor(origin.getZ() - reach) >> 4;
+			maxZ = (int) Math.floor(origin.getZ() + reach) >> 4;
+			long area = (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+			if(area > 256){
+				//a large area may be mostly unloaded, walking the loaded chunks is cheaper than probing every coordinate
+				Chunk[] chunks = world.getLoadedChunks();
+				if(chunks.length < area){
+					loaded = chunks;
+				}
+			}
+		}
+		if(loaded != null){
+			scanLoaded(loaded, originX, originZ, minX, maxX, minZ, maxZ, origin, collector, scratch);
+			return;
+		}
+		int rings = Math.max(Math.max(originX - minX, maxX - originX), Math.max(originZ - minZ, maxZ - originZ));
+		for(int ring = 0; ring <= rings; ring++){
+			for(int chunkX = originX - ring; chunkX <= originX + ring; chunkX++){
+				boolean edge = chunkX == originX - ring || chunkX == originX + ring;
+				//inner columns of a ring only have their top and bottom chunk in the ring
+				int step = edge || ring == 0 ? 1 : 2 * ring;
+				for(int chunkZ = originZ - ring; chunkZ <= originZ + ring; chunkZ += step){
+					if(chunkX < minX || chunkX > maxX || chunkZ < minZ || chunkZ > maxZ || !world.isChunkLoaded(chunkX, chunkZ)){
+						continue;
+					}
+					if(scanChunk(world.getChunkAt(chunkX, chunkZ), origin, collector, scratch)){
+						return;
+					}
+				}
+			}
+			if(collector.isSettled(ring * 16.0)){
+				return;
+			}
+		}
+	}
+	
+	private void scanLoaded(Chunk[] loaded,
+							int originX,
+							int originZ,
+							int minX,
+							int maxX,
+							int minZ,
+							int maxZ,
+							Location origin,
+							Collector collector,
+							Location scratch) {
+		List<Chunk> chunks = new ArrayList<>();
+		for(Chunk chunk : loaded){
+			if(chunk.getX() >= minX && chunk.getX() <= maxX && chunk.getZ() >= minZ && chunk.getZ() <= maxZ){
+				chunks.add(chunk);
+			}
+		}
+		chunks.sort(Comparator.comparingInt(chunk -> ring(chunk, originX, originZ)));
+		for(int i = 0; i < chunks.size(); i++){
+			Chunk chunk = chunks.get(i);
+			if(scanChunk(chunk, origin, collector, scratch)){
+				return;
+			}
+			int ring = ring(chunk, originX, originZ);
+			if((i + 1 == chunks.size() || ring(chunks.get(i + 1), originX, originZ) > ring) && collector.isSettled(ring * 16.0)){
+				return;
+			}
+		}
+	}
+	
+	private static int ring(Chunk chunk, int originX, int originZ) {
+		return Math.max(Math.abs(chunk.getX() - originX), Math.abs(chunk.getZ() - originZ));
+	}
+	
+	/**
+	 * @return true if the collector is full and the scan can stop
+	 */
+	private boolean scanChunk(Chunk chunk, Location origin, Collector collector, Location scratch) {
+		for(Entity entity : chunk.getEntities()){
+			if(matches(entity, origin, scratch)){
+				collector.add(entity, scratch);
+				if(collector.isFull()){
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return the horizontal distance from the origin no selected entity can exceed
+	 */
+	private double reach(Location origin) {
+		double reach = maxDistance;
+		if(!Double.isNaN(dx) && !Double.isNaN(dz)){
+			double volume = Math.max(Math.max(Math.abs(dx), Math.abs(dz)) + 1, 0) * Math.sqrt(2);
+			reach = Math.min(reach, volume);
+		}
+		return reach;
+	}
+	
+	@Override
+	public String toString() {
+		return input;
+	}
+	
+	/**
+	 * Collects the matching entities according to the sort and limit of a selector
+	 */
+	private static final class Collector{
+		private final int limit;
+		private final Sort sort;
+		private final Location origin;
+		private final List<Entity> entities = new ArrayList<>();
+		/**
+		 * Best {@link #limit} entities for nearest / furthest, the worst one at the head
+		 */
+		private final PriorityQueue<Candidate> candidates;
+		
+		private Collector(int limit, Sort sort, Location origin) {
+			this.limit = limit;
+			this.sort = sort;
+			this.origin = origin;
+			this.candidates = switch(sort){
+				case NEAREST -> new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+				case FURTHEST -> new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+				default -> null;
+			};
+		}
+		
+		/**
+		 * @param position the position of the entity, only read for sorted selectors
+		 */
+		private void add(Entity entity, Location position) {
+			if(candidates == null){
+				entities.add(entity);
+				return;
+			}
+			double distance = position.getWorld() == origin.getWorld() ? origin.distanceSquared(position) : Double.POSITIVE_INFINITY;
+			if(candidates.size() < limit){
+				candidates.add(new Candidate(entity, distance));
+			} else if(sort == Sort.NEAREST ? distance < candidates.peek().distance() : distance > candidates.peek().distance()){
+				candidates.poll();
+				candidates.add(new Candidate(entity, distance));
+			}
+		}
+		
+		private int size() {
+			return candidates != null ? candidates.size() : entities.size();
+		}
+		
+		/**
+		 * @return true if more entities can not change the result
+		 */
+		private boolean isFull() {
+			return sort == Sort.ARBITRARY && entities.size() >= limit;
+		}
+		
+		/**
+		 * @param minDistance the distance every entity not visited yet is at least away
+		 * @return true if no entity not visited yet can change the result
+		 */
+		private boolean isSettled(double minDistance) {
+			return sort == Sort.NEAREST && candidates.size() >= limit && candidates.peek().distance() <= minDistance * minDistance;
+		}
+		
+		private List<Entity> result() {
+			if(candidates != null){
+				Candidate[] sorted = candidates.toArray(new Candidate[0]);
+				Arrays.sort(sorted, sort == Sort.NEAREST ? Comparator.comparingDouble(Candidate::distance) :
+						Comparator.comparingDouble(Candidate::distance).reversed());
+				List<Entity> result = new ArrayList<>(sorted.length);
+				for(Candidate candidate : sorted){
+					result.add(candidate.entity());
+				}
+				return result;
+			}
+			if(sort == Sort.RANDOM){
+				Collections.shuffle(entities, ThreadLocalRandom.current());
+			}
+			return entities.size() > limit ? new ArrayList<>(entities.subList(0, limit)) : entities;
+		}
+	}
+	
+	private record Candidate(Entity entity, double distance){}
+	
+	/**
+	 * Orders of the selected entities
+	 */
+	public enum Sort{
+		NEAREST,
+		FURTHEST,
+		RANDOM,
+		ARBITRARY
+	}
+	
+	private enum Target{
+		NEAREST_PLAYER('p', true, 1, Sort.NEAREST),
+		ALL_PLAYERS('a', true, Integer.MAX_VALUE, Sort.ARBITRARY),
+		RANDOM_PLAYER('r', true, 1, Sort.RANDOM),
+		ALL_ENTITIES('e', false, Integer.MAX_VALUE, Sort.ARBITRARY),
+		SELF('s', false, 1, Sort.ARBITRARY);
+		
+		private final char character;
+		private final boolean playersOnly;
+		private final int limit;
+		private final Sort sort;
+		
+		Target(char character, boolean playersOnly, int limit, Sort sort) {
+			this.character = character;
+			this.playersOnly = playersOnly;
+			this.limit = limit;
+			this.sort = sort;
+		}
+		
+		private static Target of(char character) {
+			for(Target target : values()){
+				if(target.character == character){
+					return target;
+				}
+			}
+			return null;
+		}
+	}
+}
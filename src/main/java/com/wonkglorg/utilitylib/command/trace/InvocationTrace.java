@@ -0,0 +1,213 @@
+package com.wonkglorg.utilitylib.command.trace;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fixed size lock free ring buffer of the most recent command invocations, meant to be shared by all commands of a plugin.
+ * <p>
+ * Every record is stored as 6 primitive longs in a single array, recording claims a slot with one atomic increment and publishes it with
+ * a release store of its sequence number, readers discard slots that were overwritten while being read. Nothing is allocated per record.
+ * <p>
+ * Dump file layout (big endian): {@code int magic, byte version, int commandCount} followed by commandCount entries of
+ * {@code int id, utf name}, then {@code int recordCount} followed by recordCount entries of
+ * {@code long sequence, long timestampMillis, long uuidMost, long uuidLeast, int commandId, int argHash, long durationNanos, byte result}
+ */
+public final class InvocationTrace{
+	public static final byte SUCCESS = 0;
+	public static final byte FAILED = 1;
+	public static final byte REJECTED = 2;
+	public static final byte ERROR = 3;
+	
+	private static final int MAGIC = 0x554C5452; // ULTR
+	private static final byte VERSION = 1;
+	private static final int STRIDE = 6;
+	private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+	private static final Logger LOGGER = Logger.getLogger(InvocationTrace.class.getName());
+	
+	private final long[] data;
+	private final int mask;
+	private final AtomicLong cursor = new AtomicLong();
+	private final Map<String, Integer> commandIds = new ConcurrentHashMap<>();
+	private final AtomicInteger nextCommandId = new AtomicInteger();
+	
+	/**
+	 * @param capacity the amount of records to keep, rounded up to the next power of 2
+	 */
+	public InvocationTrace(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		this.data = new long[size * STRIDE];
+		this.mask = size - 1;
+	}
+	
+	/**
+	 * Gets the id of a command path, look it up once and keep it
+	 *
+	 * @param path the command path
+	 * @return the id used in records
+	 */
+	public int commandId(@NotNull String path) {
+		return commandIds.computeIfAbsent(path, key -> nextCommandId.getAndIncrement());
+	}
+	
+	/**
+	 * Records a single invocation
+	 *
+	 * @param commandId the id from {@link #commandId(String)}
+	 * @param sender the uuid of the sender or null for the console
+	 * @param argHash a hash of the arguments
+	 * @param durationNanos how long the invocation took
+	 * @param result one of {@link #SUCCESS}, {@link #FAILED}, {@link #REJECTED} or {@link #ERROR}
+	 */
+	public void record(int commandId, @Nullable UUID sender, int argHash, long durationNanos, byte result) {
+		long sequence = cursor.getAndIncrement();
+		int offset = (int) (sequence & mask) * STRIDE;
+		//mark the slot as being written
+		LONGS.setOpaque(data, offset, -(sequence + 1));
+		VarHandle.storeStoreFence();
+		data[offset + 1] = System.currentTimeMillis();
+		data[offset + 2] = sender == null ? 0 : sender.getMostSignificantBits();
+		data[offset + 3] = sender == null ? 0 : sender.getLeastSignificantBits();
+		data[offset + 4] = ((long) commandId << 32) | (argHash & 0xFFFFFFFFL);
+		data[offset + 5] = (Math.max(0, durationNanos) << 8) | (result & 0xFF);
+		LONGS.setRelease(data, offset, sequence + 1);
+	}
+	
+	/**
+	 * Hashes the arguments of an invocation
+	 *
+	 * @param args the arguments
+	 * @return the hash
+	 */
+	public static int hashArgs(@NotNull String[] args) {
+		int hash = 1;
+		for(String arg : args){
+			hash = 31 * hash + arg.hashCode();
+		}
+		return hash;
+	}
+	
+	/**
+	 * @return the amount of invocations recorded since creation (including overwritten ones)
+	 */
+	public long getRecorded() {
+		return cursor.get();
+	}
+	
+	/**
+	 * @return a consistent copy of all records still in the buffer, oldest first
+	 */
+	public List<Record> snapshot() {
+		long end = cursor.get();
+		long start = Math.max(0, end - (mask + 1));
+		List<Record> records = new ArrayList<>((int) (end - start));
+		for(long sequence = start; sequence < end; sequence++){
+			int offset = (int) (sequence & mask) * STRIDE;
+			long stamp = (long) LONGS.getAcquire(data, offset);
+			if(stamp != sequence + 1){
+				continue;
+			}
+			long timestamp = data[offset + 1];
+			long most = data[offset + 2];
+			long least = data[offset + 3];
+			long command = data[offset + 4];
+			long duration = data[offset + 5];
+			VarHandle.loadLoadFence();
+			if((long) LONGS.getOpaque(data, offset) != stamp){
+				//overwritten while reading
+				continue;
+			}
+			records.add(new Record(sequence,
+					timestamp,
+					most == 0 && least == 0 ? null : new UUID(most, least),
+					(int) (command >>> 32),
+					(int) command,
+					duration >>> 8,
+					(byte) duration));
+		}
+		return records;
+	}
+	
+	/**
+	 * Writes all records still in the buffer and the command id table to a binary file
+	 *
+	 * @param file the file to write to
+	 * @throws IOException if the file could not be written
+	 */
+	public void dump(@NotNull Path file) throws IOException {
+		List<Record> records = snapshot();
+		Path parent = file.toAbsolutePath().getParent();
+		if(parent != null){
+			Files.createDirectories(parent);
+		}
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))){
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			Map<String, Integer> ids = Map.copyOf(commandIds);
+			out.writeInt(ids.size());
+			for(Map.Entry<String, Integer> entry : ids.entrySet()){
+				out.writeInt(entry.getValue());
+				out.writeUTF(entry.getKey());
+			}
+			out.writeInt(records.size());
+			for(Record record : records){
+				out.writeLong(record.sequence());
+				out.writeLong(record.timestampMillis());
+				out.writeLong(record.sender() == null ? 0 : record.sender().getMostSignificantBits());
+				out.writeLong(record.sender() == null ? 0 : record.sender().getLeastSignificantBits());
+				out.writeInt(record.commandId());
+				out.writeInt(record.argHash());
+				out.writeLong(record.durationNanos());
+				out.writeByte(record.result());
+			}
+		}
+	}
+	
+	/**
+	 * Dumps the trace when the jvm shuts down (including shutdowns caused by a crash)
+	 *
+	 * @param file the file to write to
+	 * @return the registered hook, can be removed with {@link Runtime#removeShutdownHook(Thread)}
+	 */
+	public Thread dumpOnShutdown(@NotNull Path file) {
+		Thread hook = new Thread(() -> {
+			try{
+				dump(file);
+			} catch(IOException e){
+				LOGGER.log(Level.SEVERE, "Could not dump invocation trace to " + file, e);
+			}
+		}, "UtilityLib Trace Dump");
+		Runtime.getRuntime().addShutdownHook(hook);
+		return hook;
+	}
+	
+	/**
+	 * A single recorded invocation
+	 *
+	 * @param sequence the global sequence number
+	 * @param timestampMillis when the invocation finished
+	 * @param sender the uuid of the sender or null for the console
+	 * @param commandId the id of the command path
+	 * @param argHash the hash of the arguments
+	 * @param durationNanos how long the invocation took
+	 * @param result the result code
+	 */
+	public record Record(long sequence, long timestampMillis, UUID sender, int commandId, int argHash, long durationNanos, byte result){}
+}
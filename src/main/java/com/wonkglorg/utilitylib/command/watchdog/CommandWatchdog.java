@@ -0,0 +1,205 @@
+package com.wonkglorg.utilitylib.command.watchdog;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Detects command executions and completions on the main thread that take longer than a configured budget.
+ * <p>
+ * Dispatch only publishes the running execution in a volatile field, a separate daemon thread samples it and captures the stack of the
+ * main thread while the slow command is still running. Paths that exceed the budget repeatedly can be flagged so commands that allow it
+ * are executed asynchronously from then on.
+ */
+public final class CommandWatchdog{
+	private final Logger logger;
+	private final long budgetNanos;
+	private final long intervalMillis;
+	/**
+	 * Offences after which a path is flagged, 0 to never flag paths
+	 */
+	private final int flagThreshold;
+	private final Map<String, LongAdder> offences = new ConcurrentHashMap<>();
+	private final Set<String> flagged = ConcurrentHashMap.newKeySet();
+	
+	private volatile Execution current;
+	private volatile Thread monitor;
+	
+	/**
+	 * @param logger the logger to report slow executions to
+	 * @param budget the budget an execution may take
+	 * @param unit the unit of the budget
+	 * @param flagThreshold the amount of offences after which a path is flagged, 0 to never flag paths
+	 */
+	public CommandWatchdog(@NotNull Logger logger, long budget, @NotNull TimeUnit unit, int flagThreshold) {
+		this.logger = logger;
+		this.budgetNanos = unit.toNanos(budget);
+		this.intervalMillis = Math.max(1, unit.toMillis(budget) / 4);
+		this.flagThreshold = flagThreshold;
+	}
+	
+	/**
+	 * Starts the sampling thread
+	 */
+	public synchronized void start() {
+		if(monitor != null){
+			return;
+		}
+		Thread thread = new Thread(this::run, "UtilityLib Command Watchdog");
+		thread.setDaemon(true);
+		monitor = thread;
+		thread.start();
+	}
+	
+	/**
+	 * Stops the sampling thread, slow executions are then only detected after they finished
+	 */
+	public synchronized void stop() {
+		Thread thread = monitor;
+		monitor = null;
+		if(thread != null){
+			thread.interrupt();
+		}
+	}
+	
+	/**
+	 * Marks the start of an execution on the current thread, must always be followed by {@link #end(Execution)}
+	 *
+	 * @param path the command path
+	 * @param sender the name of the sender
+	 * @param completion true if this is a tab completion
+	 * @return the execution handle
+	 */
+	public Execution begin(@NotNull String path, @NotNull String sender, boolean completion) {
+		Execution execution = new Execution(Thread.currentThread(), path, sender, completion, System.nanoTime(), current);
+		current = execution;
+		return execution;
+	}
+	
+	/**
+	 * Marks the end of an execution
+	 *
+	 * @param execution the handle returned by {@link #begin(String, String, boolean)}
+	 */
+	public void end(@NotNull Execution execution) {
+		current = execution.parent;
+		long duration = System.nanoTime() - execution.start;
+		if(duration > budgetNanos && !execution.reported){
+			//too short to be sampled, still counts as offence
+			execution.reported = true;
+			offence(execution, duration, null);
+		}
+	}
+	
+	/**
+	 * @param path the command path
+	 * @return true if the path exceeded the budget often enough to be flagged
+	 */
+	public boolean isFlagged(@NotNull String path) {
+		return flagged.contains(path);
+	}
+	
+	/**
+	 * Removes the flag of a path and resets its offences
+	 *
+	 * @param path the command path
+	 */
+	public void unflag(@NotNull String path) {
+		flagged.remove(path);
+		offences.remove(path);
+	}
+	
+	/**
+	 * @return all currently flagged paths
+	 */
+	public Set<String> getFlagged() {
+		return Collections.unmodifiableSet(flagged);
+	}
+	
+	/**
+	 * @param path the command path
+	 * @return how often the path exceeded the budget
+	 */
+	public long getOffences(@NotNull String path) {
+		LongAdder adder = offences.get(path);
+		return adder == null ? 0 : adder.sum();
+	}
+	
+	private void run() {
+		while(monitor == Thread.currentThread()){
+			try{
+				Thread.sleep(intervalMillis);
+			} catch(InterruptedException e){
+				return;
+			}
+			Execution execution = current;
+			if(execution == null || execution.reported){
+				continue;
+			}
+			long duration = System.nanoTime() - execution.start;
+			if(duration > budgetNanos){
+				StackTraceElement[] stack = execution.thread.getStackTrace();
+				//only report if the same execution is still running after capturing the stack
+				if(current == execution && !execution.reported){
+					execution.reported = true;
+					offence(execution, duration, stack);
+				}
+			}
+		}
+	}
+	
+	private void offence(Execution execution, long duration, @Nullable StackTraceElement[] stack) {
+		LongAdder adder = offences.computeIfAbsent(execution.path, path -> new LongAdder());
+		adder.increment();
+		if(flagThreshold > 0 && adder.sum() >= flagThreshold && flagged.add(execution.path)){
+			logger.warning("Command " + execution.path + " exceeded its budget " + adder.sum() + " times and has been flagged");
+		}
+		StringBuilder message = new StringBuilder();
+		message.append(execution.completion ? "Tab completion of " : "Command ")
+			   .append(execution.path)
+			   .append(" by ")
+			   .append(execution.sender)
+			   .append(stack != null ? " is running for " : " took ")
+			   .append(TimeUnit.NANOSECONDS.toMillis(duration))
+			   .append("ms (budget ")
+			   .append(TimeUnit.NANOSECONDS.toMillis(budgetNanos))
+			   .append("ms)");
+		if(stack != null){
+			for(StackTraceElement element : stack){
+				message.append("\n\tat ").append(element);
+			}
+		}
+		logger.log(Level.WARNING, message.toString());
+	}
+	
+	/**
+	 * A running execution, executions started while another one is running (a command dispatching another command) keep a reference
+	 * to it
+	 */
+	public static final class Execution{
+		private final Thread thread;
+		private final String path;
+		private final String sender;
+		private final boolean completion;
+		private final long start;
+		private final Execution parent;
+		private volatile boolean reported;
+		
+		private Execution(Thread thread, String path, String sender, boolean completion, long start, Execution parent) {
+			this.thread = thread;
+			this.path = path;
+			this.sender = sender;
+			this.completion = completion;
+			this.start = start;
+			this.parent = parent;
+		}
+	}
+}
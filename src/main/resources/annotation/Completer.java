@@ -1,6 +0,0 @@
-package com.wonkglorg.utilitylib.command.annotation;
-
-public @interface Completer{
-	
-	int length() default 0;
-}
@@ -0,0 +1,49 @@
+package com.wonkglorg.utilitylib.command.stress;
+
+import com.wonkglorg.utilitylib.command.Arguments;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.LL_Result;
+
+/**
+ * Arguments set through {@link Arguments#setArgs(String[])} are shared by every thread, two threads setting them at the same time can
+ * read each others arguments. Invocations of commands and subcommands bind their arguments to their own thread instead.
+ */
+@JCStressTest
+@Outcome(id = "first, second", expect = Expect.ACCEPTABLE, desc = "Each thread read its own arguments")
+@Outcome(id = {"second, second", "first, first", "second, first"},
+		 expect = Expect.ACCEPTABLE_INTERESTING,
+		 desc = "Arguments were overwritten by the other thread")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Arguments were corrupted")
+@State
+public class ArgumentsSharedStateTest{
+	private final StressArguments arguments = new StressArguments();
+	
+	@Actor
+	public void first(LL_Result result) {
+		arguments.setArgs(new String[]{"first"});
+		result.r1 = arguments.first();
+	}
+	
+	@Actor
+	public void second(LL_Result result) {
+		arguments.setArgs(new String[]{"second"});
+		result.r2 = arguments.first();
+	}
+	
+	/**
+	 * Exposes the protected accessors of {@link Arguments}
+	 */
+	private static final class StressArguments extends Arguments{
+		private StressArguments() {
+			super(0);
+		}
+		
+		String first() {
+			return argAsString(0);
+		}
+	}
+}
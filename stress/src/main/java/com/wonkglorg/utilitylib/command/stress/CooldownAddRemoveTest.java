@@ -0,0 +1,42 @@
+package com.wonkglorg.utilitylib.command.stress;
+
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Adding and removing the same cooldown concurrently must leave it either fully present or fully absent
+ */
+@JCStressTest
+@Outcome(id = "0", expect = Expect.ACCEPTABLE, desc = "Removed after it was added")
+@Outcome(id = "1", expect = Expect.ACCEPTABLE, desc = "Added after it was removed")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Inconsistent cooldown state")
+@State
+public class CooldownAddRemoveTest{
+	private static final UUID PLAYER = new UUID(0, 1);
+	private final CooldownManager manager = new CooldownManager();
+	
+	@Actor
+	public void add() {
+		manager.addCooldown("key", PLAYER, Duration.ofMinutes(1));
+	}
+	
+	@Actor
+	public void remove() {
+		manager.removeCooldown("key", PLAYER);
+	}
+	
+	@Arbiter
+	public void arbiter(I_Result result) {
+		long remaining = manager.getCooldown("key", PLAYER).getRemainingTime();
+		result.r1 = remaining > 0 ? 1 : 0;
+	}
+}
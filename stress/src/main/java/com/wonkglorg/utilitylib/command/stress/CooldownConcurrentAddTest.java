@@ -0,0 +1,42 @@
+package com.wonkglorg.utilitylib.command.stress;
+
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Two players get a cooldown for a key that does not exist yet, creating the key must not lose either of them
+ */
+@JCStressTest
+@Outcome(id = "true, true", expect = Expect.ACCEPTABLE, desc = "Both cooldowns were added")
+@Outcome(expect = Expect.FORBIDDEN, desc = "A cooldown was lost")
+@State
+public class CooldownConcurrentAddTest{
+	private static final UUID FIRST = new UUID(0, 1);
+	private static final UUID SECOND = new UUID(0, 2);
+	private final CooldownManager manager = new CooldownManager();
+	
+	@Actor
+	public void first() {
+		manager.addCooldown("key", FIRST, Duration.ofMinutes(1));
+	}
+	
+	@Actor
+	public void second() {
+		manager.addCooldown("key", SECOND, Duration.ofMinutes(1));
+	}
+	
+	@Arbiter
+	public void arbiter(ZZ_Result result) {
+		result.r1 = manager.getCooldown("key", FIRST).getRemainingTime() > 0;
+		result.r2 = manager.getCooldown("key", SECOND).getRemainingTime() > 0;
+	}
+}
@@ -0,0 +1,42 @@
+package com.wonkglorg.utilitylib.command.stress;
+
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZZ_Result;
+
+import java.util.UUID;
+
+/**
+ * A cooldown group and a single key of it are acquired concurrently. Either both keys of the group or only the single key end up
+ * owned by one invocation, a rolled back group never leaves one of its keys behind.
+ */
+@JCStressTest
+@Outcome(id = "true, false, true", expect = Expect.ACCEPTABLE, desc = "The group acquired both keys")
+@Outcome(id = "false, true, false", expect = Expect.ACCEPTABLE, desc = "The single key won, the group acquired nothing")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Both acquired the shared key or the group was only partially acquired")
+@State
+public class CooldownGroupAcquireTest{
+	private static final UUID PLAYER = new UUID(0, 1);
+	private static final String[] GROUP = {"first", "second"};
+	private final CooldownManager manager = new CooldownManager();
+	
+	@Actor
+	public void group(ZZZ_Result result) {
+		result.r1 = manager.tryAcquire(GROUP, PLAYER, 60_000) == 0;
+	}
+	
+	@Actor
+	public void single(ZZZ_Result result) {
+		result.r2 = manager.tryAcquire("first", PLAYER, 60_000) == 0;
+	}
+	
+	@Arbiter
+	public void arbiter(ZZZ_Result result) {
+		result.r3 = manager.hasCooldown("second", PLAYER);
+	}
+}
@@ -0,0 +1,48 @@
+package com.wonkglorg.utilitylib.command.stress;
+
+import com.wonkglorg.utilitylib.command.cooldown.Cooldown;
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * A lookup racing with the insertion of the same cooldown must see either no cooldown or the complete cooldown, never a partially
+ * constructed one or null
+ */
+@JCStressTest
+@Outcome(id = "0", expect = Expect.ACCEPTABLE, desc = "Lookup before the cooldown was added")
+@Outcome(id = "1", expect = Expect.ACCEPTABLE, desc = "Lookup after the cooldown was added")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Null or partially constructed cooldown")
+@State
+public class CooldownLookupTest{
+	private static final UUID PLAYER = new UUID(0, 1);
+	private static final Duration DURATION = Duration.ofHours(1);
+	private final CooldownManager manager = new CooldownManager();
+	
+	@Actor
+	public void add() {
+		manager.addCooldown("key", PLAYER, DURATION);
+	}
+	
+	@Actor
+	public void lookup(I_Result result) {
+		Cooldown cooldown = manager.getCooldown("key", PLAYER);
+		if(cooldown == null || cooldown.getDuration() == null){
+			result.r1 = -1;
+			return;
+		}
+		long remaining = cooldown.getRemainingTime();
+		if(remaining > 0){
+			result.r1 = cooldown.getDuration().equals(DURATION) && remaining <= DURATION.toMillis() ? 1 : -1;
+		} else {
+			result.r1 = 0;
+		}
+	}
+}
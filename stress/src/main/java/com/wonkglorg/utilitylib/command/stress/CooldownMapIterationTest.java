@@ -0,0 +1,54 @@
+package com.wonkglorg.utilitylib.command.stress;
+
+import com.wonkglorg.utilitylib.command.cooldown.Cooldown;
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+
+import java.time.Duration;
+import java.util.ConcurrentModificationException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Iterates the map handed out by {@link CooldownManager#getCooldowns(String)} while another thread adds a cooldown to the same key.
+ * <p>
+ * Callers iterate this map without holding any lock, the map of every key is concurrent so iterating it must never fail.
+ */
+@JCStressTest
+@Outcome(id = {"2", "3"}, expect = Expect.ACCEPTABLE, desc = "Iteration saw a consistent map")
+@Outcome(id = "-1", expect = Expect.FORBIDDEN, desc = "Handed out map was modified while being iterated")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Iteration saw an impossible amount of entries")
+@State
+public class CooldownMapIterationTest{
+	private final CooldownManager manager = new CooldownManager();
+	
+	public CooldownMapIterationTest() {
+		manager.addCooldown("key", new UUID(0, 1), Duration.ofMinutes(1));
+		manager.addCooldown("key", new UUID(0, 2), Duration.ofMinutes(1));
+	}
+	
+	@Actor
+	public void add() {
+		manager.addCooldown("key", new UUID(0, 3), Duration.ofMinutes(1));
+	}
+	
+	@Actor
+	public void iterate(I_Result result) {
+		try{
+			int count = 0;
+			for(Map.Entry<UUID, Cooldown> entry : manager.getCooldowns("key").entrySet()){
+				if(entry.getValue() != null){
+					count++;
+				}
+			}
+			result.r1 = count;
+		} catch(ConcurrentModificationException e){
+			result.r1 = -1;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.wonkglorg.utilitylib.command.stress;
+
+import com.wonkglorg.utilitylib.command.cooldown.Cooldown;
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import com.wonkglorg.utilitylib.command.cooldown.shared.CooldownUpdate;
+import com.wonkglorg.utilitylib.command.cooldown.shared.InMemorySharedCooldownStore;
+import com.wonkglorg.utilitylib.command.cooldown.tier.PackedColdTier;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * With tiering and sync both enabled the shared cooldowns of a parked player are fetched while the tier listener pages the player in.
+ * Whichever listener runs first, both the fetched and the parked cooldown end up in memory.
+ */
+@JCStressTest
+@Outcome(id = "true, true", expect = Expect.ACCEPTABLE, desc = "Fetched and parked cooldowns are both in memory")
+@Outcome(expect = Expect.FORBIDDEN, desc = "The fetched updates or the parked cooldowns were lost")
+@State
+public class CooldownTieredSyncTest{
+	private static final UUID PLAYER = new UUID(0, 1);
+	private final CooldownManager manager = new CooldownManager();
+	
+	public CooldownTieredSyncTest() {
+		InMemorySharedCooldownStore store = new InMemorySharedCooldownStore();
+		store.publish("other", List.of(new CooldownUpdate("shared", PLAYER, System.currentTimeMillis(), 60_000)));
+		PackedColdTier coldTier = new PackedColdTier();
+		coldTier.store(PLAYER, Map.of("parked", new Cooldown(60_000)));
+		manager.enableTiering(coldTier);
+		manager.enableSync(store, "this");
+	}
+	
+	@Actor
+	public void fetch() {
+		manager.fetchShared(PLAYER);
+	}
+	
+	@Actor
+	public void unpark() {
+		manager.unpark(PLAYER);
+	}
+	
+	@Arbiter
+	public void arbiter(ZZ_Result result) {
+		Map<UUID, Cooldown> shared = manager.getCooldowns("shared");
+		Map<UUID, Cooldown> parked = manager.getCooldowns("parked");
+		result.r1 = shared != null && shared.containsKey(PLAYER);
+		result.r2 = parked != null && parked.containsKey(PLAYER);
+	}
+}
@@ -0,0 +1,33 @@
+package com.wonkglorg.utilitylib.command.stress;
+
+import com.wonkglorg.utilitylib.command.cooldown.CooldownManager;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import java.util.UUID;
+
+/**
+ * Two invocations acquire the same cooldown concurrently, exactly one of them may pass
+ */
+@JCStressTest
+@Outcome(id = {"true, false", "false, true"}, expect = Expect.ACCEPTABLE, desc = "Exactly one invocation acquired the cooldown")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Both or no invocation acquired the cooldown")
+@State
+public class CooldownTryAcquireTest{
+	private static final UUID PLAYER = new UUID(0, 1);
+	private final CooldownManager manager = new CooldownManager();
+	
+	@Actor
+	public void first(ZZ_Result result) {
+		result.r1 = manager.tryAcquire("key", PLAYER, 60_000) == 0;
+	}
+	
+	@Actor
+	public void second(ZZ_Result result) {
+		result.r2 = manager.tryAcquire("key", PLAYER, 60_000) == 0;
+	}
+}